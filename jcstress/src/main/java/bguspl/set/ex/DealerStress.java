@@ -0,0 +1,114 @@
+package bguspl.set.ex;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+import org.openjdk.jcstress.infra.results.Z_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import static bguspl.set.ex.TableStress.env;
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * jcstress tests of the handoffs between the dealer thread and the player threads: the end of a reshuffle, and claims
+ * submitted while the dealer cancels the pending claims (on a reshuffle or when the game terminates).
+ */
+public class DealerStress {
+
+    static Dealer createDealer(Table table) {
+        return new Dealer(env, table, new Player[0]);
+    }
+
+    static Claim createClaim() {
+        return new Claim(0, new Integer[]{TableStress.card, null, null}, System.nanoTime());
+    }
+
+    @JCStressTest
+    @Description("The dealer deals a card and ends the reshuffle while a player checks whether it may play.")
+    @Outcome(id = "1, -1", expect = ACCEPTABLE, desc = "The player sees the reshuffle still going.")
+    @Outcome(id = "1, 5", expect = ACCEPTABLE, desc = "The player sees the card dealt before the reshuffle ends.")
+    @Outcome(id = "0, 5", expect = ACCEPTABLE, desc = "The player sees the reshuffle ended and the card dealt.")
+    @Outcome(id = "0, -1", expect = FORBIDDEN, desc = "The player sees the reshuffle ended but not the card dealt.")
+    @State
+    public static class ShuffleHandoff {
+
+        final Table table = new Table(env);
+        final Dealer dealer = createDealer(table);
+
+        @Actor
+        public void dealer() {
+            table.placeCard(TableStress.card, 0);
+            dealer.shuffle = false;
+        }
+
+        @Actor
+        public void player(II_Result r) {
+            r.r1 = dealer.shuffleStatus() ? 1 : 0;
+            Integer card = table.slotToCard[0];
+            r.r2 = card == null ? -1 : card;
+        }
+    }
+
+    @JCStressTest
+    @Description("A player submits a claim while the dealer cancels the pending claims for a reshuffle.")
+    @Outcome(id = "true, true", expect = ACCEPTABLE, desc = "The claim was cancelled by the reshuffle.")
+    @Outcome(id = "false, true", expect = ACCEPTABLE, desc = "The claim arrived after the reshuffle and was "
+            + "cancelled by the next one.")
+    @Outcome(expect = FORBIDDEN, desc = "The claim was lost: it is neither answered nor pending.")
+    @State
+    public static class ClaimDuringReshuffle {
+
+        final Dealer dealer = createDealer(TableStress.createTable());
+        final Claim claim = createClaim();
+
+        @Actor
+        public void player() {
+            dealer.submitClaim(claim);
+        }
+
+        @Actor
+        public void dealer() {
+            dealer.cancelClaims();
+        }
+
+        @Arbiter
+        public void arbiter(ZZ_Result r) {
+            r.r1 = claim.verdict.isDone();
+            dealer.cancelClaims();
+            r.r2 = claim.verdict.isDone();
+        }
+    }
+
+    @JCStressTest
+    @Description("A player submits a claim while the game terminates (the dealer cancels the pending claims once "
+            + "more on its way out).")
+    @Outcome(id = "true", expect = ACCEPTABLE, desc = "The claim was cancelled.")
+    @Outcome(id = "false", expect = FORBIDDEN, desc = "The claim was left pending after the game terminated.")
+    @State
+    public static class ClaimDuringTerminate {
+
+        final Dealer dealer = createDealer(TableStress.createTable());
+        final Claim claim = createClaim();
+
+        @Actor
+        public void player() {
+            dealer.submitClaim(claim);
+        }
+
+        @Actor
+        public void dealer() {
+            dealer.terminate();
+            dealer.cancelClaims();
+        }
+
+        @Arbiter
+        public void arbiter(Z_Result r) {
+            r.r1 = claim.verdict.isDone();
+        }
+    }
+}
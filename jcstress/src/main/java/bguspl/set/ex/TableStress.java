@@ -0,0 +1,145 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterfaceDecorator;
+import bguspl.set.Util;
+import bguspl.set.UtilImpl;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * jcstress tests of the races between the player threads and the dealer thread on the table: tokens placed and removed
+ * on the same slot, and a token placed while the dealer replaces the slot's card. See pom.xml for running them.
+ */
+public class TableStress {
+
+    /**
+     * The card in slot 0 when each test starts, and the card the dealer replaces it with.
+     */
+    static final int card = 5;
+    static final int replacement = 7;
+
+    /**
+     * The environment shared by all the tests (no user interface, no logging and no table delay).
+     */
+    static final Env env = createEnv();
+
+    static Env createEnv() {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.OFF);
+        Properties properties = new Properties();
+        properties.setProperty("TableDelaySeconds", "0");
+        properties.setProperty("LogLevel", "OFF");
+        Config config = new Config(logger, properties);
+        Util util = new UtilImpl(config);
+        return new Env(logger, config, new UserInterfaceDecorator(logger, util), util);
+    }
+
+    static Table createTable() {
+        Table table = new Table(env);
+        table.placeCard(card, 0);
+        return table;
+    }
+
+    @JCStressTest
+    @Description("Two players place their tokens on the same slot.")
+    @Outcome(id = "true, true", expect = ACCEPTABLE, desc = "Both tokens are on the slot.")
+    @Outcome(expect = FORBIDDEN, desc = "A token was lost.")
+    @State
+    public static class TokenPlacement {
+
+        final Table table = createTable();
+
+        @Actor
+        public void player0() {
+            table.placeToken(0, 0);
+        }
+
+        @Actor
+        public void player1() {
+            table.placeToken(1, 0);
+        }
+
+        @Arbiter
+        public void arbiter(ZZ_Result r) {
+            r.r1 = table.hasTokenOn(0, 0);
+            r.r2 = table.hasTokenOn(1, 0);
+        }
+    }
+
+    @JCStressTest
+    @Description("A player places a token on a slot while another player removes its token from it.")
+    @Outcome(id = "true, false", expect = ACCEPTABLE, desc = "Only the placed token is on the slot.")
+    @Outcome(expect = FORBIDDEN, desc = "The placed token was lost, or the removed one survived.")
+    @State
+    public static class TokenPlacementAndRemoval {
+
+        final Table table = createTable();
+
+        {
+            table.placeToken(1, 0);
+        }
+
+        @Actor
+        public void player0() {
+            table.placeToken(0, 0);
+        }
+
+        @Actor
+        public void player1() {
+            table.removeToken(1, 0);
+        }
+
+        @Arbiter
+        public void arbiter(ZZ_Result r) {
+            r.r1 = table.hasTokenOn(0, 0);
+            r.r2 = table.hasTokenOn(1, 0);
+        }
+    }
+
+    @JCStressTest
+    @Description("A player places a token and reads the cards it claims while the dealer replaces the slot's card.")
+    @Outcome(id = "5, -1", expect = ACCEPTABLE, desc = "The token was placed on the old card and removed with it.")
+    @Outcome(id = "-1, -1", expect = ACCEPTABLE, desc = "The token was removed with the old card before the claim, "
+            + "or ignored on the empty slot.")
+    @Outcome(id = "7, 7", expect = ACCEPTABLE, desc = "The token was placed on the new card.")
+    @Outcome(expect = FORBIDDEN, desc = "The token outlived its card, or the claim paired it with the wrong card.")
+    @State
+    public static class TokenAndCardReplacement {
+
+        final Table table = createTable();
+
+        @Actor
+        public void player(II_Result r) {
+            table.placeToken(0, 0);
+            Integer claimed = table.getPlayersCards(0)[0];
+            r.r1 = claimed == null ? -1 : claimed;
+        }
+
+        @Actor
+        public void dealer() {
+            table.removeCard(0);
+            table.placeCard(replacement, 0);
+        }
+
+        @Arbiter
+        public void arbiter(II_Result r) {
+            r.r2 = table.hasTokenOn(0, 0) ? table.slotToCard[0] : -1;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Properties;
+import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,6 +22,26 @@ public class Config {
     public final long randomSpinMin;
     public final long randomSpinMax;
 
+    /**
+     * The size of a log file in bytes, after which the log rolls over to a new file (0 or less to never roll over)
+     */
+    public final long logFileBytes;
+
+    /**
+     * The number of log files of a game kept (0 or less to keep all)
+     */
+    public final int logFiles;
+
+    /**
+     * The total size in bytes of the log directory, beyond which the oldest logs are deleted (0 or less for no budget)
+     */
+    public final long logBudgetBytes;
+
+    /**
+     * True iff the rolled over log files are compressed (gzip)
+     */
+    public final boolean logCompression;
+
     /**
      * The number of features on the cards (e.g. shape, color etc.)
      */
@@ -36,6 +57,17 @@ public class Config {
      */
     public final int deckSize;
 
+    /**
+     * The number of cards in a legal set (i.e. featureSize)
+     */
+    public final int setSize;
+
+    /**
+     * The minimal number of cards for which the set search is split across the fork/join pool (see FindSetsBenchmark:
+     * the default keeps the dealer's search of a full 3^4 deck, which stops at the first set, sequential)
+     */
+    public final int parallelSearchThreshold;
+
     /**
      * The number of human players in the game.
      */
@@ -76,6 +108,27 @@ public class Config {
      */
     public final long pointFreezeMillis;
 
+    /**
+     * The number of milliseconds the dealer waits for racing claims before adjudicating them by their timestamps
+     */
+    public final long claimWindowMillis;
+
+    /**
+     * The number of milliseconds a player waits for the verdict of a claim before withdrawing it
+     */
+    public final long claimTimeoutMillis;
+
+    /**
+     * What to do with a key press when the player's input buffer is full (DropNewest, DropOldest or Coalesce)
+     */
+    public final String inputOverflow;
+
+    /**
+     * How the dealer chooses the cards to deal: Random (the top cards of the shuffled deck) or SetGuaranteeing (the
+     * last card of a deal makes a set whenever the deck allows it)
+     */
+    public final String dealingStrategy;
+
     /**
      * The number of milliseconds to delay before removing/placing a card on the table
      */
@@ -132,6 +185,66 @@ public class Config {
      */
     public final int fontSize;
 
+    /**
+     * The user interface to show the game in: Swing (a window), Terminal (ANSI text on the standard output) or None
+     */
+    public final String userInterface;
+
+    /**
+     * The maximal number of frames per second drawn by the terminal user interface
+     */
+    public final int terminalFramesPerSecond;
+
+    /**
+     * The port of the server accepting remote players (0 to run without a server)
+     */
+    public final int serverPort;
+
+    /**
+     * The maximal number of bytes buffered for a remote client before it is disconnected
+     */
+    public final int serverMaxPendingBytes;
+
+    /**
+     * The port of the server streaming the game to spectators (0 to run without spectators)
+     */
+    public final int spectatorPort;
+
+    /**
+     * The number of threads pushing the game to the spectators
+     */
+    public final int spectatorFanOutThreads;
+
+    /**
+     * The file the results of the games are appended to (empty to not save them)
+     */
+    public final String resultsFile;
+
+    /**
+     * The file the checkpoints of the game in progress are written to (empty to not take checkpoints)
+     */
+    public final String checkpointFile;
+
+    /**
+     * The number of milliseconds between two checkpoints of the game in progress
+     */
+    public final long checkpointMillis;
+
+    /**
+     * The number of milliseconds a game thread may stall before the watchdog reports it (0 or less to not watch)
+     */
+    public final long watchdogMillis;
+
+    /**
+     * True iff the watchdog wakes the stalled threads up (cancelling the claims they wait for)
+     */
+    public final boolean watchdogRecovery;
+
+    /**
+     * The number of milliseconds the shutdown waits for the player threads (all of them together) to stop
+     */
+    public final long shutdownMillis;
+
     /**
      * The scancodes of the keyboard input data for each player
      * Notes:
@@ -186,6 +299,15 @@ public class Config {
         Level logLevel = Level.parse(properties.getProperty("LogLevel", "ALL"));
         String logFormat = properties.getProperty("LogFormat", "[%1$tT.%1$tL] [%2$-7s] %3$s%n");
         Main.setLoggerLevelAndFormat(logger, logLevel, logFormat);
+        logFileBytes = (long) (Double.parseDouble(properties.getProperty("LogFileMegabytes", "10")) * 1024 * 1024);
+        logFiles = Integer.parseInt(properties.getProperty("LogFiles", "10"));
+        logBudgetBytes = (long) (Double.parseDouble(properties.getProperty("LogBudgetMegabytes", "0")) * 1024 * 1024);
+        logCompression = Boolean.parseBoolean(properties.getProperty("LogCompression", "True"));
+        Handler[] handlers = logger.getHandlers();
+        if (handlers != null)
+            for (Handler handler : handlers)
+                if (handler instanceof RollingFileHandler)
+                    ((RollingFileHandler) handler).configure(logFileBytes, logFiles, logBudgetBytes, logCompression);
 
         // for debugging
         randomSpinMin = Long.parseLong(properties.getProperty("RandomSpinMin", "0"));
@@ -197,6 +319,8 @@ public class Config {
         featureSize = Integer.parseInt(properties.getProperty("FeatureSize", "3"));
         featureCount = Integer.parseInt(properties.getProperty("FeatureCount", "4"));
         deckSize = (int) Math.pow(featureSize, featureCount);
+        setSize = featureSize;
+        parallelSearchThreshold = Integer.parseInt(properties.getProperty("ParallelSearchThreshold", "96"));
 
         // gameplay settings
         humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
@@ -208,6 +332,10 @@ public class Config {
         turnTimeoutWarningMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutWarningSeconds", "60")) * 1000.0);
         pointFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PointFreezeSeconds", "1")) * 1000.0);
         penaltyFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PenaltyFreezeSeconds", "3")) * 1000.0);
+        claimWindowMillis = (long) (Double.parseDouble(properties.getProperty("ClaimWindowSeconds", "0.002")) * 1000.0);
+        claimTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("ClaimTimeoutSeconds", "5")) * 1000.0);
+        inputOverflow = properties.getProperty("InputOverflow", "DropNewest").trim();
+        dealingStrategy = properties.getProperty("DealingStrategy", "Random").trim();
         tableDelayMillis = (long) (Double.parseDouble(properties.getProperty("TableDelaySeconds", "0.1")) * 1000.0);
         endGamePauseMillies = (long) (Double.parseDouble(properties.getProperty("EndGamePauseSeconds", "5")) * 1000.0);
 
@@ -224,6 +352,22 @@ public class Config {
         playerCellWidth = Integer.parseInt(properties.getProperty("PlayerCellWidth", "300"));
         playerCellHeight = Integer.parseInt(properties.getProperty("PlayerCellHeight", "40"));
         fontSize = Integer.parseInt(properties.getProperty("FontSize", "40"));
+        userInterface = properties.getProperty("UserInterface", "Swing").trim();
+        terminalFramesPerSecond = Integer.parseInt(properties.getProperty("TerminalFramesPerSecond", "10"));
+
+        // network settings
+        serverPort = Integer.parseInt(properties.getProperty("ServerPort", "0"));
+        serverMaxPendingBytes = Integer.parseInt(properties.getProperty("ServerMaxPendingBytes", "1048576"));
+        spectatorPort = Integer.parseInt(properties.getProperty("SpectatorPort", "0"));
+        spectatorFanOutThreads = Integer.parseInt(properties.getProperty("SpectatorFanOutThreads", "2"));
+
+        // results and checkpoint settings
+        resultsFile = properties.getProperty("ResultsFile", "").trim();
+        checkpointFile = properties.getProperty("CheckpointFile", "").trim();
+        checkpointMillis = (long) (Double.parseDouble(properties.getProperty("CheckpointSeconds", "5")) * 1000.0);
+        watchdogMillis = (long) (Double.parseDouble(properties.getProperty("WatchdogSeconds", "10")) * 1000.0);
+        watchdogRecovery = Boolean.parseBoolean(properties.getProperty("WatchdogRecovery", "False"));
+        shutdownMillis = (long) (Double.parseDouble(properties.getProperty("ShutdownSeconds", "3")) * 1000.0);
 
         // keyboard input data
         playerKeys = new int[players][rows * columns];
@@ -39,8 +39,9 @@ class InputManager extends KeyAdapter {
 
     @Override
     public void keyPressed(KeyEvent e) {
-        // dispatch the key event to the player according to the key map
+        // dispatch the key event to the player according to the key map (it is only buffered, so the EDT never blocks)
         int keyCode = e.getKeyCode();
+        if (keyCode >= keyMap.length) return;
         int player = keyMap[keyCode] - 1;
         if (player >= 0){
             logger.severe("key " + keyCode + " was pressed by player " + (player + 1));
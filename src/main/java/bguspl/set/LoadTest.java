@@ -0,0 +1,274 @@
+package bguspl.set;
+
+import bguspl.set.ex.ClaimMetrics;
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A headless load generator for the game engine: runs a game without a user interface and drives Player.keyPressed
+ * for all the players (as human players, i.e. without the computer players' threads) at a configurable rate and
+ * pattern, then reports the key presses accepted and dropped, the claims and verdict latency, the dealer's CPU time
+ * and the reshuffle rate.
+ * Usage: LoadTest players keysPerSecond pattern seconds [config.properties]
+ * where pattern is uniform (random slots), bursty (the same average rate, sent in bursts) or valid-set (every player
+ * repeatedly claims one of the legal sets on the table). Settings missing from the configuration file use the
+ * defaults; the player counts are overridden and the table delay, end game pause and logging are turned off.
+ */
+public class LoadTest {
+
+    public enum Pattern {
+        UNIFORM, BURSTY, VALID_SET
+    }
+
+    /**
+     * The interval between the drivers' rounds of key presses.
+     */
+    private static final long tickMillis = 1;
+
+    /**
+     * The period of the bursty pattern, and the part of it in which the key presses are sent.
+     */
+    private static final long burstPeriodMillis = 1000;
+    private static final long burstMillis = 100;
+
+    private final Config config;
+    private final Util util;
+    private final Table table;
+    private final Player[] players;
+    private final Dealer dealer;
+    private final Pattern pattern;
+    private final double keysPerMilli;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * The key presses skipped in the valid-set pattern because there was no legal set on the table.
+     */
+    private final LongAdder skipped = new LongAdder();
+    private volatile boolean stop;
+
+    public LoadTest(Properties properties, int players, double keysPerSecond, Pattern pattern) {
+        properties.setProperty("HumanPlayers", Integer.toString(players));
+        properties.setProperty("ComputerPlayers", "0");
+        properties.setProperty("TableDelaySeconds", "0");
+        properties.setProperty("EndGamePauseSeconds", "0");
+        properties.setProperty("LogLevel", "OFF");
+
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.OFF);
+        config = new Config(logger, properties);
+        util = new UtilImpl(config);
+        Env env = new Env(logger, config, new UserInterfaceDecorator(logger, util), util);
+
+        table = new Table(env);
+        this.players = new Player[config.players];
+        dealer = new Dealer(env, table, this.players);
+        for (int i = 0; i < this.players.length; i++)
+            this.players[i] = new Player(env, dealer, table, i, true);
+        this.pattern = pattern;
+        keysPerMilli = keysPerSecond / 1000.0;
+    }
+
+    /**
+     * Runs the game for the given duration and prints the report.
+     */
+    public void run(long millis) throws InterruptedException {
+        Thread dealerThread = new Thread(dealer, "dealer");
+        int driverCount = Math.max(1, Math.min(players.length, Runtime.getRuntime().availableProcessors()));
+        List<Thread> drivers = new ArrayList<>();
+        for (int i = 0; i < driverCount; i++) {
+            List<Player> driven = new ArrayList<>();
+            for (int player = i; player < players.length; player += driverCount)
+                driven.add(players[player]);
+            drivers.add(new Thread(new Driver(driven), "load-driver-" + i));
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = System.nanoTime();
+        dealerThread.start();
+        drivers.forEach(Thread::start);
+        Thread.sleep(millis);
+
+        stop = true;
+        for (Thread driver : drivers)
+            driver.join();
+        long dealerCpuNanos = threads.isThreadCpuTimeSupported() ? threads.getThreadCpuTime(dealerThread.getId()) : -1;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        dealer.terminate();
+        dealerThread.join();
+
+        report(seconds, dealerCpuNanos);
+    }
+
+    private void report(double seconds, long dealerCpuNanos) {
+        ClaimMetrics claims = dealer.claimMetrics();
+        long sent = accepted.sum() + dropped.sum();
+        int points = 0;
+        for (Player player : players)
+            points += player.score();
+
+        System.out.println("players: " + players.length + ", pattern: " + pattern.name().toLowerCase().replace('_', '-')
+                + ", rate: " + Math.round(keysPerMilli * 1000) + " keys/s per player, duration: "
+                + String.format("%.1f", seconds) + " s");
+        System.out.println("key presses: " + sent + " (" + Math.round(sent / seconds) + "/s), accepted: "
+                + accepted.sum() + " (" + Math.round(accepted.sum() / seconds) + "/s), dropped: " + dropped.sum()
+                + String.format(" (%.1f%%)", sent == 0 ? 0 : 100.0 * dropped.sum() / sent)
+                + (pattern == Pattern.VALID_SET ? ", skipped (no set on the table): " + skipped.sum() : ""));
+        System.out.println("claims: " + claims.claims() + " (" + Math.round(claims.claims() / seconds) + "/s), sets: "
+                + points + ", stale: " + claims.stale() + ", reordered: " + claims.reordered() + ", overturned: "
+                + claims.overturned());
+        System.out.println(String.format("verdict latency: %.2f ms average, %.2f ms max",
+                claims.averageLatencyMillis(), claims.maxLatencyMillis()));
+        System.out.println(dealerCpuNanos < 0 ? "dealer cpu: not supported" : String.format(
+                "dealer cpu: %d ms (%.1f%% of a core)", dealerCpuNanos / 1000000, dealerCpuNanos / 1e7 / seconds));
+        System.out.println(String.format("reshuffles: %d (%.1f/min)", dealer.reshuffles(), dealer.reshuffles() * 60 / seconds));
+    }
+
+    /**
+     * Presses the keys of some of the players.
+     */
+    private class Driver implements Runnable {
+
+        private final List<Player> players;
+
+        /**
+         * The key presses each player is due (fractions carried to the next round).
+         */
+        private final double[] credits;
+
+        /**
+         * The slots each player presses next in the valid-set pattern.
+         */
+        private final List<List<Integer>> plans = new ArrayList<>();
+
+        /**
+         * The phase of each player in the bursty pattern.
+         */
+        private final long[] phases;
+
+        private Driver(List<Player> players) {
+            this.players = players;
+            credits = new double[players.size()];
+            phases = new long[players.size()];
+            for (int i = 0; i < players.size(); i++) {
+                plans.add(new ArrayList<>());
+                phases[i] = ThreadLocalRandom.current().nextLong(burstPeriodMillis);
+            }
+        }
+
+        @Override
+        public void run() {
+            long last = System.currentTimeMillis();
+            while (!stop) {
+                try {
+                    Thread.sleep(tickMillis);
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < players.size(); i++) {
+                    credits[i] += keys(i, last, now);
+                    for (; credits[i] >= 1; credits[i]--)
+                        press(i);
+                }
+                last = now;
+            }
+        }
+
+        /**
+         * @return - the number of key presses player i is due for the interval [from, to).
+         */
+        private double keys(int i, long from, long to) {
+            if (pattern != Pattern.BURSTY)
+                return (to - from) * keysPerMilli;
+            double keys = 0;
+            for (long time = from; time < to; time++)
+                if ((time + phases[i]) % burstPeriodMillis < burstMillis)
+                    keys += keysPerMilli * burstPeriodMillis / burstMillis;
+            return keys;
+        }
+
+        private void press(int i) {
+            Player player = players.get(i);
+            int slot;
+            if (pattern == Pattern.VALID_SET) {
+                List<Integer> plan = plans.get(i);
+                if (plan.isEmpty())
+                    plan(player, plan);
+                if (plan.isEmpty()) {
+                    skipped.increment();
+                    return;
+                }
+                slot = plan.remove(0);
+            } else
+                slot = ThreadLocalRandom.current().nextInt(config.tableSize);
+
+            if (player.keyPressed(slot)) accepted.increment();
+            else dropped.increment();
+        }
+
+        /**
+         * Plans the key presses claiming a random legal set on the table: removing the player's other tokens, then
+         * placing the missing ones. The sets and their slots come from one snapshot of the table (Table.cards), as the
+         * table's other card lookups are not safe outside the dealer's thread.
+         */
+        private void plan(Player player, List<Integer> plan) {
+            int[] cards = table.cards();
+            List<Integer> onTable = new ArrayList<>();
+            for (int card : cards)
+                if (card != Table.noCard)
+                    onTable.add(card);
+            List<int[]> sets = util.findSets(onTable, Integer.MAX_VALUE);
+            if (sets.isEmpty())
+                return;
+            int[] set = sets.get(ThreadLocalRandom.current().nextInt(sets.size()));
+            List<Integer> setSlots = new ArrayList<>();
+            for (int card : set)
+                for (int slot = 0; slot < cards.length; slot++)
+                    if (cards[slot] == card)
+                        setSlots.add(slot);
+            for (int slot = 0; slot < config.tableSize; slot++)
+                if (table.hasTokenOn(player.id, slot) && !setSlots.contains(slot))
+                    plan.add(slot);
+            for (int slot : setSlots)
+                if (!table.hasTokenOn(player.id, slot))
+                    plan.add(slot);
+        }
+    }
+
+    private static Properties loadProperties(String filename) throws IOException {
+        Properties properties = new Properties();
+        if (filename != null)
+            try (InputStream is = new FileInputStream(filename)) {
+                properties.load(is);
+            }
+        return properties;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.out.println("usage: LoadTest players keysPerSecond uniform|bursty|valid-set seconds [config.properties]");
+            return;
+        }
+        Pattern pattern = Pattern.valueOf(args[2].toUpperCase().replace('-', '_'));
+        LoadTest test = new LoadTest(loadProperties(args.length > 4 ? args[4] : null), Integer.parseInt(args[0]),
+                Double.parseDouble(args[1]), pattern);
+        test.run((long) (Double.parseDouble(args[3]) * 1000.0));
+    }
+}
@@ -1,15 +1,28 @@
 package bguspl.set;
 
+import bguspl.set.ex.Checkpoint;
+import bguspl.set.ex.Checkpointer;
 import bguspl.set.ex.Dealer;
 import bguspl.set.ex.Player;
 import bguspl.set.ex.Table;
+import bguspl.set.net.GameServer;
+import bguspl.set.net.SpectatorServer;
+import bguspl.set.net.UserInterfaceNetwork;
 
-import java.io.File;
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.awt.HeadlessException;
 import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.*;
 
 /**
@@ -18,45 +31,51 @@ import java.util.logging.*;
 public class Main {
 
     private static Dealer dealer;
-    private static Thread mainThread;
+    private static long startupNanos;
 
     private static boolean xButtonPressed = false;
     private static Logger logger;
 
-    public static void xButtonPressed() throws InterruptedException {
+    /**
+     * Ends the game without blocking the caller (the EDT): the dealer is terminated on a thread of its own, and the
+     * main thread exits once the dealer thread ends.
+     */
+    public static void xButtonPressed() {
         if (logger != null) logger.severe("exit button pressed");
         xButtonPressed = true;
-        if (dealer != null) dealer.terminate();
-        mainThread.join();
+        if (dealer == null) return;
+        Thread shutdown = new Thread(dealer::terminate, "shutdown");
+        shutdown.start();
     }
 
     /**
      * The game's main function. Creates all data structures and initializes the threads.
+     * The card images are decoded on a small pool and the frame is then built on the EDT, while the game entities are
+     * created on the main thread. The dealer thread starts once the user interface is ready.
      *
-     * @param args - unused.
+     * @param args - "--restore [checkpoint-file]" resumes the game saved in the checkpoint file (by default, the
+     *             configured CheckpointFile).
      */
     public static void main(String[] args) {
 
-        mainThread = Thread.currentThread();
+        startupNanos = System.nanoTime();
 
         // create the game environment objects
         logger = initLogger();
         ThreadLogger.logStart(logger, Thread.currentThread().getName());
         Config config = new Config(logger, "config.properties");
         Util util = new UtilImpl(config);
+        logStartup("config loaded");
 
         Player[] players = new Player[config.players];
-        UserInterface ui = null;
-        try {
-            ui = new UserInterfaceSwing(logger, config, players);
-        } catch (UnsupportedOperationException | IllegalArgumentException e) {
-            logger.severe("error creating swing user interface: " + e.getMessage());
-            logger.severe("will try to run without user interface");
-            if (config.humanPlayers > 0)
-                logger.severe("warning: running with human players with no user interface");
-        }
-        ui = new UserInterfaceDecorator(logger, util, ui);
+        ExecutorService imageLoader = Executors.newFixedThreadPool(imageLoaderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "image-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<UserInterface> frontEnd = createUserInterface(config, players, imageLoader);
 
+        UserInterfaceDecorator ui = new UserInterfaceDecorator(logger, util);
         Env env = new Env(logger, config, ui, util);
 
         // create the game entities
@@ -64,10 +83,26 @@ public class Main {
         dealer = new Dealer(env, table, players);
         for (int i = 0; i < players.length; i++)
             players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
+        logStartup("game entities created");
+
+        // accept remote players (if configured)
+        GameServer server = startServer(config, players);
+        SpectatorServer spectators = startSpectatorServer(config);
+
+        // wait for the user interface before dealing
+        ui.setUserInterface(UserInterfaceGroup.of(awaitUserInterface(frontEnd, config), server == null ? null : new UserInterfaceNetwork(server),
+                spectators == null ? null : spectators.service()));
+        imageLoader.shutdown();
+        logStartup("user interface ready");
+
+        // resume a saved game (if requested)
+        if (args.length > 0 && args[0].equals("--restore"))
+            restore(dealer, args.length > 1 ? args[1] : config.checkpointFile);
 
         // start the dealer thread
         ThreadLogger dealerThread = new ThreadLogger(dealer, "dealer", logger);
         dealerThread.startWithLog();
+        logStartup("dealer started");
 
         try {
             // shutdown stuff
@@ -79,19 +114,135 @@ public class Main {
             System.out.println("Thanks for playing... it was fun!");
             ThreadLogger.logStop(logger, Thread.currentThread().getName());
             if (!xButtonPressed) env.ui.dispose();
-            for (Handler h : logger.getHandlers()) h.flush();
+            if (server != null) server.terminate();
+            if (spectators != null) spectators.terminate();
+            int stragglers = dealer.stragglers().size();
+            if (stragglers > 0) logger.severe("exiting with " + stragglers + " player threads still running");
+            // closing the log waits for its segments being compressed (on a daemon thread, which exit would kill)
+            for (Handler h : logger.getHandlers()) {
+                logger.removeHandler(h);
+                h.close();
+            }
+            // the stragglers (not daemons) would keep the process alive
+            if (stragglers > 0) System.exit(1);
+        }
+    }
+
+    private static void restore(Dealer dealer, String filename) {
+        try {
+            long start = System.nanoTime();
+            Checkpoint checkpoint = Checkpointer.read(Paths.get(filename));
+            if (dealer.restore(checkpoint))
+                logStartup("game restored from " + filename + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+            else
+                logger.severe("the checkpoint " + filename + " does not fit the configuration, starting a new game");
+        } catch (IOException | InvalidPathException e) {
+            logger.severe("cannot restore the game from " + filename + ": " + e.getMessage() + ", starting a new game");
+        }
+    }
+
+    private static GameServer startServer(Config config, Player[] players) {
+        if (config.serverPort <= 0) return null;
+        try {
+            GameServer server = new GameServer(logger, config, players);
+            ThreadLogger serverThread = new ThreadLogger(server, "network-server", logger);
+            serverThread.setDaemon(true);
+            serverThread.startWithLog();
+            return server;
+        } catch (IOException e) {
+            logger.severe("error starting the game server on port " + config.serverPort + ": " + e.getMessage());
+            return null;
         }
     }
 
+    private static SpectatorServer startSpectatorServer(Config config) {
+        if (config.spectatorPort <= 0) return null;
+        try {
+            SpectatorServer server = new SpectatorServer(logger, config);
+            ThreadLogger serverThread = new ThreadLogger(server, "spectator-server", logger);
+            serverThread.setDaemon(true);
+            serverThread.startWithLog();
+            return server;
+        } catch (IOException e) {
+            logger.severe("error starting the spectator server on port " + config.spectatorPort + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static int imageLoaderThreads() {
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates the configured user interface: the swing frame (see createUserInterfaceSwing), the terminal, or none.
+     */
+    private static CompletableFuture<UserInterface> createUserInterface(Config config, Player[] players, ExecutorService imageLoader) {
+        switch (config.userInterface.toLowerCase()) {
+            case "terminal":
+                if (config.humanPlayers > 0)
+                    logger.severe("warning: the terminal user interface takes no keyboard input for the human players");
+                return CompletableFuture.completedFuture(new UserInterfaceTerminal(logger, config));
+            case "none":
+                return CompletableFuture.completedFuture(null);
+            default:
+                if (!config.userInterface.equalsIgnoreCase("swing"))
+                    logger.severe("unknown user interface " + config.userInterface + ", using swing");
+                return createUserInterfaceSwing(config, players, imageLoader);
+        }
+    }
+
+    /**
+     * Decodes the card images on the given executor and then builds the frame on the EDT.
+     */
+    private static CompletableFuture<UserInterface> createUserInterfaceSwing(Config config, Player[] players, ExecutorService imageLoader) {
+        CompletableFuture<UserInterface> swing = new CompletableFuture<>();
+        if (GraphicsEnvironment.isHeadless()) {
+            swing.completeExceptionally(new HeadlessException());
+            return swing;
+        }
+
+        UserInterfaceSwing.loadCardImages(config, imageLoader)
+                .thenApply(images -> {
+                    logStartup("card images decoded");
+                    return images;
+                })
+                .thenApplyAsync(images -> (UserInterface) new UserInterfaceSwing(logger, config, players, images), EventQueue::invokeLater)
+                .whenComplete((ui, error) -> {
+                    if (error != null) swing.completeExceptionally(error);
+                    else {
+                        logStartup("frame created");
+                        swing.complete(ui);
+                    }
+                });
+        return swing;
+    }
+
+    private static UserInterface awaitUserInterface(CompletableFuture<UserInterface> swing, Config config) {
+        try {
+            return swing.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (!(cause instanceof UnsupportedOperationException || cause instanceof IllegalArgumentException)) throw e;
+            logger.severe("error creating swing user interface: " + cause.getMessage());
+            logger.severe("will try to run without user interface");
+            if (config.humanPlayers > 0)
+                logger.severe("warning: running with human players with no user interface");
+            return null;
+        }
+    }
+
+    private static void logStartup(String stage) {
+        logger.info("startup: " + stage + " after " + (System.nanoTime() - startupNanos) / 1000000 + " ms");
+    }
+
     private static Logger initLogger() {
 
         //just to make our log file nicer :)
         SimpleDateFormat format = new SimpleDateFormat("M-d_HH-mm-ss");
-        FileHandler handler;
+        Handler handler;
         try {
-            //noinspection ResultOfMethodCallIgnored
-            new File("./logs/").mkdirs();
-            handler = new FileHandler("./logs/" + format.format(Calendar.getInstance().getTime()) + ".log");
+            // rolls over and compresses as configured (see Config)
+            handler = new RollingFileHandler(Paths.get("./logs/"), format.format(Calendar.getInstance().getTime()));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
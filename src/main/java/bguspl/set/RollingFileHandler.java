@@ -0,0 +1,288 @@
+package bguspl.set;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A log handler writing a game's log in segments of a limited size: base.log, base.1.log, base.2.log etc. in the log
+ * directory. Rotating to the next segment only closes one file and opens another on the logging thread; compressing
+ * the closed segment (to base.N.log.gz), deleting the segments beyond the count kept and evicting the oldest logs of
+ * the directory (of any game) beyond the disk budget all run on a background thread, so a game thread that logs never
+ * waits for them. Records are formatted outside the handler's lock and written (and flushed) one by one, as by the
+ * FileHandler.
+ * The limits are 0 (unlimited) until configure is called, as the logger exists before the configuration is loaded.
+ */
+public class RollingFileHandler extends Handler {
+
+    private final Path directory;
+
+    /**
+     * The name of the game's log files (without the segment number and extension).
+     */
+    private final String base;
+
+    /**
+     * The size of a segment in bytes (0 or less to never rotate).
+     */
+    private volatile long limitBytes;
+
+    /**
+     * The number of segments of the game kept (0 or less to keep all).
+     */
+    private volatile int count;
+
+    /**
+     * The total size in bytes of the log files in the directory (0 or less for no budget).
+     */
+    private volatile long budgetBytes;
+
+    private volatile boolean compress;
+
+    /**
+     * The segment being written (read by the background thread, which never touches it).
+     */
+    private volatile Path current;
+
+    private int segment;
+    private long written;
+    private OutputStream out;
+
+    /**
+     * Compresses and deletes the closed segments, one task at a time, in the order of the rotations.
+     */
+    private final ExecutorService background;
+
+    /**
+     * The lowest segment number that may still exist (used by the background thread only).
+     */
+    private int oldest;
+
+    public RollingFileHandler(Path directory, String base) throws IOException {
+        this.directory = directory;
+        this.base = base;
+        Files.createDirectories(directory);
+        setFormatter(new SimpleFormatter());
+        background = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    Thread thread = new Thread(runnable, "log-compressor");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        current = segment(0);
+        out = open(current);
+    }
+
+    /**
+     * Sets the limits (and enforces the disk budget on the logs of the previous games).
+     *
+     * @param limitBytes  - the size of a segment in bytes (0 or less to never rotate).
+     * @param count       - the number of segments of the game kept (0 or less to keep all).
+     * @param budgetBytes - the total size of the log files in the directory (0 or less for no budget).
+     * @param compress    - true iff the closed segments are compressed.
+     */
+    public void configure(long limitBytes, int count, long budgetBytes, boolean compress) {
+        this.limitBytes = limitBytes;
+        this.count = count;
+        this.budgetBytes = budgetBytes;
+        this.compress = compress;
+        submit(this::evict);
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record))
+            return;
+        String text;
+        try {
+            text = getFormatter().format(record);
+        } catch (Exception e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        byte[] bytes = text.getBytes(charset());
+        synchronized (this) {
+            if (out == null)
+                return;
+            try {
+                out.write(bytes);
+                out.flush();
+                written += bytes.length;
+                long limit = limitBytes;
+                if (limit > 0 && written >= limit)
+                    rotate();
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    // Opens the next segment, then closes the current one and hands it to the background thread. If the next segment
+    // cannot be opened, the records keep going to the current one and the rotation is retried once it is full again
+    private void rotate() {
+        Path next = segment(segment + 1);
+        OutputStream opened;
+        try {
+            opened = open(next);
+        } catch (IOException e) {
+            reportError("cannot open " + next + ", still writing to " + current, e, ErrorManager.OPEN_FAILURE);
+            written = 0;
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            reportError("cannot close " + current, e, ErrorManager.CLOSE_FAILURE);
+        }
+        out = opened;
+        Path closed = current;
+        int last = segment++;
+        current = next;
+        written = 0;
+        submit(() -> closed(closed, last));
+    }
+
+    // Compresses a closed segment and deletes the segments beyond the count and the logs beyond the budget
+    private void closed(Path closed, int last) {
+        if (compress)
+            compress(closed);
+        int count = this.count;
+        for (; count > 0 && oldest <= last + 1 - count; oldest++) {
+            delete(segment(oldest));
+            delete(compressed(segment(oldest)));
+        }
+        evict();
+    }
+
+    private void compress(Path file) {
+        Path gz = compressed(file);
+        Path tmp = directory.resolve(gz.getFileName() + ".tmp");
+        try {
+            try (OutputStream zip = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                Files.copy(file, zip);
+            }
+            Files.move(tmp, gz, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(file);
+        } catch (IOException e) {
+            delete(tmp);
+            reportError("cannot compress " + file, e, ErrorManager.GENERIC_FAILURE);
+        }
+    }
+
+    // Deletes the oldest log files of the directory until they fit the budget (the current segment is never deleted)
+    private void evict() {
+        long budget = budgetBytes;
+        if (budget <= 0)
+            return;
+        Path current = this.current;
+        Map<Path, BasicFileAttributes> files = new HashMap<Path, BasicFileAttributes>();
+        long total = 0;
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "*.{log,log.gz}")) {
+            for (Path file : logs) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                total += attributes.size();
+                if (!file.equals(current))
+                    files.put(file, attributes);
+            }
+        } catch (IOException e) {
+            reportError("cannot list " + directory, e, ErrorManager.GENERIC_FAILURE);
+            return;
+        }
+        List<Path> oldestFirst = new ArrayList<Path>(files.keySet());
+        oldestFirst.sort(Comparator.comparing(file -> files.get(file).lastModifiedTime()));
+        for (Path file : oldestFirst) {
+            if (total <= budget)
+                break;
+            if (delete(file))
+                total -= files.get(file).size();
+        }
+    }
+
+    private boolean delete(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            reportError("cannot delete " + file, e, ErrorManager.GENERIC_FAILURE);
+            return false;
+        }
+    }
+
+    private void submit(Runnable task) {
+        if (!background.isShutdown())
+            background.execute(task);
+    }
+
+    private Path segment(int segment) {
+        return directory.resolve(segment == 0 ? base + ".log" : base + "." + segment + ".log");
+    }
+
+    private static Path compressed(Path file) {
+        return file.resolveSibling(file.getFileName() + ".gz");
+    }
+
+    private OutputStream open(Path file) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND));
+    }
+
+    private Charset charset() {
+        String encoding = getEncoding();
+        return encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (out == null)
+            return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    /**
+     * Closes the current segment and waits (a few seconds at most) for the background thread to finish its work.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    reportError(null, e, ErrorManager.CLOSE_FAILURE);
+                }
+                out = null;
+            }
+        }
+        background.shutdown();
+        try {
+            background.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
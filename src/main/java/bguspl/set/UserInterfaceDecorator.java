@@ -9,12 +9,29 @@ public class UserInterfaceDecorator implements UserInterface {
 
     private final Logger logger;
     private final Util util;
-    private final UserInterface ui;
+    private volatile UserInterface ui;
 
     public UserInterfaceDecorator(Logger logger, Util util, UserInterface ui) {
-        this.ui = ui;
+        this(logger, util);
+        setUserInterface(ui);
+    }
+
+    /**
+     * Creates a decorator whose user interface is set later (see setUserInterface), so the game entities can be
+     * created while the user interface is still being built.
+     */
+    public UserInterfaceDecorator(Logger logger, Util util) {
         this.logger = logger;
         this.util = util;
+    }
+
+    /**
+     * Sets the decorated user interface. Should be called before the dealer thread starts.
+     *
+     * @param ui - the decorated user interface (null if running without a user interface).
+     */
+    public void setUserInterface(UserInterface ui) {
+        this.ui = ui;
 
         if (ui == null) System.out.println("running without a user interface. Check logs.");
     }
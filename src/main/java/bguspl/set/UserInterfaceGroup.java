@@ -0,0 +1,88 @@
+package bguspl.set;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Forwards every event to several user interfaces (e.g. the swing window and the remote clients), in order.
+ */
+public class UserInterfaceGroup implements UserInterface {
+
+    private final UserInterface[] uis;
+
+    private UserInterfaceGroup(UserInterface[] uis) {
+        this.uis = uis;
+    }
+
+    /**
+     * @param uis - the user interfaces (null entries are ignored).
+     * @return - a user interface forwarding to all the given ones, the single one if only one was given, or null if
+     *           none were given.
+     */
+    public static UserInterface of(UserInterface... uis) {
+        UserInterface[] present = Arrays.stream(uis).filter(Objects::nonNull).toArray(UserInterface[]::new);
+        if (present.length == 0) return null;
+        if (present.length == 1) return present[0];
+        return new UserInterfaceGroup(present);
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        for (UserInterface ui : uis) ui.placeCard(card, slot);
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        for (UserInterface ui : uis) ui.removeCard(slot);
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        for (UserInterface ui : uis) ui.placeToken(player, slot);
+    }
+
+    @Override
+    public void removeTokens() {
+        for (UserInterface ui : uis) ui.removeTokens();
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        for (UserInterface ui : uis) ui.removeTokens(slot);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        for (UserInterface ui : uis) ui.removeToken(player, slot);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        for (UserInterface ui : uis) ui.setCountdown(millies, warn);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        for (UserInterface ui : uis) ui.setElapsed(millies);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        for (UserInterface ui : uis) ui.setFreeze(player, millies);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        for (UserInterface ui : uis) ui.setScore(player, score);
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        for (UserInterface ui : uis) ui.announceWinner(players);
+    }
+
+    @Override
+    public void dispose() {
+        for (UserInterface ui : uis) ui.dispose();
+    }
+}
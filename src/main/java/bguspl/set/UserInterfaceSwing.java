@@ -2,12 +2,21 @@ package bguspl.set;
 
 import bguspl.set.ex.Player;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -28,11 +37,65 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
         return format("%" + padding + "s", Integer.toString(n, base)).replace(' ', '0');
     }
 
+    /**
+     * The decoded card images.
+     */
+    public static class CardImages {
+
+        private final Image[] deck;
+        private final Image emptyCard;
+
+        private CardImages(Image[] deck, Image emptyCard) {
+            this.deck = deck;
+            this.emptyCard = emptyCard;
+        }
+    }
+
+    private static Image loadImageResource(String filename) {
+        URL imageResource = UserInterfaceSwing.class.getClassLoader().getResource(filename);
+        if (imageResource == null)
+            throw new RuntimeException(new FileNotFoundException(filename));
+        try {
+            return ImageIO.read(imageResource);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes all the card images, one task per card on the given executor.
+     *
+     * @param config   - the game configuration.
+     * @param executor - the executor decoding the images.
+     * @return - a future completed with the decoded images once all of them are decoded.
+     */
+    public static CompletableFuture<CardImages> loadCardImages(Config config, Executor executor) {
+
+        // init deck and load all pictures from png files
+        assert config.featureSize < 10; // otherwise there will be naming conflicts
+
+        Image[] deck = new Image[config.deckSize];
+        CompletableFuture<?>[] cards = new CompletableFuture<?>[config.deckSize];
+        for (int i = 0; i < config.deckSize; ++i) {
+            int card = i;
+            cards[i] = CompletableFuture.runAsync(() -> deck[card] = loadImageResource("cards/" + intInBaseToPaddedString(card, config.featureCount, config.featureSize) + ".png"), executor);
+        }
+        CompletableFuture<Image> emptyCard = CompletableFuture.supplyAsync(() -> loadImageResource("cards/empty_card.png"), executor);
+        return CompletableFuture.allOf(cards).thenCombine(emptyCard, (ignored, empty) -> new CardImages(deck, empty));
+    }
+
     public UserInterfaceSwing(Logger logger, Config config, Player[] players) {
+        this(logger, config, players, loadCardImages(config, Runnable::run).join());
+    }
+
+    /**
+     * Builds the frame with images that were already decoded (see loadCardImages). Should be called on the EDT.
+     */
+    public UserInterfaceSwing(Logger logger, Config config, Player[] players, CardImages images) {
 
         this.config = config;
         timerPanel = new TimerPanel();
-        gamePanel = new GamePanel();
+        gamePanel = new GamePanel(images);
         playersPanel = new PlayersPanel();
         winnerPanel = new WinnerPanel();
 
@@ -100,75 +163,94 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
         }
     }
 
+    /**
+     * The grid of cards and the players' tokens on them. The cards are drawn into a back buffer one cell at a time, when
+     * the card in the cell changes, and only the changed cell is repainted; painting copies the repainted region from
+     * the back buffer, so its cost depends on the area changed rather than on the size of the grid.
+     */
     private class GamePanel extends JLayeredPane {
 
         private final Image emptyCard;
         private final Image[] deck;
-        private final Image[][] grid;
-        private final boolean[][][] playerTokens;
-        private final JLabel[][] tokenText;
-
-        private Image loadImageResource(String filename) {
-            URL imageResource = getClass().getClassLoader().getResource(filename);
-            if (imageResource == null)
-                throw new RuntimeException(new FileNotFoundException(filename));
-            return new ImageIcon(imageResource).getImage();
-        }
+        private final Color background;
+
+        /**
+         * The grid of cards as shown on the screen (guarded by itself, as the cards are placed by the game threads).
+         */
+        private final BufferedImage grid;
+
+        /**
+         * The players having a token on each slot (each guarded by itself).
+         */
+        private final BitSet[] playerTokens;
 
-        private GamePanel() {
+        /**
+         * The token label text of each set of players (the keys are never modified).
+         */
+        private final Map<BitSet, String> tokenTexts = new ConcurrentHashMap<>();
+
+        private final JLabel[] tokenText;
+
+        private GamePanel(CardImages images) {
 
             setPreferredSize(new Dimension(config.columns * config.cellWidth, config.rows * config.cellHeight));
 
-            // init deck and load all pictures from png files
-            assert config.featureSize < 10; // otherwise there will be naming conflicts
-
-            // load the image resources
-            deck = new Image[config.deckSize];
-            for (int i = 0; i < config.deckSize; ++i)
-                deck[i] = loadImageResource("cards/" + intInBaseToPaddedString(i, config.featureCount, config.featureSize) + ".png");
-            emptyCard = loadImageResource("cards/empty_card.png");
-
-            grid = new Image[config.rows][config.columns];
-            tokenText = new JLabel[config.rows][config.columns];
-            playerTokens = new boolean[config.players][config.rows][config.columns];
-            for (int row = 0; row < config.rows; row++) {
-                for (int column = 0; column < config.columns; column++) {
-                    // init the cards on the table grid as empty cards
-                    grid[row][column] = emptyCard;
-
-                    // init the JLabel selection overlay
-                    tokenText[row][column] = new JLabel("");
-                    tokenText[row][column].setVerticalAlignment(JLabel.TOP);
-                    tokenText[row][column].setHorizontalAlignment(JLabel.CENTER);
-                    tokenText[row][column].setOpaque(false);
-                    tokenText[row][column].setBorder(BorderFactory.createLineBorder(Color.black));
-                    tokenText[row][column].setBounds((column * config.cellWidth), (row * config.cellHeight), config.cellWidth, config.cellHeight);
-                    add(tokenText[row][column]);
-                }
+            deck = images.deck;
+            emptyCard = images.emptyCard;
+            background = getBackground() != null ? getBackground() : UIManager.getColor("Panel.background");
+
+            // the back buffer covers every cell, so nothing behind the panel shows through it
+            grid = new BufferedImage(config.columns * config.cellWidth, config.rows * config.cellHeight, BufferedImage.TYPE_INT_RGB);
+            setOpaque(true);
+
+            tokenText = new JLabel[config.tableSize];
+            playerTokens = new BitSet[config.tableSize];
+            for (int slot = 0; slot < config.tableSize; slot++) {
+                int row = slot / config.columns;
+                int column = slot % config.columns;
+
+                // init the cards on the table grid as empty cards
+                drawCell(slot, emptyCard);
+
+                // init the JLabel selection overlay
+                playerTokens[slot] = new BitSet(config.players);
+                tokenText[slot] = new JLabel("");
+                tokenText[slot].setVerticalAlignment(JLabel.TOP);
+                tokenText[slot].setHorizontalAlignment(JLabel.CENTER);
+                tokenText[slot].setOpaque(false);
+                tokenText[slot].setBorder(BorderFactory.createLineBorder(Color.black));
+                tokenText[slot].setBounds((column * config.cellWidth), (row * config.cellHeight), config.cellWidth, config.cellHeight);
+                add(tokenText[slot]);
+            }
+        }
+
+        /**
+         * Draws an image into a cell of the back buffer and repaints only that cell.
+         */
+        private void drawCell(int slot, Image image) {
+            int x = slot % config.columns * config.cellWidth;
+            int y = slot / config.columns * config.cellHeight;
+            synchronized (grid) {
+                Graphics2D g = grid.createGraphics();
+                g.setColor(background);
+                g.fillRect(x, y, config.cellWidth, config.cellHeight);
+                g.clipRect(x, y, config.cellWidth, config.cellHeight);
+                g.drawImage(image, x, y, null);
+                g.dispose();
             }
+            repaint(x, y, config.cellWidth, config.cellHeight);
         }
 
         private void placeCard(int slot, int card) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = deck[card];
-            validate();
-            repaint();
+            drawCell(slot, deck[card]);
         }
 
         private void removeCard(int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = emptyCard;
-            validate();
-            repaint();
+            drawCell(slot, emptyCard);
         }
 
         private void placeToken(int player, int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = true;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
+            setToken(player, slot, true);
         }
 
         private void removeTokens() {
@@ -177,38 +259,53 @@ public class UserInterfaceSwing extends JFrame implements UserInterface {
         }
 
         private void removeTokens(int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            for (int player = 0; player < playerTokens.length; player++) {
-                playerTokens[player][row][column] = false;
-                tokenText[row][column].setText(generatePlayersTokenText(row, column));
+            BitSet players = playerTokens[slot];
+            synchronized (players) {
+                if (players.isEmpty())
+                    return;
+                players.clear();
+                tokenText[slot].setText("");
             }
         }
 
         private void removeToken(int player, int slot) {
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = false;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
+            setToken(player, slot, false);
         }
 
-        private String generatePlayersTokenText(int row, int column) {
-            String text = "";
-            for (int player = 0; player < config.players; player++) {
-                if (playerTokens[player][row][column])
-                    text = text.concat(config.playerNames[player] + ", ");
+        private void setToken(int player, int slot, boolean token) {
+            BitSet players = playerTokens[slot];
+            synchronized (players) {
+                if (players.get(player) == token)
+                    return;
+                players.set(player, token);
+                tokenText[slot].setText(generatePlayersTokenText(players));
             }
-            if (text.length() < 2)
-                return "";
-            return text.substring(0, text.length() - 2);
+        }
+
+        private String generatePlayersTokenText(BitSet players) {
+            String text = tokenTexts.get(players);
+            if (text == null) {
+                text = players.stream().mapToObj(player -> config.playerNames[player]).collect(Collectors.joining(", "));
+                tokenTexts.put((BitSet) players.clone(), text);
+            }
+            return text;
         }
 
         @Override
         public void paintComponent(Graphics g) {
-            // draw card images
-            for (int row = 0; row < config.rows; row++)
-                for (int column = 0; column < config.columns; column++)
-                    g.drawImage(grid[row][column], (column * config.cellWidth), (row * config.cellHeight), this);
+            // copy the repainted region of the card images
+            Rectangle clip = g.getClipBounds();
+            if (clip == null)
+                clip = new Rectangle(0, 0, grid.getWidth(), grid.getHeight());
+            else
+                clip = clip.intersection(new Rectangle(0, 0, grid.getWidth(), grid.getHeight()));
+            if (clip.isEmpty())
+                return;
+            int x2 = clip.x + clip.width;
+            int y2 = clip.y + clip.height;
+            synchronized (grid) {
+                g.drawImage(grid, clip.x, clip.y, x2, y2, clip.x, clip.y, x2, y2, null);
+            }
         }
     }
 
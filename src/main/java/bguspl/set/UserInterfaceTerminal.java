@@ -0,0 +1,368 @@
+package bguspl.set;
+
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Terminal (ANSI) implementation of the UserInterface interface, for watching games on a server without a display
+ * (e.g. over ssh).
+ * The game threads only update the game state and mark it dirty. A renderer thread draws at most
+ * config.terminalFramesPerSecond frames per second: the screen is divided into fixed fields (the timer, a card and a
+ * token line per slot, a name and a score per player), and only the fields whose text changed since the last frame
+ * are written, each with a single cursor move, through one buffered write per frame.
+ */
+public class UserInterfaceTerminal implements UserInterface {
+
+    private static final String ESC = "\u001b[";
+    private static final String RESET = ESC + "0m";
+    private static final String RED = ESC + "31m";
+    private static final String BOLD = ESC + "1m";
+    private static final String[] COLORS = {ESC + "31m", ESC + "32m", ESC + "35m"};
+    private static final String[][] SHAPES = {{"◇", "○", "∼"}, {"◈", "◎", "≈"}, {"◆", "●", "≋"}};
+
+    /**
+     * The width of a slot (in characters) and the first screen row of the grid.
+     */
+    private static final int slotWidth = 16;
+    private static final int gridRow = 3;
+
+    private final Logger logger;
+    private final Config config;
+    private final Writer out;
+    private final long frameMillis;
+    private final Thread renderer;
+
+    /**
+     * The game state (guarded by this).
+     */
+    private final int[] cards;
+    private final BitSet[] tokens;
+    private final long[] freezes;
+    private final int[] scores;
+    private String timer;
+    private boolean warn;
+    private boolean dirty = true;
+    private boolean disposed;
+
+    /**
+     * The screen position and width of every field, and the text last drawn in it (guarded by drawn).
+     */
+    private final int[] rows;
+    private final int[] columns;
+    private final int[] widths;
+    private final String[] drawn;
+
+    /**
+     * The number of frames drawn and of fields written in them (guarded by drawn, logged on dispose).
+     */
+    private long frames;
+    private long fieldsWritten;
+
+    /**
+     * Signifies an empty slot.
+     */
+    private static final int noCard = -1;
+
+    public UserInterfaceTerminal(Logger logger, Config config) {
+        this(logger, config, new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), 1 << 16), true);
+    }
+
+    /**
+     * @param out            - the terminal.
+     * @param renderInThread - true to start the renderer thread (otherwise frames are drawn by calling render).
+     */
+    UserInterfaceTerminal(Logger logger, Config config, Writer out, boolean renderInThread) {
+        this.logger = logger;
+        this.config = config;
+        this.out = out;
+        frameMillis = Math.max(1, 1000 / Math.max(1, config.terminalFramesPerSecond));
+
+        cards = new int[config.tableSize];
+        Arrays.fill(cards, noCard);
+        tokens = new BitSet[config.tableSize];
+        Arrays.setAll(tokens, slot -> new BitSet(config.players));
+        freezes = new long[config.players];
+        scores = new int[config.players];
+        timer = config.turnTimeoutMillis < 0 ? "PLAY" : "GET READY...";
+
+        // the timer, then a card and a token line per slot, then a name and a score per player
+        int fields = 1 + 2 * config.tableSize + 2 * config.players;
+        rows = new int[fields];
+        columns = new int[fields];
+        widths = new int[fields];
+        drawn = new String[fields];
+        layout(0, 1, 1, config.columns * slotWidth);
+        for (int slot = 0; slot < config.tableSize; slot++) {
+            int row = gridRow + 3 * (slot / config.columns);
+            int column = 1 + slotWidth * (slot % config.columns);
+            layout(cardField(slot), row, column, slotWidth - 2);
+            layout(tokenField(slot), row + 1, column, slotWidth - 2);
+        }
+        int playerWidth = 6 + Arrays.stream(config.playerNames).mapToInt(String::length).max().orElse(0);
+        int playersRow = gridRow + 3 * config.rows + 1;
+        for (int player = 0; player < config.players; player++) {
+            layout(nameField(player), playersRow, 1 + player * playerWidth, playerWidth - 1);
+            layout(scoreField(player), playersRow + 1, 1 + player * playerWidth, playerWidth - 1);
+        }
+
+        write(ESC + "?25l" + ESC + "2J");
+        if (renderInThread) {
+            // show the cursor again even if the game is killed
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> write(ESC + "?25h")));
+            renderer = new Thread(this::renderLoop, "terminal-ui");
+            renderer.setDaemon(true);
+            renderer.start();
+        } else
+            renderer = null;
+    }
+
+    private void layout(int field, int row, int column, int width) {
+        rows[field] = row;
+        columns[field] = column;
+        widths[field] = width;
+    }
+
+    private int cardField(int slot) {
+        return 1 + 2 * slot;
+    }
+
+    private int tokenField(int slot) {
+        return 2 + 2 * slot;
+    }
+
+    private int nameField(int player) {
+        return 1 + 2 * config.tableSize + 2 * player;
+    }
+
+    private int scoreField(int player) {
+        return 2 + 2 * config.tableSize + 2 * player;
+    }
+
+    private void renderLoop() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    while (!dirty && !disposed)
+                        wait();
+                    if (disposed)
+                        return;
+                }
+                render();
+                // cap the frame rate: changes made meanwhile are drawn together in the next frame
+                Thread.sleep(frameMillis);
+            }
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    /**
+     * Draws a frame: writes the fields whose text changed since the last frame.
+     *
+     * @return - the number of fields written.
+     */
+    int render() {
+        synchronized (drawn) {
+            String[] texts = new String[drawn.length];
+            synchronized (this) {
+                if (!dirty)
+                    return 0;
+                dirty = false;
+                texts[0] = field(0, timer, warn ? RED : BOLD);
+                for (int slot = 0; slot < config.tableSize; slot++) {
+                    texts[cardField(slot)] = cardText(slot);
+                    texts[tokenField(slot)] = field(tokenField(slot), tokens[slot].stream()
+                            .mapToObj(player -> config.playerNames[player]).collect(Collectors.joining(", ")), "");
+                }
+                for (int player = 0; player < config.players; player++) {
+                    String name = config.playerNames[player];
+                    texts[nameField(player)] = freezes[player] > 0
+                            ? field(nameField(player), name + " (" + freezes[player] / 1000 + ")", RED)
+                            : field(nameField(player), name, BOLD);
+                    texts[scoreField(player)] = field(scoreField(player), Integer.toString(scores[player]), "");
+                }
+            }
+
+            StringBuilder frame = new StringBuilder();
+            int written = 0;
+            for (int field = 0; field < texts.length; field++)
+                if (!texts[field].equals(drawn[field])) {
+                    frame.append(ESC).append(rows[field]).append(';').append(columns[field]).append('H').append(texts[field]);
+                    drawn[field] = texts[field];
+                    written++;
+                }
+            if (written > 0) {
+                frames++;
+                fieldsWritten += written;
+                write(frame.toString());
+            }
+            return written;
+        }
+    }
+
+    /**
+     * @return - the text padded (or cut) to the width of the field, in the given style.
+     */
+    private String field(int field, String text, String style) {
+        int width = widths[field];
+        String fitted = text.length() > width ? text.substring(0, width) : format("%-" + width + "s", text);
+        return style.isEmpty() ? fitted : style + fitted + RESET;
+    }
+
+    /**
+     * @return - the card in the slot as colored shapes when the cards have the classic four features of three
+     *           values (the number, color, shape and shading), otherwise as its feature values.
+     */
+    private String cardText(int slot) {
+        int card = cards[slot];
+        if (card == noCard)
+            return field(cardField(slot), "·", "");
+        int[] features = new int[config.featureCount];
+        for (int i = config.featureCount - 1, rest = card; i >= 0; --i, rest /= config.featureSize)
+            features[i] = rest % config.featureSize;
+        if (config.featureCount != 4 || config.featureSize != 3) {
+            StringBuilder text = new StringBuilder();
+            for (int feature : features) text.append(feature);
+            return field(cardField(slot), text.toString(), "");
+        }
+        StringBuilder shapes = new StringBuilder();
+        for (int i = 0; i <= features[0]; i++) shapes.append(SHAPES[features[3]][features[2]]);
+        return field(cardField(slot), shapes.toString(), COLORS[features[1]]);
+    }
+
+    private synchronized void changed() {
+        dirty = true;
+        notifyAll();
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+            out.flush();
+        } catch (IOException e) {
+            logger.severe("cannot write to the terminal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        synchronized (this) {
+            cards[slot] = card;
+        }
+        changed();
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        synchronized (this) {
+            cards[slot] = noCard;
+        }
+        changed();
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        synchronized (this) {
+            tokens[slot].set(player);
+        }
+        changed();
+    }
+
+    @Override
+    public void removeTokens() {
+        synchronized (this) {
+            for (BitSet players : tokens) players.clear();
+        }
+        changed();
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        synchronized (this) {
+            tokens[slot].clear();
+        }
+        changed();
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        synchronized (this) {
+            tokens[slot].clear(player);
+        }
+        changed();
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        synchronized (this) {
+            timer = warn ? format("Remaining Time: %.2f", (double) millies / 1000.0f) : format("Remaining Time: %d", millies / 1000L);
+            this.warn = warn;
+        }
+        changed();
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        synchronized (this) {
+            timer = "Elapsed time: " + millies / 1000;
+            warn = false;
+        }
+        changed();
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        synchronized (this) {
+            freezes[player] = millies;
+        }
+        changed();
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        synchronized (this) {
+            scores[player] = score;
+        }
+        changed();
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        List<String> names = Arrays.stream(players).mapToObj(id -> config.playerNames[id]).collect(Collectors.toList());
+        synchronized (this) {
+            if (players.length == 1) timer = "THE WINNER IS: " + names.get(0) + "!!!";
+            else timer = "IT IS A DRAW: " + String.join(" AND ", names) + " WON!!!";
+            warn = false;
+        }
+        changed();
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            disposed = true;
+            notifyAll();
+        }
+        if (renderer != null)
+            try {
+                renderer.join(1000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        // draw the final state and leave the cursor below the game
+        render();
+        write(ESC + (gridRow + 3 * config.rows + 3) + ";1H" + ESC + "?25h\n");
+        logger.info("terminal ui: frames: " + frames + ", fields written: " + fieldsWritten);
+    }
+}
@@ -1,5 +1,6 @@
 package bguspl.set;
 
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -31,6 +32,17 @@ public interface Util {
      */
     boolean testSet(int[] cards);
 
+    /**
+     * Checks many candidate sets at once (see testSet method). Much faster than testing them one by one, as the
+     * candidates are checked together in a few tight loops over primitive arrays.
+     *
+     * @param cards      - the candidates, each one config.featureSize consecutive card ids (the first candidates *
+     *                   config.featureSize entries are used).
+     * @param candidates - the number of candidates.
+     * @return - a bitmask of the legal candidates: bit (i % 64) of word (i / 64) is set iff candidate i is a legal set.
+     */
+    long[] testSets(int[] cards, int candidates);
+
     /**
      * Finds and returns up to count sets in the given collection of cards.
      *
@@ -40,6 +52,27 @@ public interface Util {
      */
     List<int[]> findSets(List<Integer> deck, int count);
 
+    /**
+     * Finds and returns up to count sets in the given collection of cards, splitting the search across a fork/join
+     * pool. Collections smaller than config.parallelSearchThreshold are searched sequentially (see findSets method).
+     *
+     * @param deck  - a collection of cards (may not include null objects).
+     * @param count - the maximum number of sets to find (the search stops once count sets were found).
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set (in the order of
+     *           findSets if all the sets were found; a bounded search may return other sets than its first count).
+     */
+    List<int[]> findSetsParallel(List<Integer> deck, int count);
+
+    /**
+     * Finds and returns up to count sets in the given collection of cards, without boxing the card ids.
+     * Large collections are searched in parallel (see findSetsParallel method).
+     *
+     * @param deck  - a bitset of the cards in the collection (indexed by the card id).
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    List<int[]> findSets(BitSet deck, int count);
+
     /**
      * Spin a random number of times (for debugging/testing).
      */
@@ -1,9 +1,14 @@
 package bguspl.set;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 /**
@@ -13,8 +18,47 @@ public class UtilImpl implements Util {
 
     private final Config config;
 
+    /**
+     * The features of every card in one-hot form: bit (feature * featureSize + value) is set for every feature of the
+     * card (null if they do not fit in an int, in which case testSets tests the candidates one by one).
+     */
+    private final int[] featureCodes;
+
+    /**
+     * The bits of a single feature in a feature code.
+     */
+    private final int featureMask;
+
+    /**
+     * The number of candidates the exhaustive set search tests at once.
+     */
+    private static final int searchBatch = 128;
+
+    /**
+     * The pool the large searches are split across (see findSetsParallel).
+     */
+    private final ForkJoinPool pool;
+
     public UtilImpl(Config config) {
+        this(config, ForkJoinPool.commonPool());
+    }
+
+    public UtilImpl(Config config, ForkJoinPool pool) {
         this.config = config;
+        this.pool = pool;
+
+        featureMask = (1 << config.featureSize) - 1;
+        if (config.featureCount * config.featureSize > Integer.SIZE)
+            featureCodes = null;
+        else {
+            featureCodes = new int[config.deckSize];
+            int[] features = new int[config.featureCount];
+            for (int card = 0; card < config.deckSize; card++) {
+                cardToFeatures(card, features);
+                for (int feature = 0; feature < features.length; feature++)
+                    featureCodes[card] |= 1 << (feature * config.featureSize + features[feature]);
+            }
+        }
     }
 
     private void cardToFeatures(int card, int[] features) {
@@ -64,21 +108,155 @@ public class UtilImpl implements Util {
         return true;
     }
 
+    @Override
+    public long[] testSets(int[] cards, int candidates) {
+        int q = config.featureSize;
+        if (cards.length < candidates * q)
+            throw new IllegalArgumentException("expected " + candidates * q + " cards, got " + cards.length);
+        long[] legal = new long[(candidates + Long.SIZE - 1) / Long.SIZE];
+        if (featureCodes == null) {
+            for (int i = 0; i < candidates; i++)
+                if (testSet(Arrays.copyOfRange(cards, i * q, (i + 1) * q)))
+                    legal[i / Long.SIZE] |= 1L << i;
+            return legal;
+        }
+
+        // the values each candidate has in every feature (the only pass over the card ids)
+        int[] seen = new int[candidates];
+        for (int i = 0, c = 0; i < candidates; i++) {
+            int codes = 0;
+            for (int j = 0; j < q; j++)
+                codes |= featureCodes[cards[c++]];
+            seen[i] = codes;
+        }
+
+        // q cards are legal in a feature iff they have a single value (one bit) or all q values (all bits): the
+        // product is nonzero iff neither holds. The loops are branch free over int arrays, so the JIT can vectorize
+        // them (values < 2^q, so the product does not overflow for the q <= 16 that fit in a code)
+        int[] illegal = new int[candidates];
+        for (int feature = 0, shift = 0; feature < config.featureCount; feature++, shift += q)
+            for (int i = 0; i < candidates; i++) {
+                int values = (seen[i] >>> shift) & featureMask;
+                illegal[i] |= (values & (values - 1)) * (values ^ featureMask);
+            }
+
+        for (int i = 0; i < candidates; i++)
+            if (illegal[i] == 0)
+                legal[i / Long.SIZE] |= 1L << i;
+        return legal;
+    }
+
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
         LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
+        int[] cards = deck.stream().mapToInt(Integer::intValue).toArray();
+        findSets(cards, null, 0, cards.length, count, new AtomicInteger(), sets);
+        return sets;
+    }
+
+    @Override
+    public List<int[]> findSetsParallel(List<Integer> deck, int count) {
+        return findSetsParallel(deck.stream().mapToInt(Integer::intValue).toArray(), count);
+    }
+
+    @Override
+    public List<int[]> findSets(BitSet deck, int count) {
+        return findSetsParallel(deck.stream().toArray(), deck, count);
+    }
+
+    private List<int[]> findSetsParallel(int[] cards, int count) {
+        return findSetsParallel(cards, null, count);
+    }
+
+    private List<int[]> findSetsParallel(int[] cards, BitSet members, int count) {
+        LinkedList<int[]> sets = new LinkedList<>();
+        // with a single worker the split only adds overhead
+        if (cards.length < config.parallelSearchThreshold || pool.getParallelism() < 2) {
+            findSets(cards, members, 0, cards.length, count, new AtomicInteger(), sets);
+            return sets;
+        }
+
+        List<int[]> found = pool.invoke(new FindSetsTask(cards, members, 0, cards.length, count, new AtomicInteger()));
+        sets.addAll(found.size() > count ? found.subList(0, count) : found);
+        return sets;
+    }
+
+    /**
+     * Searches the combinations of the deck whose first card index is in the range [from, to), by completion when the
+     * deck members are known (see findSetsByCompletion) or by testing every combination otherwise.
+     */
+    private void findSets(int[] deck, BitSet members, int from, int to, int count, AtomicInteger found, List<int[]> sets) {
+        // a single card does not determine the card completing it to a set
+        if (members != null && config.featureSize >= 3)
+            findSetsByCompletion(deck, members, from, to, count, found, sets);
+        else
+            findSets(deck, from, to, count, found, sets);
+    }
+
+    /**
+     * Searches the combinations of the deck whose first card index is in the range [from, to) and adds the legal sets
+     * to the given list. The combinations are tested in batches (see testSets method). The search stops as soon as
+     * count sets were found (by this search or by any other search sharing the found counter).
+     */
+    private void findSets(int[] deck, int from, int to, int count, AtomicInteger found, List<int[]> sets) {
+        int n = deck.length;
         int r = config.featureSize;
         int[] combination = new int[r];
+        int[] batch = new int[searchBatch * r];
 
         for (int i = 0; i < r; ++i)
-            combination[i] = i;
+            combination[i] = from + i;
 
-        while (combination[r - 1] < deck.size()) {
-            int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
-            if (testSet(cards)) {
-                sets.add(cards);
-                if (sets.size() >= count) return sets;
+        while (combination[r - 1] < n && combination[0] < to && found.get() < count) {
+            int candidates = 0;
+            for (; candidates < searchBatch && combination[r - 1] < n && combination[0] < to; candidates++) {
+                for (int i = 0; i < r; ++i)
+                    batch[candidates * r + i] = deck[combination[i]];
+
+                // generate next combination in lexicographic order
+                int t = r - 1;
+                while (t != 0 && combination[t] == n - r + t) --t;
+                combination[t]++;
+                for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
+            }
+
+            long[] legal = testSets(batch, candidates);
+            for (int i = 0; i < candidates; i++)
+                if ((legal[i / Long.SIZE] & 1L << i) != 0) {
+                    int[] set = Arrays.copyOfRange(batch, i * r, (i + 1) * r);
+                    Arrays.sort(set);
+                    sets.add(set);
+                    if (found.incrementAndGet() >= count) return;
+                }
+        }
+    }
+
+    /**
+     * Same as findSets, but only the combinations of featureSize - 1 cards are enumerated: the card completing them
+     * to a legal set is computed and looked up in the members bitset. Each set is found once, from its smallest cards,
+     * so the cost is O(n^(featureSize - 1)) instead of O(n^featureSize).
+     *
+     * @pre - deck is sorted in ascending order and holds exactly the cards in members.
+     */
+    private void findSetsByCompletion(int[] deck, BitSet members, int from, int to, int count, AtomicInteger found, List<int[]> sets) {
+        int n = deck.length;
+        int r = config.featureSize - 1;
+        int[] combination = new int[r];
+        int[] cards = new int[r];
+        int[] scratch = new int[r];
+
+        for (int i = 0; i < r; ++i)
+            combination[i] = from + i;
+
+        while (combination[r - 1] < n && combination[0] < to && found.get() < count) {
+            for (int i = 0; i < r; ++i)
+                cards[i] = deck[combination[i]];
+            int completion = completeSet(cards, scratch);
+            if (completion > cards[r - 1] && members.get(completion)) {
+                int[] set = Arrays.copyOf(cards, r + 1);
+                set[r] = completion;
+                sets.add(set);
+                if (found.incrementAndGet() >= count) return;
             }
 
             // generate next combination in lexicographic order
@@ -87,7 +265,90 @@ public class UtilImpl implements Util {
             combination[t]++;
             for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
         }
-        return sets;
+    }
+
+    /**
+     * Computes the card completing the given featureSize - 1 cards to a legal set: for every feature, the cards must
+     * either all share the same value (and so does the completion) or all have different values (and the completion
+     * has the remaining value).
+     *
+     * @param cards   - featureSize - 1 card ids (featureSize >= 3).
+     * @param scratch - an array of the same length, used to extract the features.
+     * @return - the completing card id, or -1 if the cards cannot be completed to a legal set.
+     */
+    private int completeSet(int[] cards, int[] scratch) {
+        int q = config.featureSize;
+        int valuesSum = q * (q - 1) / 2;
+        System.arraycopy(cards, 0, scratch, 0, cards.length);
+
+        int completion = 0;
+        int weight = 1;
+        // the least significant digit in base featureSize is the last feature
+        for (int feature = 0; feature < config.featureCount; ++feature) {
+            int seen = 0;
+            int sum = 0;
+            for (int i = 0; i < scratch.length; ++i) {
+                int value = scratch[i] % q;
+                scratch[i] /= q;
+                seen |= 1 << value;
+                sum += value;
+            }
+
+            int distinct = Integer.bitCount(seen);
+            int value;
+            if (distinct == 1) value = sum / scratch.length;
+            else if (distinct == scratch.length) value = valuesSum - sum;
+            else return -1;
+
+            completion += value * weight;
+            weight *= q;
+        }
+        return completion;
+    }
+
+    /**
+     * Splits the range of first card indices in halves until a single index is left, which is then searched
+     * sequentially. The results of the halves are joined in order, so a full search returns the sets in the same
+     * (lexicographic) order as the sequential search. A bounded search stops all the tasks once count sets were found
+     * by any of them, so it returns count sets, but not necessarily the first ones in that order.
+     */
+    private class FindSetsTask extends RecursiveTask<List<int[]>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] deck;
+        private final BitSet members;
+        private final int from;
+        private final int to;
+        private final int count;
+        private final AtomicInteger found;
+
+        private FindSetsTask(int[] deck, BitSet members, int from, int to, int count, AtomicInteger found) {
+            this.deck = deck;
+            this.members = members;
+            this.from = from;
+            this.to = to;
+            this.count = count;
+            this.found = found;
+        }
+
+        @Override
+        protected List<int[]> compute() {
+            List<int[]> sets = new ArrayList<>();
+            if (found.get() >= count) return sets;
+
+            if (to - from <= 1) {
+                findSets(deck, members, from, to, count, found, sets);
+                return sets;
+            }
+
+            int middle = (from + to) >>> 1;
+            FindSetsTask right = new FindSetsTask(deck, members, middle, to, count, found);
+            right.fork();
+            sets.addAll(new FindSetsTask(deck, members, from, middle, count, found).compute());
+            sets.addAll(right.join());
+            return sets;
+        }
     }
 
     public void spin() {
@@ -0,0 +1,107 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+
+/**
+ * A primitive open addressing map from the cards on the table to their slots.
+ * Its size depends on the table size only (not on the deck size), so it stays small for decks of thousands of cards.
+ *
+ * @inv keys[i] == empty iff values[i] == empty
+ */
+class CardSlotMap {
+
+    /**
+     * The cards (keys) of the map (empty if none).
+     */
+    private final int[] keys;
+
+    /**
+     * The slots (values) of the map, respectively (empty if none).
+     */
+    private final int[] values;
+
+    /**
+     * keys.length - 1 (the capacity is a power of two).
+     */
+    private final int mask;
+
+    /**
+     * Signifies an empty entry (and a card that is not in the map).
+     */
+    static final int empty = -1;
+
+    /**
+     * @param capacity - the maximal number of cards in the map (i.e. the table size).
+     */
+    CardSlotMap(int capacity) {
+        // keep the load factor at most 0.5
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        keys = new int[size];
+        values = new int[size];
+        mask = size - 1;
+        clear();
+    }
+
+    private int index(int card) {
+        // spread the sequential card ids (fibonacci hashing)
+        return (card * 0x9E3779B9) >>> 16 & mask;
+    }
+
+    private int find(int card) {
+        int i = index(card);
+        while (keys[i] != empty && keys[i] != card)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - the slot of the card (empty if none).
+     */
+    int get(int card) {
+        return values[find(card)];
+    }
+
+    /**
+     * Maps a card to a slot (replacing the previous slot of the card, if any).
+     */
+    void put(int card, int slot) {
+        int i = find(card);
+        keys[i] = card;
+        values[i] = slot;
+    }
+
+    /**
+     * Removes the mapping of a card (if any).
+     */
+    void remove(int card) {
+        int i = find(card);
+        if (keys[i] == empty)
+            return;
+
+        // backward shift deletion: move up the following entries of the probe sequence
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == empty)
+                break;
+            int home = index(keys[j]);
+            // entry j can fill the hole at i only if its home is not cyclically in (i, j]
+            if ((j > i && (home <= i || home > j)) || (j < i && (home <= i && home > j))) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = empty;
+        values[i] = empty;
+    }
+
+    /**
+     * Removes all the mappings.
+     */
+    void clear() {
+        Arrays.fill(keys, empty);
+        Arrays.fill(values, empty);
+    }
+}
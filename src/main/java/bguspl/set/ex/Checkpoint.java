@@ -0,0 +1,160 @@
+package bguspl.set.ex;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * A snapshot of an in-progress game, taken by the dealer between two ticks of its loop: the deck, the cards and the
+ * tokens on the table, the players' scores and the countdown. Immutable once taken.
+ * The binary format is a header (magic, version and the game's dimensions) followed by the arrays as ints and a CRC32
+ * of everything before it, so a truncated or corrupted file is rejected rather than restored.
+ */
+public class Checkpoint {
+
+	private static final int magic = 0x53455443; // "SETC"
+	private static final int version = 1;
+
+	/**
+	 * Signifies an empty slot.
+	 */
+	static final int noCard = Table.noCard;
+
+	/**
+	 * The number of cards in the game, and the number of slots on the table.
+	 */
+	final int deckSize;
+	final int tableSize;
+
+	/**
+	 * The cards left in the deck (in draw order, the top card last).
+	 */
+	final int[] deck;
+
+	/**
+	 * The card in each slot (noCard if none).
+	 */
+	final int[] slotToCard;
+
+	/**
+	 * The ids of the players with a token on each slot.
+	 */
+	final int[][] tokens;
+
+	/**
+	 * The score of each player (by player id).
+	 */
+	final int[] scores;
+
+	/**
+	 * The time left until the dealer reshuffles, the time played so far and the reshuffles so far.
+	 */
+	final long countdownMillis;
+	final long elapsedMillis;
+	final int reshuffles;
+
+	Checkpoint(int deckSize, int[] deck, int[] slotToCard, int[][] tokens, int[] scores, long countdownMillis,
+			long elapsedMillis, int reshuffles) {
+		this.deckSize = deckSize;
+		this.tableSize = slotToCard.length;
+		this.deck = deck;
+		this.slotToCard = slotToCard;
+		this.tokens = tokens;
+		this.scores = scores;
+		this.countdownMillis = countdownMillis;
+		this.elapsedMillis = elapsedMillis;
+		this.reshuffles = reshuffles;
+	}
+
+	// Returns the number of players in the game
+	public int players() {
+		return scores.length;
+	}
+
+	// Encodes the checkpoint
+	public byte[] encode() {
+		int size = 4 * (8 + deck.length + 2 * slotToCard.length + scores.length + 1) + 8 * 2;
+		for (int[] slot : tokens)
+			size += 4 * slot.length;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(magic);
+			out.writeInt(version);
+			out.writeInt(deckSize);
+			out.writeInt(tableSize);
+			out.writeInt(scores.length);
+			out.writeInt(deck.length);
+			out.writeInt(reshuffles);
+			out.writeLong(countdownMillis);
+			out.writeLong(elapsedMillis);
+			for (int card : deck)
+				out.writeInt(card);
+			for (int slot = 0; slot < tableSize; slot++) {
+				out.writeInt(slotToCard[slot]);
+				out.writeInt(tokens[slot].length);
+				for (int player : tokens[slot])
+					out.writeInt(player);
+			}
+			for (int score : scores)
+				out.writeInt(score);
+			CRC32 crc = new CRC32();
+			crc.update(bytes.toByteArray());
+			out.writeInt((int) crc.getValue());
+		}
+		catch(IOException error) {
+			throw new IllegalStateException(error); // not thrown by a byte array stream
+		}
+		return bytes.toByteArray();
+	}
+
+	// Decodes a checkpoint, or throws an IOException if the data is not a valid checkpoint
+	public static Checkpoint decode(byte[] data) throws IOException {
+		if (data.length < 4)
+			throw new IOException("the checkpoint is truncated");
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length - 4);
+		if (ByteBuffer.wrap(data, data.length - 4, 4).getInt() != (int) crc.getValue())
+			throw new IOException("the checkpoint is corrupted");
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+			if (in.readInt() != magic || in.readInt() != version)
+				throw new IOException("not a checkpoint");
+			int deckSize = in.readInt();
+			int tableSize = in.readInt();
+			int players = in.readInt();
+			int deckLength = in.readInt();
+			int reshuffles = in.readInt();
+			long countdownMillis = in.readLong();
+			long elapsedMillis = in.readLong();
+			if (deckSize < 0 || tableSize < 0 || players < 0 || deckLength < 0 || deckLength > deckSize)
+				throw new IOException("the checkpoint is corrupted");
+			int[] deck = new int[deckLength];
+			for (int i = 0; i < deck.length; i++)
+				deck[i] = in.readInt();
+			int[] slotToCard = new int[tableSize];
+			int[][] tokens = new int[tableSize][];
+			for (int slot = 0; slot < tableSize; slot++) {
+				slotToCard[slot] = in.readInt();
+				int count = in.readInt();
+				if (count < 0 || count > players)
+					throw new IOException("the checkpoint is corrupted");
+				tokens[slot] = new int[count];
+				for (int i = 0; i < count; i++)
+					tokens[slot][i] = in.readInt();
+			}
+			int[] scores = new int[players];
+			for (int i = 0; i < players; i++)
+				scores[i] = in.readInt();
+			if (in.available() != 4) // the checksum
+				throw new IOException("the checkpoint is corrupted");
+			return new Checkpoint(deckSize, deck, slotToCard, tokens, scores, countdownMillis, elapsedMillis, reshuffles);
+		}
+		catch(EOFException error) {
+			throw new IOException("the checkpoint is truncated");
+		}
+	}
+}
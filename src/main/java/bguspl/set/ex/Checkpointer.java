@@ -0,0 +1,134 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes the dealer's checkpoints on a background thread, so the dealer only pays for copying the game state.
+ * A checkpoint is written to a temporary file that then replaces the checkpoint file, so the file always holds a
+ * whole checkpoint. If the writer falls behind, only the latest checkpoint waiting is written.
+ */
+public class Checkpointer {
+
+	/**
+	 * The game environment object.
+	 */
+	private final Env env;
+
+	/**
+	 * The checkpoint file, and the temporary file the checkpoints are written to first.
+	 */
+	private final Path path;
+	private final Path temporary;
+
+	/**
+	 * The thread writing the checkpoints.
+	 */
+	private final ExecutorService writer;
+
+	/**
+	 * The latest checkpoint not written yet (null if none).
+	 */
+	private final AtomicReference<Checkpoint> pending = new AtomicReference<Checkpoint>();
+
+	/**
+	 * The cost of the checkpoints: the dealer's time taking the snapshots, and the writer's time writing them.
+	 */
+	private final LongAdder snapshots = new LongAdder();
+	private final LongAdder snapshotNanos = new LongAdder();
+	private final LongAccumulator maxSnapshotNanos = new LongAccumulator(Math::max, 0);
+	private final LongAdder writes = new LongAdder();
+	private final LongAdder writeNanos = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	public Checkpointer(Env env, Path path) {
+		this.env = env;
+		this.path = path;
+		this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		writer = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "checkpoint-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	// Reads the checkpoint in the given file
+	public static Checkpoint read(Path path) throws IOException {
+		return Checkpoint.decode(Files.readAllBytes(path));
+	}
+
+	// Queues a checkpoint for writing (replacing the one waiting, if any). snapshotNanos is the dealer's time taking it
+	void submit(Checkpoint checkpoint, long snapshotNanos) {
+		snapshots.increment();
+		this.snapshotNanos.add(snapshotNanos);
+		maxSnapshotNanos.accumulate(snapshotNanos);
+		if (pending.getAndSet(checkpoint) == null)
+			writer.execute(this::write);
+	}
+
+	private void write() {
+		Checkpoint checkpoint = pending.getAndSet(null);
+		if (checkpoint == null)
+			return;
+		long start = System.nanoTime();
+		try {
+			if (path.getParent() != null)
+				Files.createDirectories(path.getParent());
+			try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer data = ByteBuffer.wrap(checkpoint.encode());
+				while (data.hasRemaining())
+					channel.write(data);
+				channel.force(false);
+			}
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			writes.increment();
+			writeNanos.add(System.nanoTime() - start);
+		}
+		catch(IOException error) {
+			failures.increment();
+			env.logger.severe("cannot write the checkpoint to " + path + ": " + error);
+		}
+	}
+
+	// Waits for the checkpoints queued to be written, then stops the writer. If the game is over, deletes the
+	// checkpoint instead (there is nothing left to restore)
+	void shutdown(boolean gameOver) {
+		writer.shutdown();
+		try {
+			writer.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		catch(InterruptedException error) {}
+		if (!gameOver)
+			return;
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch(IOException error) {
+			env.logger.severe("cannot delete the checkpoint " + path + ": " + error);
+		}
+	}
+
+	@Override
+	public String toString() {
+		long snapshots = this.snapshots.sum();
+		long writes = this.writes.sum();
+		return "checkpoints: " + snapshots + " taken, " + writes + " written, " + failures.sum() + " failed, snapshot "
+				+ String.format("%.1f", snapshots == 0 ? 0 : snapshotNanos.sum() / 1e3 / snapshots) + " us average (max "
+				+ String.format("%.1f", maxSnapshotNanos.get() / 1e3) + " us), write "
+				+ String.format("%.2f", writes == 0 ? 0 : writeNanos.sum() / 1e6 / writes) + " ms average";
+	}
+}
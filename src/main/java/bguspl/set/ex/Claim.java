@@ -0,0 +1,65 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A player's claim that the cards it placed its tokens on form a legal set.
+ * The claim is stamped with the time the key placing the last token was pressed, so the dealer can order conflicting claims by when they were
+ * actually made rather than by which player thread reached the dealer first.
+ * The dealer answers by completing the verdict future; the claim is withdrawn by cancelling it (the dealer skips
+ * cancelled claims).
+ */
+public class Claim {
+
+    /**
+     * The id of the claiming player.
+     */
+    public final int player;
+
+    /**
+     * The claimed cards (notOnTable for a card removed while the claim was made).
+     */
+    public final int[] cards;
+
+    /**
+     * The time (as System.nanoTime) the key placing the last token of the claim was pressed.
+     */
+    public final long timestamp;
+
+    /**
+     * The dealer's verdict (cancelled if the claim was withdrawn, timed out or made before a reshuffle).
+     */
+    public final CompletableFuture<Verdict> verdict = new CompletableFuture<Verdict>();
+
+    /**
+     * The time (as System.nanoTime) the dealer received the claim.
+     */
+    long received;
+
+    /**
+     * Signifies a card that is no longer on the table.
+     */
+    public static final int notOnTable = -1;
+
+    /**
+     * @param player    - the id of the claiming player.
+     * @param cards     - the cards the player has tokens on (null entries are cards that are no longer on the table).
+     * @param timestamp - the time (as System.nanoTime) the key placing the last token was pressed.
+     */
+    public Claim(int player, Integer[] cards, long timestamp) {
+        this.player = player;
+        this.cards = new int[cards.length];
+        for (int i = 0; i < cards.length; i++)
+            this.cards[i] = cards[i] == null ? notOnTable : cards[i];
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Withdraws the claim (has no effect if the verdict was already given).
+     *
+     * @return - true iff the claim was withdrawn before the verdict.
+     */
+    public boolean cancel() {
+        return verdict.cancel(false);
+    }
+}
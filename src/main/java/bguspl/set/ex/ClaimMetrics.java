@@ -0,0 +1,112 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fairness statistics of the dealer's claim adjudication: how often ordering the claims by their timestamps (when the
+ * key placing the last token was pressed) differed from ordering them by their arrival at the dealer, and how often
+ * it changed the verdicts.
+ */
+public class ClaimMetrics {
+
+    /**
+     * The number of claims adjudicated.
+     */
+    private final LongAdder claims = new LongAdder();
+
+    /**
+     * The number of batches of claims adjudicated together (claims received within the same window).
+     */
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * The number of claims whose position in timestamp order differed from their position in arrival order.
+     */
+    private final LongAdder reordered = new LongAdder();
+
+    /**
+     * The number of claims whose verdict would have been different in arrival order.
+     */
+    private final LongAdder overturned = new LongAdder();
+
+    /**
+     * The number of stale claims (cards taken by an earlier claim or removed from the table).
+     */
+    private final LongAdder stale = new LongAdder();
+
+    /**
+     * The total time (in nanoseconds) between placing the last token and the adjudication.
+     */
+    private final LongAdder latencyNanos = new LongAdder();
+
+    /**
+     * The longest time (in nanoseconds) between placing the last token and the adjudication.
+     */
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    void addBatch(int claims) {
+        batches.increment();
+        this.claims.add(claims);
+    }
+
+    void addReordered() {
+        reordered.increment();
+    }
+
+    void addOverturned() {
+        overturned.increment();
+    }
+
+    void addStale() {
+        stale.increment();
+    }
+
+    void addLatency(long nanos) {
+        latencyNanos.add(nanos);
+        maxLatencyNanos.accumulate(nanos);
+    }
+
+    public long claims() {
+        return claims.sum();
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    public long reordered() {
+        return reordered.sum();
+    }
+
+    public long overturned() {
+        return overturned.sum();
+    }
+
+    public long stale() {
+        return stale.sum();
+    }
+
+    /**
+     * @return - the average time (in milliseconds) between placing the last token and the adjudication.
+     */
+    public double averageLatencyMillis() {
+        long claims = claims();
+        return claims == 0 ? 0 : latencyNanos.sum() / 1e6 / claims;
+    }
+
+    /**
+     * @return - the longest time (in milliseconds) between placing the last token and the adjudication.
+     */
+    public double maxLatencyMillis() {
+        return maxLatencyNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return "claims: " + claims() + " in " + batches() + " batches, reordered: " + reordered() + ", overturned: "
+                + overturned() + ", stale: " + stale() + ", average latency: "
+                + String.format("%.2f", averageLatencyMillis()) + " ms (max " + String.format("%.2f", maxLatencyMillis())
+                + " ms)";
+    }
+}
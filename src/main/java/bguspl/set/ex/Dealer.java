@@ -1,14 +1,24 @@
 package bguspl.set.ex;
 
 import bguspl.set.Env;
+import bguspl.set.stats.GameResult;
+import bguspl.set.stats.Leaderboard;
+import bguspl.set.stats.ResultsStore;
+
+import java.io.IOException;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Vector;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Queue;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.LinkedList;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -28,9 +38,9 @@ public class Dealer implements Runnable {
     private final Player[] players;
 
     /**
-     * The list of card ids that are left in the dealer's deck.
+     * The card ids that are left in the dealer's deck.
      */
-    private final List<Integer> deck;
+    private final Deck deck;
 
     /**
      * True iff game should be terminated.
@@ -43,39 +53,34 @@ public class Dealer implements Runnable {
     private long reshuffleTime = Long.MAX_VALUE;
     
     /**
-     * The time when the dealer needs to reshuffle the deck due to turn timeout.
+     * True while the dealer is dealing or reshuffling (volatile, as the players poll it without a lock).
      */
-    private boolean shuffle;
+    volatile boolean shuffle;
     
     /**
      * The time for the dealer to wake up to update the timer if nobody woke him up
      */
     private final int wakeUpTime = 600;
     
-    /**
-     * The size of each set in the game.
-     */
-    public static int setSize = 3;
-    
     /**
      * Used to find out if a single set is still in the deck.
      */
     public static final int findASet = 1;
     
     /**
-     * Queue of who made a set first.
+     * The claims waiting to be adjudicated, in the order they were received.
      */
-    private Vector<Integer> playerCheckQueue;
+    private final Queue<Claim> claims;
     
     /**
-     * Signifies the first element 
+     * Fairness statistics of the claims adjudication.
      */
-    private final int first = 0;
+    private final ClaimMetrics claimMetrics;
     
     /**
-     * Keeps the players threads 
+     * Keeps the players threads (concurrent, as both the dealer thread and the thread ending the game may join them)
      */
-    private LinkedList<Thread> playersThreads;
+    private final ConcurrentLinkedDeque<Thread> playersThreads;
     
     /**
      * Signifies if the alarm timer needs to be turned on
@@ -107,17 +112,115 @@ public class Dealer implements Runnable {
      */
     private boolean terminated = false;
     
+    /**
+     * The number of times the dealer reshuffled the deck due to turn timeout.
+     */
+    private volatile int reshuffles;
+    
+    /**
+     * The leaderboard the final scores are reported to (null if none).
+     */
+    private volatile Leaderboard leaderboard;
+    
+    /**
+     * The sets the dealer awarded to each player (by player id). Kept by the dealer, so a checkpoint of the table never
+     * misses a point the player thread has not counted yet.
+     */
+    private final int[] points;
+    
+    /**
+     * Writes the checkpoints of the game (null if checkpoints are off).
+     */
+    private final Checkpointer checkpointer;
+    
+    /**
+     * The time when the dealer takes the next checkpoint.
+     */
+    private long nextCheckpoint;
+    
+    /**
+     * The time when the game started (shifted back by the time played before a restore).
+     */
+    private long startMillis;
+    
+    /**
+     * The time played and the time left on the countdown in the checkpoint the game was restored from (-1 if none).
+     */
+    private long restoredElapsedMillis = 0;
+    private long restoredCountdownMillis = -1;
+    
+    /**
+     * Finds the sets on the table for the hints (and anyone else asking) off the dealer thread.
+     */
+    private final HintService hintService;
+    
+    /**
+     * Chooses the cards to deal.
+     */
+    private final DealingStrategy dealing;
+    
+    /**
+     * The sets among the cards on the table (kept up to date with every card dealt or removed).
+     */
+    private final TableSets tableSets;
+    
+    /**
+     * Statistics of the deals (dead tables).
+     */
+    private final DealingMetrics dealingMetrics;
+    
+    /**
+     * Reports (and recovers, if on) the game threads that stopped making progress.
+     */
+    private final Watchdog watchdog;
+    
+    /**
+     * The dealer thread's state, for the watchdog.
+     */
+    private final Watchdog.Heartbeat heartbeat;
+    
+    /**
+     * Stops the player threads in a bounded time.
+     */
+    private final ShutdownCoordinator shutdown;
+    
     public Dealer(Env env, Table table, Player[] players) {
         this.env = env;
         this.table = table;
         this.players = players;
-        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
+        deck = new Deck(env.config.deckSize);
         shuffle = true;
-        playerCheckQueue = new Vector<Integer>();
-        playersThreads = new LinkedList<Thread>();
+        claims = new ConcurrentLinkedQueue<Claim>();
+        claimMetrics = new ClaimMetrics();
+        playersThreads = new ConcurrentLinkedDeque<Thread>();
         slotsToRemove = new LinkedList<Integer>();
-        setSize = env.config.featureSize;
         warn = false;
+        points = new int[players.length];
+        checkpointer = env.config.checkpointFile.isEmpty() ? null
+        		: new Checkpointer(env, Paths.get(env.config.checkpointFile));
+        hintService = new HintService(env, table);
+        dealing = dealingStrategy(env);
+        tableSets = new TableSets(env);
+        dealingMetrics = new DealingMetrics();
+        watchdog = new Watchdog(env, this);
+        shutdown = new ShutdownCoordinator(env);
+        heartbeat = new Watchdog.Heartbeat("dealer", () -> {
+        	synchronized(this) {
+        		notifyAll();
+        	}
+        });
+        if (env.config.hints)
+        	hintService.subscribe(hintService::print);
+    }
+
+    private static DealingStrategy dealingStrategy(Env env) {
+    	try {
+    		return DealingStrategy.of(env.config.dealingStrategy);
+    	}
+    	catch (IllegalArgumentException error) {
+    		env.logger.severe(error.getMessage() + ", dealing randomly instead");
+    		return new RandomDealing();
+    	}
     }
 
     /**
@@ -126,31 +229,63 @@ public class Dealer implements Runnable {
     @Override
     public void run() {
         env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
+        heartbeat.bind();
+        watchdog.watch(heartbeat);
+        for (Player player : players)
+        	watchdog.watch(player.heartbeat());
+        watchdog.start();
+        startMillis = System.currentTimeMillis() - restoredElapsedMillis;
+        nextCheckpoint = System.currentTimeMillis() + env.config.checkpointMillis;
         for(Player play : players) {
-        	Thread player = new Thread(play);
+        	Thread player = new Thread(play, "player-" + play.id);
         	player.start();
         	playersThreads.add(player);
         }
         
         shuffle = true;
-        // first placing of the cards
+        // first placing of the cards (only the empty slots of a restored table)
         placeCardsOnTable();
-        updateTimerDisplay(true);
+        if (restoredCountdownMillis >= 0) {
+        	reshuffleTime = System.currentTimeMillis() + restoredCountdownMillis;
+        	updateTimerDisplay(false);
+        }
+        else
+        	updateTimerDisplay(true);
         
         while (!terminate) {
         	shuffle = false;
         	notifyPlayers();
             timerLoop();
+            if (!terminate)
+            	reshuffles++;
             shuffle = true;
+            Object reshuffle = GameEvents.reshuffling();
             removeAllCardsFromTable();
             placeCardsOnTable();
+            GameEvents.reshuffled(reshuffle, table.countCards());
             if (!terminate)
             	updateTimerDisplay(true);
         }
         
+        // the game ended by itself unless terminate was called from outside
+        boolean completed = !terminated;
         if (!terminated)
         	terminate();
-        announceWinners();
+        int[] winners = announceWinners();
+        saveResults(startMillis, completed, winners);
+        reportScores();
+        env.logger.info("claim fairness: " + claimMetrics);
+        dealingMetrics.dealing(System.currentTimeMillis());
+        env.logger.info("dealing (" + dealing + "): " + dealingMetrics);
+        if (checkpointer != null) {
+        	// a game that ended by itself has nothing left to restore
+        	checkpointer.shutdown(completed);
+        	env.logger.info(checkpointer.toString());
+        }
+        hintService.shutdown();
+        heartbeat.enter(Watchdog.State.TERMINATED);
+        watchdog.shutdown();
+        env.logger.info(watchdog.toString());
         try {
         	Thread.currentThread().sleep(env.config.endGamePauseMillies);
         }
@@ -164,8 +299,10 @@ public class Dealer implements Runnable {
     private void timerLoop() {
         while (!terminate && System.currentTimeMillis() < reshuffleTime) { 
         	sleepUntilWokenOrTimeout();
+        	heartbeat.enter(Watchdog.State.RUNNING);
             checkForSet();
             updateTimerDisplay(false);
+            checkpoint();
             //removeCardsFromTable();
             //placeCardsOnTable();
         }
@@ -176,19 +313,15 @@ public class Dealer implements Runnable {
      */
     public void terminate() {
         // TODO implement
-    	for (int i = players.length - 1; i > -1; i--) {
-			players[i].terminate();
-    		synchronized(players[i]) {
-    			players[i].notify();
-    		}
-    		try {
-    			playersThreads.removeLast().join();
-    		}
-    		catch(InterruptedException error) {}
-    	}
+    	// all the players at once, waiting for them until a single deadline (runs once, whoever calls it)
+    	shutdown.shutdown(players, playersThreads);
     	
-    	terminate = true;
+    	// set before the volatile flag, so the dealer thread never sees the game terminated but not the flag
     	terminated = true;
+    	terminate = true;
+    	synchronized(this) {
+    		notifyAll();
+    	}
     }
 
     /**
@@ -197,7 +330,7 @@ public class Dealer implements Runnable {
      * @return true iff the game should be finished.
      */
     private boolean shouldFinish() {
-        return terminate || env.util.findSets(deck, 1).size() == 0;
+        return terminate || env.util.findSets(deck.members(), findASet).size() == 0;
     }
 
     /**
@@ -205,8 +338,12 @@ public class Dealer implements Runnable {
      */
     private void removeCardsFromTable() {
         // TODO implement
-    	for (Integer slot : slotsToRemove)
+    	for (Integer slot : slotsToRemove) {
+    		Integer card = table.slotToCard[slot];
+    		if (card != null)
+    			tableSets.remove(card);
     		table.removeCard(slot);
+    	}
     	slotsToRemove.clear();
     }
 
@@ -217,20 +354,31 @@ public class Dealer implements Runnable {
         // TODO implement
     	int numToPlace = env.config.tableSize - table.countCards();
     	// we are reshuffling and no more sets are available in the deck
-    	if (numToPlace == env.config.tableSize && env.util.findSets(deck, findASet).size() == 0) {
+    	if (numToPlace == env.config.tableSize && env.util.findSets(deck.members(), findASet).size() == 0) {
     		terminate = true;
     		return;
     	}
     	//only shuffle if all the cards need to be replaced
     	if (numToPlace == env.config.tableSize)
-    		Collections.shuffle(deck);
+    		deck.shuffle();
     	
     	int counter = 0;
-    	// places a randomly chosen card from the deck on the table
+    	long rescues = dealing.rescues();
+    	dealingMetrics.dealing(System.currentTimeMillis());
+    	// places the card chosen by the dealing strategy (by default, the top card of the shuffled deck) on the table
     	while(numToPlace > counter && !deck.isEmpty() ) {
-    		table.placeCard(deck.remove(first));
+    		heartbeat.enter(Watchdog.State.DEALING);
+    		int card = dealing.next(deck, tableSets, Math.min(numToPlace - counter, deck.size()));
+    		table.placeCard(card);
+    		tableSets.add(card);
     		counter ++ ;
     	}
+    	// the countdown restarts after every deal, so a dead table lasts until the countdown runs out
+    	if (counter > 0)
+    		dealingMetrics.dealt(System.currentTimeMillis(), tableSets.hasSet(), dealing.rescues() > rescues,
+    				Math.max(0, env.config.turnTimeoutMillis));
+    	hintService.tableChanged();
+    	heartbeat.enter(Watchdog.State.RUNNING);
     }
 
     /**
@@ -239,16 +387,20 @@ public class Dealer implements Runnable {
     private void sleepUntilWokenOrTimeout() {
         // TODO implement
     	synchronized(this) {
-    		if (playerCheckQueue.isEmpty()) {
+    		if (claims.isEmpty()) {
+    			long timeout = warn ? fastWakeUp : wakeUpTime;
+    			Object event = GameEvents.dealerSleeping(timeout);
+    			long start = System.currentTimeMillis();
+    			heartbeat.enter(Watchdog.State.SLEEPING);
 	    		try {
-	    			if (warn)
-	    				wait(fastWakeUp);
-	    			else
-	    				wait(wakeUpTime);
+	    			wait(timeout);
 	    		}
 	    		// a player woke him up
 	    		catch(InterruptedException error){
 	    		}
+	    		if (event != null)
+	    			GameEvents.dealerWokeUp(event, !claims.isEmpty() ? "claim"
+	    					: System.currentTimeMillis() - start >= timeout ? "timeout" : "notified");
     		}
     	}
     }
@@ -280,15 +432,19 @@ public class Dealer implements Runnable {
      */
     private void removeAllCardsFromTable() {
         // TODO implement
+    	cancelClaims();
     	for (int card :table.removeAllCards())
     		deck.add(card);
+    	tableSets.clear();
     	
     }
 
     /**
      * Check who is/are the winner/s and displays them.
+     *
+     * @return - the ids of the winners.
      */
-    private void announceWinners() {
+    private int[] announceWinners() {
     	int max = 0;
     	LinkedList<Integer> winners = new LinkedList<Integer>();
     	// Find the max score and adds the winners
@@ -306,7 +462,28 @@ public class Dealer implements Runnable {
         	ids[i] = winners.get(i);
         	
         env.ui.announceWinner(ids);
-        
+        return ids;
+    }
+    
+    // Appends the result of the game to the results store (if configured)
+    private void saveResults(long start, boolean completed, int[] winners) {
+    	if (env.config.resultsFile.isEmpty())
+    		return;
+    	String[] strategies = new String[players.length];
+    	int[] scores = new int[players.length];
+    	for (Player player : players) {
+    		strategies[player.id] = player.isHuman() ? GameResult.human : GameResult.computer;
+    		scores[player.id] = player.score();
+    	}
+    	GameResult result = new GameResult(start, System.currentTimeMillis() - start, reshuffles, completed, strategies,
+    			scores, winners);
+    	try (ResultsStore store = new ResultsStore(Paths.get(env.config.resultsFile))) {
+    		store.append(result);
+    	}
+    	// the file locked by this JVM other than through a ResultsStore is refused, not waited for
+    	catch(IOException | OverlappingFileLockException error) {
+    		env.logger.severe("cannot save the results to " + env.config.resultsFile + ": " + error);
+    	}
     }
     
     // Returns if the deck is being reshuffled
@@ -314,44 +491,116 @@ public class Dealer implements Runnable {
     	return shuffle;
     }
     
-    // Checks if a player completed a set
+    // Adjudicates the pending claims. The claims received within the claim window of the first one are judged
+    // together, strictly in the order of their timestamps (when the key placing their last token was pressed), so a
+    // claim that lost the race to the dealer's queue still beats a later one on the same cards
     private void checkForSet() {
-    	if (playerCheckQueue.isEmpty())
+    	Claim first = claims.peek();
+    	if (first == null)
     		return;
     	
-    	int playerId = playerCheckQueue.remove(first);
-    	Player player = players[playerId];
-    	Integer[] cards = table.getPlayersCards(playerId);
-    	int[]cardsToCheck = new int[cards.length];
-    	// checks there are indeed 3 cards
-    	for (int i = 0; i < cards.length; i++) {
-    		if (cards[i] == null)
-    			return;
-    		cardsToCheck[i] = cards[i];
+    	// let the claims racing the first one arrive
+    	long windowLeft = first.received + TimeUnit.MILLISECONDS.toNanos(env.config.claimWindowMillis) - System.nanoTime();
+    	if (windowLeft > 0) {
+    		try {
+    			TimeUnit.NANOSECONDS.sleep(windowLeft);
+    		}
+    		catch(InterruptedException error) {}
     	}
     	
-    	boolean result = env.util.testSet(cardsToCheck);
-    	// Legal set
-    	if (result) {
-        	synchronized(player) {
-        		player.setWon(true);
-        		player.notify();
-        	}
-    		
-    		for (int card : cards) 
-    			//table.removeCard(table.cardToSlot[card]);
-    			slotsToRemove.add(table.cardToSlot[card]);
+    	List<Claim> arrival = new ArrayList<Claim>();
+    	for (Claim claim = claims.poll(); claim != null; claim = claims.poll())
+    		if (!claim.verdict.isDone()) // withdrawn or timed out
+    			arrival.add(claim);
+    	if (arrival.isEmpty())
+    		return;
+    	List<Claim> ordered = new ArrayList<Claim>(arrival);
+    	ordered.sort(Comparator.comparingLong(claim -> claim.timestamp));
+    	
+    	Verdict[] verdicts = adjudicate(ordered);
+    	updateClaimMetrics(arrival, ordered, verdicts);
+    	
+    	// a verdict counts only if it completes: a claim withdrawn, timed out or cancelled by the watchdog meanwhile
+    	// leaves its cards on the table (and to the claims after it)
+    	boolean setFound = false;
+    	for (int i = 0; i < ordered.size(); i++) {
+    		Claim claim = ordered.get(i);
+    		if (!claim.verdict.complete(verdicts[i])) {
+    			if (verdicts[i] == Verdict.SET)
+    				verdicts = adjudicate(ordered);
+    			continue;
+    		}
+    		GameEvents.claimVerdict(claim, verdicts[i]);
+    		if (verdicts[i] == Verdict.SET) {
+    			setFound = true;
+    			for (int card : claim.cards)
+    				slotsToRemove.add(table.slotOf(card));
+    			points[claim.player]++;
+    		}
+    	}
+    	
+    	if (setFound) {
     		removeCardsFromTable();
     		placeCardsOnTable();
     		updateTimerDisplay(true);
-    		return;
     	}
-    	
-    	// illegal set
-    	synchronized(player) {
-    		player.setWon(false);
-    		player.notify();
+    }
+    
+    // Returns the verdicts of the claims judged in the given order, without changing the table: a claim is stale if
+    // one of its cards is no longer on the table (or was dealt again without the player's token), or was taken by a
+    // legal set earlier in the order
+    private Verdict[] adjudicate(List<Claim> ordered) {
+    	Verdict[] verdicts = new Verdict[ordered.size()];
+    	BitSet taken = new BitSet(env.config.deckSize);
+    	for (int i = 0; i < verdicts.length; i++) {
+    		int[] cards = ordered.get(i).cards;
+    		// a cancelled claim takes no cards from the claims after it
+    		if (ordered.get(i).verdict.isCancelled()) {
+    			verdicts[i] = Verdict.STALE;
+    			continue;
+    		}
+    		boolean stale = false;
+    		for (int card : cards) {
+    			int slot = card == Claim.notOnTable ? notFound : table.slotOf(card);
+    			if (slot == notFound || !table.hasTokenOn(ordered.get(i).player, slot) || taken.get(card))
+    				stale = true;
+    		}
+    		
+    		if (stale)
+    			verdicts[i] = Verdict.STALE;
+    		else if (env.util.testSet(cards)) {
+    			verdicts[i] = Verdict.SET;
+    			for (int card : cards)
+    				taken.set(card);
+    		}
+    		else
+    			verdicts[i] = Verdict.NOT_A_SET;
     	}
+    	return verdicts;
+    }
+    
+    // Records how the timestamp order of a batch of claims differed from its arrival order
+    private void updateClaimMetrics(List<Claim> arrival, List<Claim> ordered, Verdict[] verdicts) {
+    	long now = System.nanoTime();
+    	claimMetrics.addBatch(ordered.size());
+    	boolean reordered = false;
+    	for (int i = 0; i < ordered.size(); i++) {
+    		claimMetrics.addLatency(now - ordered.get(i).timestamp);
+    		if (verdicts[i] == Verdict.STALE)
+    			claimMetrics.addStale();
+    		if (ordered.get(i) != arrival.get(i)) {
+    			claimMetrics.addReordered();
+    			reordered = true;
+    		}
+    	}
+    	if (!reordered)
+    		return;
+    	
+    	// the verdicts the claims would have gotten in arrival order
+    	Verdict[] arrivalVerdicts = adjudicate(arrival);
+    	for (int i = 0; i < arrival.size(); i++)
+    		if (arrivalVerdicts[i] != verdicts[ordered.indexOf(arrival.get(i))])
+    			claimMetrics.addOverturned();
     }
     
     // Notifys all the players
@@ -366,9 +615,131 @@ public class Dealer implements Runnable {
     		
     }
     
-    // adds a player to the queue of which player to check first
-    public void addPlayerToCheck(int id) {
-    	playerCheckQueue.add(id);
+    // Cancels the claims that were not adjudicated yet (their cards are being returned to the deck)
+    void cancelClaims() {
+    	for (Claim claim = claims.poll(); claim != null; claim = claims.poll())
+    		claim.cancel();
+    }
+    
+    // Adds a claim to the queue of claims to adjudicate. A claim that may have missed the dealer's last cancellation
+    // of the pending claims (the game is terminating) is cancelled right away
+    public void submitClaim(Claim claim) {
+    	claim.received = System.nanoTime();
+    	claims.add(claim);
+    	GameEvents.claimSubmitted(claim, claims.size());
+    	if (terminate)
+    		claim.cancel();
+    }
+    
+    // Takes a checkpoint of the game if one is due, and hands it to the checkpoint writer. Called between the ticks of
+    // the dealer loop, when no claim is being adjudicated, and only copies the state (a few microseconds)
+    private void checkpoint() {
+    	long now = System.currentTimeMillis();
+    	if (checkpointer == null || now < nextCheckpoint)
+    		return;
+    	nextCheckpoint = now + env.config.checkpointMillis;
+    	long start = System.nanoTime();
+    	Checkpoint checkpoint = new Checkpoint(env.config.deckSize, deck.toArray(), table.cards(), table.tokens(),
+    			points.clone(), Math.max(0, reshuffleTime - now), now - startMillis, reshuffles);
+    	checkpointer.submit(checkpoint, System.nanoTime() - start);
+    }
+    
+    // Restores the game from a checkpoint (should be called before the dealer thread starts). The tokens of a player
+    // holding a whole set are not restored, as its claim was not saved. Returns false (leaving the game as it was) if
+    // the checkpoint does not fit the configuration
+    public boolean restore(Checkpoint checkpoint) {
+    	if (checkpoint.deckSize != env.config.deckSize || checkpoint.tableSize != env.config.tableSize
+    			|| checkpoint.players() != players.length)
+    		return false;
+    	BitSet cards = new BitSet(env.config.deckSize);
+    	for (int card : checkpoint.deck)
+    		if (card < 0 || card >= env.config.deckSize || cards.get(card))
+    			return false;
+    		else
+    			cards.set(card);
+    	int[] tokens = new int[players.length];
+    	for (int slot = 0; slot < checkpoint.tableSize; slot++) {
+    		int card = checkpoint.slotToCard[slot];
+    		if (card != Checkpoint.noCard && (card < 0 || card >= env.config.deckSize || cards.get(card)))
+    			return false;
+    		if (card != Checkpoint.noCard)
+    			cards.set(card);
+    		for (int player : checkpoint.tokens[slot])
+    			if (player < 0 || player >= players.length)
+    				return false;
+    			else
+    				tokens[player]++;
+    	}
+    	
+    	deck.reset(checkpoint.deck);
+    	for (int slot = 0; slot < checkpoint.tableSize; slot++) {
+    		if (checkpoint.slotToCard[slot] == Checkpoint.noCard)
+    			continue;
+    		table.placeCard(checkpoint.slotToCard[slot], slot);
+    		tableSets.add(checkpoint.slotToCard[slot]);
+    		for (int player : checkpoint.tokens[slot])
+    			if (tokens[player] < env.config.setSize)
+    				table.placeToken(player, slot);
+    	}
+    	for (Player player : players) {
+    		points[player.id] = checkpoint.scores[player.id];
+    		player.restore(checkpoint.scores[player.id]);
+    	}
+    	reshuffles = checkpoint.reshuffles;
+    	restoredElapsedMillis = checkpoint.elapsedMillis;
+    	restoredCountdownMillis = checkpoint.countdownMillis;
+    	return true;
+    }
+    
+    // Reports the final scores to the leaderboard (if any), by the players' names
+    private void reportScores() {
+    	Leaderboard leaderboard = this.leaderboard;
+    	if (leaderboard == null)
+    		return;
+    	int[] scores = new int[players.length];
+    	for (Player player : players)
+    		scores[player.id] = player.score();
+    	leaderboard.report(env.config.playerNames, scores);
+    }
+    
+    // Sets the leaderboard the final scores are reported to (should be called before the dealer thread starts)
+    public void reportTo(Leaderboard leaderboard) {
+    	this.leaderboard = leaderboard;
+    }
+    
+    // Returns the number of times the dealer reshuffled the deck due to turn timeout
+    public int reshuffles() {
+    	return reshuffles;
+    }
+    
+    // Returns the fairness statistics of the claims adjudication
+    public ClaimMetrics claimMetrics() {
+    	return claimMetrics;
+    }
+    
+    // Returns the statistics of the deals
+    public DealingMetrics dealingMetrics() {
+    	return dealingMetrics;
+    }
+    
+    // Returns the service finding the sets on the table (for hints, highlighting and strategies)
+    public HintService hints() {
+    	return hintService;
+    }
+    
+    // Returns the player and computer threads that did not stop in time when the game was terminated
+    public List<Thread> stragglers() {
+    	return shutdown.stragglers();
+    }
+    
+    // Returns true iff the game is terminating (for the watchdog)
+    boolean terminating() {
+    	return terminate;
+    }
+    
+    // Returns the claims waiting to be adjudicated (for the watchdog's reports)
+    Collection<Claim> pendingClaims() {
+    	return claims;
     }
     
    
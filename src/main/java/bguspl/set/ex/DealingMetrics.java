@@ -0,0 +1,89 @@
+package bguspl.set.ex;
+
+/**
+ * Statistics of the dealer's deals: how many left no set on the table (a dead table, on which the players can only
+ * wait for the countdown to reshuffle), for how long, and how much dead-table time the dealing strategy saved.
+ * Updated by the dealer thread only.
+ */
+public class DealingMetrics {
+
+    /**
+     * The number of deals, and of deals that left no set on the table.
+     */
+    private long deals;
+    private long deadDeals;
+
+    /**
+     * The total time (in milliseconds) the table had no set on it.
+     */
+    private long deadMillis;
+
+    /**
+     * The time (as System.currentTimeMillis) the table was last left without a set (-1 if it has one).
+     */
+    private long deadSince = -1;
+
+    /**
+     * The number of deals the dealing strategy made live (see DealingStrategy.rescues).
+     */
+    private long rescues;
+
+    /**
+     * The countdown left after the deals the strategy made live, i.e. the dead-table time they would have cost.
+     */
+    private long savedMillis;
+
+    /**
+     * Called before cards are dealt (or at the end of the game): the table is about to change.
+     */
+    void dealing(long now) {
+        if (deadSince >= 0)
+            deadMillis += now - deadSince;
+        deadSince = -1;
+    }
+
+    /**
+     * Called after cards were dealt.
+     *
+     * @param live          - true iff there is a set on the table.
+     * @param rescued       - true iff the strategy made the table live.
+     * @param countdownLeft - the time left until the next reshuffle.
+     */
+    void dealt(long now, boolean live, boolean rescued, long countdownLeft) {
+        deals++;
+        if (!live) {
+            deadDeals++;
+            deadSince = now;
+        }
+        if (rescued) {
+            rescues++;
+            savedMillis += countdownLeft;
+        }
+    }
+
+    public long deals() {
+        return deals;
+    }
+
+    public long deadDeals() {
+        return deadDeals;
+    }
+
+    public long deadMillis() {
+        return deadMillis;
+    }
+
+    public long rescues() {
+        return rescues;
+    }
+
+    public long savedMillis() {
+        return savedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "deals: " + deals + ", dead: " + deadDeals + " (" + deadMillis + " ms without a set on the table), made live: "
+                + rescues + " (about " + savedMillis + " ms of dead table saved)";
+    }
+}
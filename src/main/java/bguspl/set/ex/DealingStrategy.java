@@ -0,0 +1,43 @@
+package bguspl.set.ex;
+
+import java.util.Locale;
+
+/**
+ * Chooses the cards the dealer deals into the empty slots of the table, one card at a time.
+ */
+public interface DealingStrategy {
+
+    /**
+     * Removes the next card to deal from the deck.
+     *
+     * @param deck  - the dealer's deck (not empty).
+     * @param table - the sets among the cards already on the table (including the cards dealt before in this deal).
+     * @param left  - the number of cards left to deal in this deal, including this one (at most the deck's size).
+     * @return - the card to deal.
+     */
+    int next(Deck deck, TableSets table, int left);
+
+    /**
+     * @return - the number of deals in which the strategy chose a card to make a set, where the top card of the deck
+     *           would have left no set on the table.
+     */
+    default long rescues() {
+        return 0;
+    }
+
+    /**
+     * @param name - the strategy's configuration name (Random or SetGuaranteeing).
+     * @return - the strategy.
+     * @throws IllegalArgumentException - if there is no such strategy.
+     */
+    static DealingStrategy of(String name) {
+        switch (name.replaceAll("[^A-Za-z]", "").toLowerCase(Locale.ROOT)) {
+            case "random":
+                return new RandomDealing();
+            case "setguaranteeing":
+                return new SetGuaranteeingDealing();
+            default:
+                throw new IllegalArgumentException("unknown dealing strategy: " + name);
+        }
+    }
+}
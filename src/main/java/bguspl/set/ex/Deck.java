@@ -0,0 +1,213 @@
+package bguspl.set.ex;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class holds the cards that are left in the dealer's deck.
+ * The cards are kept in a primitive array, cards[0..size) being in the deck and cards[size - 1] being the top card,
+ * so drawing and returning a card are O(1) and shuffling is done in place.
+ *
+ * @inv 0 <= size <= cards.length
+ * @inv positions[cards[i]] == i for every 0 <= i < size
+ * @inv members.get(card) iff card is in the deck
+ */
+public class Deck {
+
+    /**
+     * The cards in the deck (only the first size entries are valid).
+     */
+    private final int[] cards;
+
+    /**
+     * Mapping between a card and its index in the cards array (notInDeck if none).
+     */
+    private final int[] positions;
+
+    /**
+     * The cards in the deck, as a bitset indexed by the card id.
+     */
+    private final BitSet members;
+
+    /**
+     * The number of cards in the deck.
+     */
+    private int size;
+
+    /**
+     * Signifies a card that is not in the deck.
+     */
+    private static final int notInDeck = -1;
+
+    /**
+     * Creates a full deck holding the cards 0 to deckSize - 1 (in order).
+     *
+     * @param deckSize - the number of cards in the game.
+     */
+    public Deck(int deckSize) {
+        cards = new int[deckSize];
+        positions = new int[deckSize];
+        members = new BitSet(deckSize);
+        for (int card = 0; card < deckSize; card++) {
+            cards[card] = card;
+            positions[card] = card;
+        }
+        members.set(0, deckSize);
+        size = deckSize;
+    }
+
+    /**
+     * @return - the number of cards in the deck.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return - true iff there are no cards in the deck.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param card - the card id.
+     * @return - true iff the card is in the deck.
+     */
+    public boolean contains(int card) {
+        return members.get(card);
+    }
+
+    /**
+     * Removes the top card of the deck.
+     *
+     * @return - the card drawn.
+     * @pre - the deck is not empty.
+     */
+    public int draw() {
+        int card = cards[--size];
+        positions[card] = notInDeck;
+        members.clear(card);
+        return card;
+    }
+
+    /**
+     * @return - the top card of the deck (the next card drawn).
+     * @pre - the deck is not empty.
+     */
+    public int peek() {
+        return cards[size - 1];
+    }
+
+    /**
+     * Removes a specific card from the deck (the top card takes its place).
+     *
+     * @param card - the card id.
+     * @return - true iff the card was in the deck.
+     */
+    public boolean remove(int card) {
+        int position = positions[card];
+        if (position == notInDeck)
+            return false;
+        int top = cards[--size];
+        cards[position] = top;
+        positions[top] = position;
+        positions[card] = notInDeck;
+        members.clear(card);
+        return true;
+    }
+
+    /**
+     * Returns a card to the top of the deck.
+     *
+     * @param card - the card id.
+     * @pre - the card is not in the deck.
+     */
+    public void add(int card) {
+        cards[size] = card;
+        positions[card] = size;
+        members.set(card);
+        size++;
+    }
+
+    /**
+     * Shuffles the cards in the deck in place (Fisher-Yates).
+     */
+    public void shuffle() {
+        shuffle(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Shuffles the cards in the deck in place (Fisher-Yates) using the given source of randomness.
+     *
+     * @param random - the source of randomness.
+     */
+    public void shuffle(Random random) {
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+            positions[cards[i]] = i;
+            positions[cards[j]] = j;
+        }
+    }
+
+    /**
+     * @return - a copy of the cards in the deck (in draw order, the top card last).
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(cards, size);
+    }
+
+    /**
+     * Replaces the cards in the deck.
+     *
+     * @param cards - the cards to hold (in draw order, the top card last).
+     * @pre - the cards are distinct cards of the game.
+     */
+    public void reset(int[] cards) {
+        Arrays.fill(positions, notInDeck);
+        members.clear();
+        for (int i = 0; i < cards.length; i++) {
+            this.cards[i] = cards[i];
+            positions[cards[i]] = i;
+            members.set(cards[i]);
+        }
+        size = cards.length;
+    }
+
+    /**
+     * Returns the membership bitset of the deck (indexed by card id). This is a live view that must not be modified.
+     *
+     * @return - the cards in the deck as a bitset.
+     */
+    public BitSet members() {
+        return members;
+    }
+
+    /**
+     * Returns a read only list view of the cards in the deck (in draw order, the top card last).
+     *
+     * @return - the cards in the deck as a list.
+     */
+    public List<Integer> asList() {
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                if (index < 0 || index >= size)
+                    throw new IndexOutOfBoundsException("index: " + index + " size: " + size);
+                return cards[index];
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
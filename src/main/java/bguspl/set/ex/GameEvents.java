@@ -0,0 +1,149 @@
+package bguspl.set.ex;
+
+/**
+ * Java Flight Recorder events of the game: claims and verdicts, tokens, cards, reshuffles, freezes and the dealer's
+ * wake-ups, in the "Set Game" category. Record them along with the JVM's own events, e.g.
+ * java -XX:StartFlightRecording=filename=game.jfr,settings=profile -jar ...
+ * and a stall shows up next to the GC pauses and the monitor waits of the same threads.
+ *
+ * The events themselves are defined in JfrGameEvents, loaded by name only if the JVM has the jdk.jfr module: on a JVM
+ * without it (Java 8 before update 272), or in a Java 8 build (the release8 profile, which leaves JfrGameEvents out),
+ * every method here is a no-op. An event that is not being recorded costs a flag check (the JIT removes the unused event
+ * object). The events with a duration (the cards, reshuffles, freezes and the dealer's sleeps) are begun by one method,
+ * which returns a handle (null if the event is not recorded), and committed by another.
+ */
+public final class GameEvents {
+
+    /**
+     * Records the events (see JfrGameEvents).
+     */
+    interface Recorder {
+
+        void claimSubmitted(Claim claim, int pending);
+
+        void claimVerdict(Claim claim, Verdict verdict);
+
+        void tokenPlaced(int player, int slot, int card);
+
+        void tokenRemoved(int player, int slot, int card);
+
+        Object cardDealing();
+
+        void cardDealt(Object handle, int slot, int card);
+
+        Object cardRemoving();
+
+        void cardRemoved(Object handle, int slot, int card);
+
+        Object reshuffling();
+
+        void reshuffled(Object handle, int cards);
+
+        Object frozen(int player, boolean penalty);
+
+        void unfrozen(Object handle);
+
+        Object dealerSleeping(long timeoutMillis);
+
+        void dealerWokeUp(Object handle, String reason);
+    }
+
+    /**
+     * The Flight Recorder events, or null if the JVM has none (or the build left them out).
+     */
+    private static final Recorder recorder = load();
+
+    private GameEvents() {
+    }
+
+    private static Recorder load() {
+        ClassLoader loader = GameEvents.class.getClassLoader();
+        try {
+            Class.forName("jdk.jfr.Event", false, loader);
+            return (Recorder) Class.forName("bguspl.set.ex.JfrGameEvents", true, loader).getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    public static void claimSubmitted(Claim claim, int pending) {
+        if (recorder != null)
+            recorder.claimSubmitted(claim, pending);
+    }
+
+    public static void claimVerdict(Claim claim, Verdict verdict) {
+        if (recorder != null)
+            recorder.claimVerdict(claim, verdict);
+    }
+
+    public static void tokenPlaced(int player, int slot, int card) {
+        if (recorder != null)
+            recorder.tokenPlaced(player, slot, card);
+    }
+
+    public static void tokenRemoved(int player, int slot, int card) {
+        if (recorder != null)
+            recorder.tokenRemoved(player, slot, card);
+    }
+
+    /**
+     * @return - the handle of a card dealt event (null if not recorded), for cardDealt.
+     */
+    public static Object cardDealing() {
+        return recorder == null ? null : recorder.cardDealing();
+    }
+
+    public static void cardDealt(Object handle, int slot, int card) {
+        if (handle != null)
+            recorder.cardDealt(handle, slot, card);
+    }
+
+    /**
+     * @return - the handle of a card removed event (null if not recorded), for cardRemoved.
+     */
+    public static Object cardRemoving() {
+        return recorder == null ? null : recorder.cardRemoving();
+    }
+
+    public static void cardRemoved(Object handle, int slot, int card) {
+        if (handle != null)
+            recorder.cardRemoved(handle, slot, card);
+    }
+
+    /**
+     * @return - the handle of a reshuffle event (null if not recorded), for reshuffled.
+     */
+    public static Object reshuffling() {
+        return recorder == null ? null : recorder.reshuffling();
+    }
+
+    public static void reshuffled(Object handle, int cards) {
+        if (handle != null)
+            recorder.reshuffled(handle, cards);
+    }
+
+    /**
+     * @return - the handle of a player frozen event (null if not recorded), for unfrozen.
+     */
+    public static Object frozen(int player, boolean penalty) {
+        return recorder == null ? null : recorder.frozen(player, penalty);
+    }
+
+    public static void unfrozen(Object handle) {
+        if (handle != null)
+            recorder.unfrozen(handle);
+    }
+
+    /**
+     * @return - the handle of a dealer wake-up event (null if not recorded), for dealerWokeUp.
+     */
+    public static Object dealerSleeping(long timeoutMillis) {
+        return recorder == null ? null : recorder.dealerSleeping(timeoutMillis);
+    }
+
+    public static void dealerWokeUp(Object handle, String reason) {
+        if (handle != null)
+            recorder.dealerWokeUp(handle, reason);
+    }
+}
@@ -0,0 +1,158 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Finds the legal sets on the table on its own thread, and caches them until the cards on the table change (the
+ * table's epoch moves). The sets are found lazily: for a consumer asking for them, or for the subscribers once the
+ * dealer reports that the cards changed (without subscribers, a change of the cards costs nothing). The game threads
+ * never search for sets nor wait for the search.
+ */
+public class HintService {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * Game entities.
+     */
+    private final Table table;
+
+    /**
+     * The thread finding the sets.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The latest sets found (possibly of an older epoch than the table's).
+     */
+    private volatile Hints hints = new Hints(-1, new int[0][], new int[0][]);
+
+    /**
+     * True iff a refresh for the subscribers is waiting to run.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Receive the sets whenever they are found for a new epoch (on the hint thread).
+     */
+    private final List<Consumer<Hints>> subscribers = new CopyOnWriteArrayList<Consumer<Hints>>();
+
+    public HintService(Env env, Table table) {
+        this.env = env;
+        this.table = table;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hint-service");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Returns the sets on the table if they are cached; otherwise starts finding them and returns null
+    public Hints current() {
+        Hints hints = this.hints;
+        if (hints.epoch == table.epoch())
+            return hints;
+        schedule();
+        return null;
+    }
+
+    // Returns the sets on the table (completed on the hint thread if they are not cached)
+    public CompletableFuture<Hints> request() {
+        Hints hints = this.hints;
+        if (hints.epoch == table.epoch())
+            return CompletableFuture.completedFuture(hints);
+        return CompletableFuture.supplyAsync(this::refresh, executor);
+    }
+
+    // Subscribes a consumer to the sets found for every new epoch (called on the hint thread, so it may block)
+    public void subscribe(Consumer<Hints> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    // Called when the cards on the table changed: finds the new sets in the background if anyone subscribed to them
+    // (otherwise they are found on demand, by current or request)
+    public void tableChanged() {
+        if (subscribers.isEmpty())
+            return;
+        schedule();
+    }
+
+    // Starts finding the sets on the hint thread, unless a refresh is already waiting to run
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true))
+            try {
+                executor.execute(() -> {
+                    scheduled.set(false);
+                    refresh();
+                });
+            }
+            // the game is over
+            catch (RejectedExecutionException error) {
+                scheduled.set(false);
+            }
+    }
+
+    // Finds the sets on the table unless they are cached, and passes new ones to the subscribers
+    private Hints refresh() {
+        Hints hints = this.hints;
+        if (hints.epoch == table.epoch())
+            return hints;
+        hints = find();
+        this.hints = hints;
+        for (Consumer<Hints> subscriber : subscribers)
+            subscriber.accept(hints);
+        return hints;
+    }
+
+    // Finds the sets on a consistent snapshot of the table (read again if the cards changed while it was read)
+    private Hints find() {
+        long epoch;
+        int[] cards;
+        do {
+            epoch = table.epoch();
+            cards = table.cards();
+        } while (epoch != table.epoch());
+
+        List<Integer> onTable = new ArrayList<Integer>();
+        for (int card : cards)
+            if (card != Table.noCard)
+                onTable.add(card);
+        int[][] sets = env.util.findSets(onTable, Integer.MAX_VALUE).toArray(new int[0][]);
+        int[][] slots = new int[sets.length][];
+        for (int i = 0; i < sets.length; i++) {
+            slots[i] = new int[sets[i].length];
+            for (int j = 0; j < sets[i].length; j++)
+                for (int slot = 0; slot < cards.length; slot++)
+                    if (cards[slot] == sets[i][j])
+                        slots[i][j] = slot;
+            Arrays.sort(slots[i]);
+        }
+        return new Hints(epoch, sets, slots);
+    }
+
+    // Prints the sets to the console (the subscriber used when config.hints is on)
+    public void print(Hints hints) {
+        for (int i = 0; i < hints.sets.length; i++)
+            System.out.println("Hint: Set found: slots: " + Arrays.toString(hints.slots[i]) + " features: "
+                    + Arrays.deepToString(env.util.cardsToFeatures(hints.sets[i])));
+    }
+
+    // Stops the hint thread
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,33 @@
+package bguspl.set.ex;
+
+/**
+ * The legal sets on the table at a given table epoch (immutable).
+ */
+public class Hints {
+
+    /**
+     * The table epoch the sets were found at.
+     */
+    public final long epoch;
+
+    /**
+     * The cards of each set.
+     */
+    public final int[][] sets;
+
+    /**
+     * The slots of each set's cards (sorted).
+     */
+    public final int[][] slots;
+
+    Hints(long epoch, int[][] sets, int[][] slots) {
+        this.epoch = epoch;
+        this.sets = sets;
+        this.slots = slots;
+    }
+
+    // Returns true iff there is no set on the table
+    public boolean isEmpty() {
+        return sets.length == 0;
+    }
+}
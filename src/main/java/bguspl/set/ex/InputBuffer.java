@@ -0,0 +1,169 @@
+package bguspl.set.ex;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free buffer of a player's key presses. Any thread (the EDT, the network server, the AI) stamps and
+ * offers a key press without ever blocking, and the player thread consumes them; when the buffer is full the
+ * overflow policy decides which key press is lost.
+ * The consumer thread sleeps by parking, so offering a key press only unparks it rather than taking a monitor.
+ *
+ * @inv 0 <= size <= capacity
+ */
+public class InputBuffer {
+
+    /**
+     * What to do with a key press that does not fit in the buffer.
+     */
+    public enum Overflow {
+        /** The oldest key press in the buffer is dropped to make room. */
+        DROP_OLDEST,
+        /** The new key press is dropped. */
+        DROP_NEWEST,
+        /**
+         * The new key press cancels out a pending press of the same slot (a token placed and removed); otherwise it is
+         * dropped.
+         */
+        COALESCE;
+
+        // Parses a configuration value such as "DropOldest" or "drop-oldest"
+        public static Overflow of(String name) {
+            String normalized = name.replaceAll("[^A-Za-z]", "").toUpperCase(Locale.ROOT);
+            for (Overflow overflow : values())
+                if (overflow.name().replace("_", "").equals(normalized))
+                    return overflow;
+            throw new IllegalArgumentException("unknown input overflow policy: " + name);
+        }
+    }
+
+    /**
+     * A key press and the time (as System.nanoTime) it was made.
+     */
+    public static final class KeyPress {
+        public final int slot;
+        public final long time;
+
+        KeyPress(int slot, long time) {
+            this.slot = slot;
+            this.time = time;
+        }
+    }
+
+    /**
+     * The key presses (oldest first).
+     */
+    private final ConcurrentLinkedQueue<KeyPress> presses = new ConcurrentLinkedQueue<KeyPress>();
+
+    /**
+     * The number of key presses in the buffer (reserved before a press is added, released after it is removed).
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The maximal number of key presses in the buffer.
+     */
+    private final int capacity;
+
+    /**
+     * The overflow policy.
+     */
+    private final Overflow overflow;
+
+    /**
+     * The thread consuming the key presses (null until it is bound).
+     */
+    private volatile Thread consumer;
+
+    /**
+     * The number of key presses lost to overflow, and cancelled out by coalescing.
+     */
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public InputBuffer(int capacity, Overflow overflow) {
+        this.capacity = capacity;
+        this.overflow = overflow;
+    }
+
+    // Sets the thread that consumes the key presses (woken up when they arrive)
+    public void bind(Thread consumer) {
+        this.consumer = consumer;
+    }
+
+    // Stamps a key press and adds it to the buffer without blocking; returns false iff the press was dropped
+    public boolean offer(int slot) {
+        KeyPress press = new KeyPress(slot, System.nanoTime());
+        for (int n = size.get(); ; n = size.get()) {
+            if (n < capacity) {
+                if (size.compareAndSet(n, n + 1))
+                    break;
+            }
+            // a full buffer only: with room, a token placed and removed at once is played as both presses
+            else if (overflow == Overflow.COALESCE && cancel(slot)) {
+                coalesced.add(2);
+                wake();
+                return true;
+            }
+            else if (overflow != Overflow.DROP_OLDEST) {
+                dropped.increment();
+                return false;
+            }
+            else if (poll() != null)
+                dropped.increment();
+        }
+        presses.add(press);
+        wake();
+        return true;
+    }
+
+    // Removes a pending press of the given slot; returns true iff there was one
+    private boolean cancel(int slot) {
+        for (KeyPress pending : presses)
+            if (pending.slot == slot && presses.remove(pending)) {
+                size.decrementAndGet();
+                return true;
+            }
+        return false;
+    }
+
+    // Removes and returns the oldest key press (null if the buffer is empty)
+    public KeyPress poll() {
+        KeyPress press = presses.poll();
+        if (press != null)
+            size.decrementAndGet();
+        return press;
+    }
+
+    // Drops all the key presses in the buffer
+    public void clear() {
+        while (poll() != null) {
+        }
+    }
+
+    public boolean isEmpty() {
+        return presses.isEmpty();
+    }
+
+    // Parks the calling consumer thread until a key press arrives or wake is called (may return spuriously, so the
+    // caller checks its conditions again)
+    public void await() {
+        LockSupport.park(this);
+    }
+
+    // Wakes the consumer thread up (if it is parked, or else its next await returns at once)
+    public void wake() {
+        Thread consumer = this.consumer;
+        if (consumer != null)
+            LockSupport.unpark(consumer);
+    }
+
+    @Override
+    public String toString() {
+        return "input buffer: capacity: " + capacity + ", overflow: " + overflow + ", dropped: " + dropped.sum()
+                + ", coalesced: " + coalesced.sum();
+    }
+}
@@ -0,0 +1,264 @@
+package bguspl.set.ex;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.Arrays;
+
+/**
+ * The Java Flight Recorder events of the game (see GameEvents). The only class of the game using the jdk.jfr module:
+ * GameEvents loads it by name if the JVM has the module, and it is left out of the Java 8 build (the release8 profile).
+ * The handles passed to the ending methods are never null (GameEvents checks them).
+ */
+final class JfrGameEvents implements GameEvents.Recorder {
+
+    @Name("bguspl.set.ClaimSubmitted")
+    @Label("Claim Submitted")
+    @Category({"Set Game", "Claims"})
+    @StackTrace(false)
+    static class ClaimSubmitted extends Event {
+        @Label("Player")
+        int player;
+        @Label("Cards")
+        String cards;
+        @Label("Pending Claims")
+        @Description("The claims waiting for the dealer, this one included")
+        int pending;
+    }
+
+    @Name("bguspl.set.ClaimVerdict")
+    @Label("Claim Verdict")
+    @Category({"Set Game", "Claims"})
+    @StackTrace(false)
+    static class ClaimVerdict extends Event {
+        @Label("Player")
+        int player;
+        @Label("Cards")
+        String cards;
+        @Label("Verdict")
+        String verdict;
+        @Label("Latency")
+        @Description("From the key press placing the last token to the verdict")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+    }
+
+    @Name("bguspl.set.TokenPlaced")
+    @Label("Token Placed")
+    @Category({"Set Game", "Tokens"})
+    @StackTrace(false)
+    static class TokenPlaced extends Event {
+        @Label("Player")
+        int player;
+        @Label("Slot")
+        int slot;
+        @Label("Card")
+        int card;
+    }
+
+    @Name("bguspl.set.TokenRemoved")
+    @Label("Token Removed")
+    @Category({"Set Game", "Tokens"})
+    @StackTrace(false)
+    static class TokenRemoved extends Event {
+        @Label("Player")
+        int player;
+        @Label("Slot")
+        int slot;
+        @Label("Card")
+        int card;
+    }
+
+    @Name("bguspl.set.CardDealt")
+    @Label("Card Dealt")
+    @Description("Placing a card on the table, the table delay and the wait for the slot's lock included")
+    @Category({"Set Game", "Table"})
+    @StackTrace(false)
+    static class CardDealt extends Event {
+        @Label("Slot")
+        int slot;
+        @Label("Card")
+        int card;
+    }
+
+    @Name("bguspl.set.CardRemoved")
+    @Label("Card Removed")
+    @Description("Removing a card (and its tokens) from the table, the table delay and the wait for the slot's lock included")
+    @Category({"Set Game", "Table"})
+    @StackTrace(false)
+    static class CardRemoved extends Event {
+        @Label("Slot")
+        int slot;
+        @Label("Card")
+        int card;
+    }
+
+    @Name("bguspl.set.Reshuffle")
+    @Label("Reshuffle")
+    @Description("Returning all the cards to the deck and dealing a new table")
+    @Category({"Set Game", "Table"})
+    static class Reshuffle extends Event {
+        @Label("Cards Dealt")
+        int cards;
+    }
+
+    @Name("bguspl.set.PlayerFrozen")
+    @Label("Player Frozen")
+    @Description("From the freeze to its expiry (not committed if a newer freeze replaced it)")
+    @Category({"Set Game", "Players"})
+    @StackTrace(false)
+    static class PlayerFrozen extends Event {
+        @Label("Player")
+        int player;
+        @Label("Penalty")
+        @Description("True for a penalty, false for a point")
+        boolean penalty;
+    }
+
+    @Name("bguspl.set.DealerWakeUp")
+    @Label("Dealer Wake-Up")
+    @Description("The dealer's sleep between two ticks of its loop, and what ended it")
+    @Category({"Set Game", "Dealer"})
+    @StackTrace(false)
+    static class DealerWakeUp extends Event {
+        @Label("Reason")
+        @Description("claim, timeout or notified (a wake-up by a notify that brought no claim)")
+        String reason;
+        @Label("Timeout")
+        @Timespan(Timespan.MILLISECONDS)
+        long timeout;
+    }
+
+    @Override
+    public void claimSubmitted(Claim claim, int pending) {
+        ClaimSubmitted event = new ClaimSubmitted();
+        if (!event.isEnabled())
+            return;
+        event.player = claim.player;
+        event.cards = Arrays.toString(claim.cards);
+        event.pending = pending;
+        event.commit();
+    }
+
+    @Override
+    public void claimVerdict(Claim claim, Verdict verdict) {
+        ClaimVerdict event = new ClaimVerdict();
+        if (!event.isEnabled())
+            return;
+        event.player = claim.player;
+        event.cards = Arrays.toString(claim.cards);
+        event.verdict = verdict.name();
+        event.latency = System.nanoTime() - claim.timestamp;
+        event.commit();
+    }
+
+    @Override
+    public void tokenPlaced(int player, int slot, int card) {
+        TokenPlaced event = new TokenPlaced();
+        if (!event.isEnabled())
+            return;
+        event.player = player;
+        event.slot = slot;
+        event.card = card;
+        event.commit();
+    }
+
+    @Override
+    public void tokenRemoved(int player, int slot, int card) {
+        TokenRemoved event = new TokenRemoved();
+        if (!event.isEnabled())
+            return;
+        event.player = player;
+        event.slot = slot;
+        event.card = card;
+        event.commit();
+    }
+
+    @Override
+    public Object cardDealing() {
+        CardDealt event = new CardDealt();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void cardDealt(Object handle, int slot, int card) {
+        CardDealt event = (CardDealt) handle;
+        event.slot = slot;
+        event.card = card;
+        event.commit();
+    }
+
+    @Override
+    public Object cardRemoving() {
+        CardRemoved event = new CardRemoved();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void cardRemoved(Object handle, int slot, int card) {
+        CardRemoved event = (CardRemoved) handle;
+        event.slot = slot;
+        event.card = card;
+        event.commit();
+    }
+
+    @Override
+    public Object reshuffling() {
+        Reshuffle event = new Reshuffle();
+        if (!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void reshuffled(Object handle, int cards) {
+        Reshuffle event = (Reshuffle) handle;
+        event.cards = cards;
+        event.commit();
+    }
+
+    @Override
+    public Object frozen(int player, boolean penalty) {
+        PlayerFrozen event = new PlayerFrozen();
+        if (!event.isEnabled())
+            return null;
+        event.player = player;
+        event.penalty = penalty;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void unfrozen(Object handle) {
+        ((PlayerFrozen) handle).commit();
+    }
+
+    @Override
+    public Object dealerSleeping(long timeoutMillis) {
+        DealerWakeUp event = new DealerWakeUp();
+        if (!event.isEnabled())
+            return null;
+        event.timeout = timeoutMillis;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void dealerWokeUp(Object handle, String reason) {
+        DealerWakeUp event = (DealerWakeUp) handle;
+        event.reason = reason;
+        event.commit();
+    }
+}
@@ -41,7 +41,7 @@ public class Player implements Runnable {
     /**
      * The thread of the AI (computer) player (an additional thread used to generate key presses).
      */
-    private Thread aiThread;
+    private volatile Thread aiThread;
 
     /**
      * True iff the player is human (not a computer player).
@@ -54,19 +54,19 @@ public class Player implements Runnable {
     private volatile boolean terminate;
 
     /**
-     * The current score of the player.
+     * The current score of the player (volatile, as the dealer reads it).
      */
-    private int score;
+    private volatile int score;
     
     /**
-     * The players action queue.
+     * The player's key presses (offered by any thread without blocking, consumed by the player thread).
      */
-    private BlockingQueue<Integer> actions;
+    private final InputBuffer actions;
     
     /**
-     * The the player is freezed.
+     * The time (as System.nanoTime, the clock of the freeze timer) until which the player is frozen.
      */
-    private boolean freezed;
+    private volatile long freezeUntil;
     
     /**
      * The sleep time to emulate a real player.
@@ -74,14 +74,25 @@ public class Player implements Runnable {
     private int botTiming = 500;
 
     /**
-     * Signifies the first element 
+     * The claim waiting for the dealer's verdict (null if none).
      */
-    private final int unFreeze = 0;
+    private Claim pending;
     
     /**
-     * Signifies the first element 
+     * The interval between the freeze countdown updates.
      */
-    private boolean won;
+    private static final long freezeTick = 1000;
+    
+    /**
+     * Updates the freeze countdowns, expires the freezes and times the claims out for all the players, so no thread
+     * sleeps during a freeze or blocks waiting for a verdict.
+     */
+    private static final ScheduledExecutorService timer = createTimer();
+    
+    /**
+     * The player thread's state, for the watchdog.
+     */
+    private final Watchdog.Heartbeat heartbeat;
     
     /**
      * The class constructor.
@@ -100,8 +111,35 @@ public class Player implements Runnable {
         this.dealer = dealer;
         
         score = 0;
-        actions = new LinkedBlockingQueue<Integer>(Dealer.setSize);
-        freezed = false;
+        actions = new InputBuffer(env.config.setSize, overflow(env));
+        freezeUntil = System.nanoTime();
+        heartbeat = new Watchdog.Heartbeat("player " + id, () -> {
+        	synchronized(this) {
+        		notifyAll();
+        	}
+        	actions.wake();
+        });
+    }
+    
+    private static InputBuffer.Overflow overflow(Env env) {
+    	try {
+    		return InputBuffer.Overflow.of(env.config.inputOverflow);
+    	}
+    	catch (IllegalArgumentException error) {
+    		env.logger.severe(error.getMessage() + ", dropping the newest key press instead");
+    		return InputBuffer.Overflow.DROP_NEWEST;
+    	}
+    }
+    
+    private static ScheduledExecutorService createTimer() {
+    	ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+    		Thread thread = new Thread(runnable, "player-timer");
+    		thread.setDaemon(true);
+    		return thread;
+    	});
+    	// claims answered in time cancel their timeouts
+    	timer.setRemoveOnCancelPolicy(true);
+    	return timer;
     }
 
     /**
@@ -110,13 +148,16 @@ public class Player implements Runnable {
     @Override
     public void run() {
         playerThread = Thread.currentThread();
+        actions.bind(playerThread);
+        heartbeat.bind();
         env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
         if (!human) createArtificialIntelligence();
 
         while (!terminate) {
             // TODO implement main player loop
+        	heartbeat.enter(Watchdog.State.WAITING_FOR_DEAL);
         	synchronized(this) {
-	        	while (dealer.shuffleStatus()) {
+	        	while (dealer.shuffleStatus() && !terminate) { // the game may end while dealing
 	        		try {
 	        			this.wait();
 	        		}
@@ -126,14 +167,16 @@ public class Player implements Runnable {
 	        	}  			
         	}
         	
-            synchronized (actions) {
-                if (actions.isEmpty()) { // there is nothing for the player to do
-                    try {
-                        actions.wait(); //if !human - aiThread keeps running and will wake the player
-                    } catch (InterruptedException ignored) {}
-                }
+            if (actions.isEmpty() && !verdictArrived() && !terminate) { // there is nothing for the player to do
+            	if (pending != null)
+            		heartbeat.awaitVerdict(pending);
+            	else
+            		heartbeat.enter(Watchdog.State.IDLE);
+                actions.await(); //if !human - aiThread keeps running and will wake the player
             }
+            heartbeat.enter(Watchdog.State.RUNNING);
         	
+            checkVerdict();
             if (!terminate)
             	keyAction();
         }
@@ -146,12 +189,13 @@ public class Player implements Runnable {
         		aiThread.join(); } 
             catch (InterruptedException error) {}
         }
+        heartbeat.enter(Watchdog.State.TERMINATED);
         env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
     }
 
     /**
      * Creates an additional thread for an AI (computer) player. The main loop of this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it is not full.
+     * key presses. If the queue of key presses is full, the key press is dropped.
      */
     private void createArtificialIntelligence() {
         // note: this is a very, very smart AI (!)
@@ -168,7 +212,7 @@ public class Player implements Runnable {
 	            	}
             	}
             	try {
-            		aiThread.sleep(botTiming);
+            		Thread.sleep(botTiming);
                 } catch (InterruptedException error) {}
             	keyPressed(rand.nextInt(env.config.tableSize));
             	
@@ -184,32 +228,22 @@ public class Player implements Runnable {
     public void terminate() {
         // TODO implement
     	terminate = true;
-    	synchronized(actions) {
-    		actions.notify();
-    	}
+    	actions.wake();
     }
 
     /**
-     * This method is called when a key is pressed.
+     * This method is called when a key is pressed. It never blocks: the key press is stamped and buffered for the
+     * player thread, which checks it against the table.
      *
      * @param slot - the slot corresponding to the key pressed.
+     * @return     - true iff the key press was buffered (it is dropped if the player is frozen, the dealer is
+     *               reshuffling or the buffer overflows).
      */
-    public void keyPressed(int slot) {
+    public boolean keyPressed(int slot) {
         // TODO implement
-    	synchronized(actions) {
-    		if (!this.dealer.shuffleStatus() && table.slotToCard[slot] != null && !freezed && !terminate) {
-	    		while(true && !terminate) {
-			    		try {
-			    			actions.add(slot);
-			    			break;
-			    		}
-			    		catch(IllegalStateException  error) {
-			    			
-			    		}
-	    		}
-		    	actions.notify();
-    		}
-    	}
+    	if (frozen() || this.dealer.shuffleStatus() || terminate)
+    		return false;
+    	return actions.offer(slot);
     }
 
     /**
@@ -223,16 +257,7 @@ public class Player implements Runnable {
 
     	score++;
     	env.ui.setScore(id, score);
-    	freezed = true;
-    	try {
-    		env.ui.setFreeze(id, env.config.pointFreezeMillis);
-    		if (!human)
-    			aiThread.sleep(env.config.pointFreezeMillis);
-    		playerThread.sleep(env.config.pointFreezeMillis);
-    	}
-    	catch(InterruptedException error) {}
-    	env.ui.setFreeze(id, unFreeze);
-    	freezed = false;
+    	freeze(env.config.pointFreezeMillis, false);
     }
 
     /**
@@ -240,66 +265,130 @@ public class Player implements Runnable {
      */
     public void penalty() {
         // TODO implement
-    	try {
-    		env.ui.setFreeze(id, env.config.penaltyFreezeMillis);
-    		freezed = true;
-    		if (!human)
-    			aiThread.sleep(env.config.penaltyFreezeMillis);
-    		playerThread.sleep(env.config.penaltyFreezeMillis);
+    	freeze(env.config.penaltyFreezeMillis, true);
+    }
+    
+    // Freezes the player for the given time: input is dropped until the deadline, and the freeze timer counts the
+    // freeze down in the ui every second and expires it (the player thread is free meanwhile)
+    private void freeze(long millis, boolean penalty) {
+    	long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    	freezeUntil = deadline;
+    	actions.clear();
+    	env.ui.setFreeze(id, millis);
+    	if (millis <= 0)
+    		return;
+    	Object event = GameEvents.frozen(id, penalty);
+    	for (long left = (millis - 1) / freezeTick * freezeTick; left >= 0; left -= freezeTick) {
+    		long display = left;
+    		timer.schedule(() -> {
+    			// skip the updates of a freeze that a newer one replaced
+    			if (freezeUntil != deadline)
+    				return;
+    			env.ui.setFreeze(id, display);
+    			if (display == 0)
+    				GameEvents.unfrozen(event);
+    		}, millis - left, TimeUnit.MILLISECONDS);
     	}
-    	catch(InterruptedException error) {}
-    	freezed = false;
-    	env.ui.setFreeze(id, unFreeze);
+    }
+    
+    // Returns true iff the player is frozen (its input is ignored)
+    public boolean frozen() {
+    	return System.nanoTime() - freezeUntil < 0;
     }
 
     public int score() {
         return score;
     }
+
+    // Returns the thread of the AI (null for a human player, or before the player thread created it)
+    Thread aiThread() {
+    	return aiThread;
+    }
+    
+    // Returns the player thread's state, for the watchdog
+    Watchdog.Heartbeat heartbeat() {
+    	return heartbeat;
+    }
+    
+    // Sets the score of a player restored from a checkpoint (before the game starts)
+    void restore(int score) {
+    	this.score = score;
+    	env.ui.setScore(id, score);
+    }
+    
+    // Returns true iff the player is human (not a computer player)
+    public boolean isHuman() {
+    	return human;
+    }
     
-    public void setWon(boolean result) {
-        won = result;
+    // Submits a claim on the cards the player has tokens on, without waiting for the verdict: the player keeps
+    // consuming its actions (e.g. removing a token withdraws the claim) and handles the verdict when it arrives
+    private void claim(long pressed) {
+    	Claim claim = new Claim(id, table.getPlayersCards(id), pressed);
+    	pending = claim;
+    	ScheduledFuture<?> timeout = timer.schedule(claim::cancel, env.config.claimTimeoutMillis, TimeUnit.MILLISECONDS);
+    	claim.verdict.whenComplete((verdict, error) -> {
+    		timeout.cancel(false);
+    		actions.wake();
+    	});
+    	synchronized(dealer) {
+    		dealer.submitClaim(claim);
+    		dealer.notify();
+    	}
+    }
+    
+    // Returns true iff the verdict of the pending claim arrived (or the claim was withdrawn)
+    private boolean verdictArrived() {
+    	return pending != null && pending.verdict.isDone();
+    }
+    
+    // Rewards or penalizes the player if the verdict of its pending claim arrived
+    public void checkVerdict() {
+    	if (!verdictArrived())
+    		return;
+    	Claim claim = pending;
+    	pending = null;
+    	if (claim.verdict.isCancelled())
+    		return;
+    	Verdict verdict = claim.verdict.join();
+    	if (verdict == Verdict.SET)
+    		point();
+    	else if (verdict == Verdict.NOT_A_SET)
+    		penalty();
     }
     
     
     public void keyAction() {
     	
-		Integer slot = actions.remove();
+		InputBuffer.KeyPress press = actions.poll();
+		// woken up without an action, or pressed before the freeze ended
+		if (press == null || press.time - freezeUntil < 0)
+			return;
+		int slot = press.slot;
+		// the card was taken (or is being dealt again) since the key was pressed
+		if (dealer.shuffleStatus() || table.slotToCard[slot] == null)
+			return;
 		
-		// slot already holds a token, therefore removes it
+		// slot already holds a token, therefore removes it (withdrawing the pending claim if any)
 		if (table.hasTokenOn(id, slot)) {
 			table.removeToken(id, slot);
+			if (pending != null)
+				pending.cancel();
 			return;
 		}
 		
 		int amountOfCards = table.getAmountOfPlayersCards(id);
 		// if there are all ready 3 cards belonging to the player(he has 3 tokens down) dont place another 
 		// or even check for legality as its already been checked 
-		if (amountOfCards == Dealer.setSize)
+		if (amountOfCards == env.config.setSize)
 			return;
 		
 		// else, put the token in the right slot
 		table.placeToken(id, slot);
 		amountOfCards = table.getAmountOfPlayersCards(id);
 		// 3 tokens are placed, need to check for set
-		if (amountOfCards == Dealer.setSize) {
-			synchronized(this) {
-				synchronized(dealer) {
-					dealer.addPlayerToCheck(id);
-					dealer.notify();
-				}
-				try {
-					wait();
-				}
-				catch(InterruptedException error) {}
-			}
-			
-			if (terminate)
-				return;
-			if (won)
-				point();
-			else
-				penalty();
-		}
+		if (amountOfCards == env.config.setSize)
+			claim(press.time);
 		
 	}
     
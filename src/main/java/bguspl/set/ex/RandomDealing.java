@@ -0,0 +1,17 @@
+package bguspl.set.ex;
+
+/**
+ * Deals the top cards of the (shuffled) deck, whether or not they leave a set on the table.
+ */
+public class RandomDealing implements DealingStrategy {
+
+    @Override
+    public int next(Deck deck, TableSets table, int left) {
+        return deck.draw();
+    }
+
+    @Override
+    public String toString() {
+        return "random";
+    }
+}
@@ -0,0 +1,42 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deals the top cards of the (shuffled) deck, except that the last card of a deal that would leave no set on the
+ * table is replaced by a card from the deck completing a pair on the table to a set (whenever the deck holds one).
+ * The check is incremental (see TableSets): O(n) for the top card, and O(n^2) pair completions looked up in the
+ * deck's bitset to find a replacement.
+ */
+public class SetGuaranteeingDealing implements DealingStrategy {
+
+    /**
+     * The number of deals that would have left no set on the table.
+     */
+    private final LongAdder rescues = new LongAdder();
+
+    @Override
+    public int next(Deck deck, TableSets table, int left) {
+        // only the last card is chosen, and only if the top card would not make a set anyway
+        if (left > 1 || !table.incremental() || table.count() > 0 || table.setsWith(deck.peek()) > 0)
+            return deck.draw();
+
+        int completion = table.completion(deck.members(), ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+        if (completion < 0)
+            return deck.draw();
+        deck.remove(completion);
+        rescues.increment();
+        return completion;
+    }
+
+    @Override
+    public long rescues() {
+        return rescues.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "set guaranteeing";
+    }
+}
@@ -0,0 +1,101 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shuts the players down in a bounded time: all the players are signalled at once (their terminate flags are set and
+ * their player and computer threads are woken up and interrupted, so no thread waits for its turn to be told), and
+ * their threads are then joined against a single deadline (ShutdownSeconds from the start of the shutdown), however
+ * many players there are. The threads still alive at the deadline are stragglers: they are logged with their stacks
+ * and left behind (the caller decides whether to exit anyway).
+ * The shutdown runs once; a second caller gets the same stragglers (after waiting for the first one, up to the same
+ * deadline).
+ */
+public class ShutdownCoordinator {
+
+	/**
+	 * The game environment object.
+	 */
+	private final Env env;
+
+	/**
+	 * The threads still alive at the deadline (null until the shutdown ran).
+	 */
+	private List<Thread> stragglers;
+
+	public ShutdownCoordinator(Env env) {
+		this.env = env;
+	}
+
+	// Signals all the players, waits for their threads until the deadline and returns the threads still alive
+	synchronized List<Thread> shutdown(Player[] players, Collection<Thread> playerThreads) {
+		if (stragglers != null)
+			return stragglers;
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(Math.max(0, env.config.shutdownMillis));
+
+		// the flags first, so a thread woken up by the interrupt sees its flag set
+		List<Thread> threads = new ArrayList<Thread>(playerThreads);
+		for (Player player : players)
+			if (player != null) {
+				player.terminate();
+				Thread ai = player.aiThread();
+				if (ai != null)
+					threads.add(ai);
+			}
+		for (Thread thread : threads)
+			thread.interrupt();
+
+		boolean interrupted = false;
+		for (Thread thread : threads) {
+			long left = deadline - System.nanoTime();
+			if (left <= 0)
+				break;
+			try {
+				TimeUnit.NANOSECONDS.timedJoin(thread, left);
+			}
+			catch (InterruptedException error) {
+				// stop waiting, but let the caller see the interrupt
+				interrupted = true;
+				break;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+
+		List<Thread> alive = new ArrayList<Thread>();
+		for (Thread thread : threads)
+			if (thread.isAlive())
+				alive.add(thread);
+		stragglers = Collections.unmodifiableList(alive);
+		long millis = (System.nanoTime() - start) / 1000000;
+		if (stragglers.isEmpty())
+			env.logger.info("shutdown: " + threads.size() + " threads stopped in " + millis + " ms");
+		else
+			env.logger.severe("shutdown: " + stragglers.size() + " of " + threads.size()
+					+ " threads still running after " + millis + " ms" + System.lineSeparator() + report(stragglers));
+		return stragglers;
+	}
+
+	// Returns the threads that did not stop in time (empty if the shutdown did not run yet)
+	synchronized List<Thread> stragglers() {
+		return stragglers == null ? Collections.<Thread>emptyList() : stragglers;
+	}
+
+	private static String report(List<Thread> threads) {
+		StringBuilder sb = new StringBuilder();
+		for (Thread thread : threads) {
+			sb.append("  thread ").append(thread.getName()).append(" ").append(thread.getState())
+					.append(System.lineSeparator());
+			for (StackTraceElement frame : thread.getStackTrace())
+				sb.append("    at ").append(frame).append(System.lineSeparator());
+		}
+		return sb.toString();
+	}
+}
@@ -7,11 +7,12 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class contains the data that is visible to the player.
  *
- * @inv slotToCard[x] == y iff cardToSlot[y] == x
+ * @inv slotToCard[x] == y iff cardToSlot.get(y) == x
  */
 public class Table {
 
@@ -26,19 +27,30 @@ public class Table {
     protected final Integer[] slotToCard; // card per slot (if any)
 
     /**
-     * Mapping between a card and the slot it is in (null if none).
+     * Mapping between a card and the slot it is in (sized by the table, not by the deck).
      */
-    protected final Integer[] cardToSlot; // slot per card (if any)
+    protected final CardSlotMap cardToSlot; // slot per card (if any)
     
     /**
-     * Mapping of all the tokens on specific indexes.
+     * Mapping of all the tokens on specific indexes. Each slot's vector is also the lock guarding the slot: placing a
+     * token and removing the slot's card are atomic with respect to each other, so no token outlives its card.
      */
     protected final Vector<Vector<Integer>> table; // slot per card (if any)
     
+    /**
+     * The number of times the cards on the table changed (bumped under the slot's lock by every card placed or removed).
+     */
+    private final AtomicLong epoch = new AtomicLong();
+    
+    /**
+     * Signifies an empty slot (in cards()).
+     */
+    public static final int noCard = -1;
+    
     /**
      * Signifies the player doesn't own the card. 
      */
-    private final int cardNotFound = -1;
+    private final int cardNotFound = CardSlotMap.empty;
     
     /**
      * Signifies the player doesn't own the card. 
@@ -50,13 +62,15 @@ public class Table {
      *
      * @param env        - the game environment objects.
      * @param slotToCard - mapping between a slot and the card placed in it (null if none).
-     * @param cardToSlot - mapping between a card and the slot it is in (null if none).
      */
-    public Table(Env env, Integer[] slotToCard, Integer[] cardToSlot) {
+    public Table(Env env, Integer[] slotToCard) {
 
         this.env = env;
         this.slotToCard = slotToCard;
-        this.cardToSlot = cardToSlot;
+        this.cardToSlot = new CardSlotMap(slotToCard.length);
+        for (int slot = 0; slot < slotToCard.length; slot++)
+            if (slotToCard[slot] != null)
+                cardToSlot.put(slotToCard[slot], slot);
         table = new Vector<Vector<Integer>>();
         for (int i = 0; i < slotToCard.length; i++)
         	table.add(new Vector<Integer>());
@@ -70,20 +84,36 @@ public class Table {
      */
     public Table(Env env) {
 
-        this(env, new Integer[env.config.tableSize], new Integer[env.config.deckSize]);
+        this(env, new Integer[env.config.tableSize]);
     }
 
     /**
-     * This method prints all possible legal sets of cards that are currently on the table.
+     * @return - the cards currently on the table (in slot order).
+     */
+    public List<Integer> cardsOnTable() {
+        return Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * @return - the number of times the cards on the table changed.
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Returns the card in each slot (noCard if none), each slot read under its lock.
+     * Unlike the slots, the whole array is consistent only if the epoch did not change while it was read.
+     *
+     * @return - the cards on the table by slot.
      */
-    public void hints() {
-        List<Integer> deck = Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
-        env.util.findSets(deck, Integer.MAX_VALUE).forEach(set -> {
-            StringBuilder sb = new StringBuilder().append("Hint: Set found: ");
-            List<Integer> slots = Arrays.stream(set).mapToObj(card -> cardToSlot[card]).sorted().collect(Collectors.toList());
-            int[][] features = env.util.cardsToFeatures(set);
-            System.out.println(sb.append("slots: ").append(slots).append(" features: ").append(Arrays.deepToString(features)));
-        });
+    public int[] cards() {
+        int[] cards = new int[slotToCard.length];
+        for (int slot = 0; slot < cards.length; slot++)
+            synchronized (table.get(slot)) {
+                cards[slot] = slotToCard[slot] == null ? noCard : slotToCard[slot];
+            }
+        return cards;
     }
 
     /**
@@ -107,17 +137,23 @@ public class Table {
      * @post - the card placed is on the table, in the assigned slot.
      */
     public void placeCard(int card, int slot) {
+        Object event = GameEvents.cardDealing();
         try {
             Thread.sleep(env.config.tableDelayMillis);
         } catch (InterruptedException ignored) {}
         
         
-        cardToSlot[card] = slot;
-        slotToCard[slot] = card;
+        synchronized (table.get(slot)) {
+            if (slotToCard[slot] != null)
+                cardToSlot.remove(slotToCard[slot]);
+            cardToSlot.put(card, slot);
+            slotToCard[slot] = card;
+            epoch.incrementAndGet();
 
-        // TODO implement
-        env.ui.placeCard(card, slot);
-        
+            // TODO implement
+            env.ui.placeCard(card, slot);
+        }
+        GameEvents.cardDealt(event, slot, card);
     }
 
     /**
@@ -125,14 +161,24 @@ public class Table {
      * @param slot - the slot from which to remove the card.
      */
     public void removeCard(int slot) {
+        Object event = GameEvents.cardRemoving();
         try {
             Thread.sleep(env.config.tableDelayMillis);
         } catch (InterruptedException ignored) {}
 
         // TODO implement
-        removeAllTokens(slot);
-        slotToCard[slot] = null;
-        env.ui.removeCard(slot);
+        int card = noCard;
+        synchronized (table.get(slot)) {
+            removeAllTokens(slot);
+            if (slotToCard[slot] != null) {
+                card = slotToCard[slot];
+                cardToSlot.remove(slotToCard[slot]);
+            }
+            slotToCard[slot] = null;
+            epoch.incrementAndGet();
+            env.ui.removeCard(slot);
+        }
+        GameEvents.cardRemoved(event, slot, card);
     }
 
     /**
@@ -142,10 +188,13 @@ public class Table {
      */
     public void placeToken(int player, int slot) {
         // TODO implement
-    	if (slotToCard[slot] == null)
-    		return;
-    	env.ui.placeToken(player, slot);
-    	table.get(slot).add(player);
+    	synchronized (table.get(slot)) {
+    		if (slotToCard[slot] == null)
+    			return;
+    		env.ui.placeToken(player, slot);
+    		table.get(slot).add(player);
+    		GameEvents.tokenPlaced(player, slot, slotToCard[slot]);
+    	}
     }
 
     /**
@@ -156,36 +205,44 @@ public class Table {
      */
     public boolean removeToken(int player, int slot) {
         // TODO implement
-    	if (slotToCard[slot] == null)
-    		return false;
-        
-    	env.ui.removeToken(player, slot);
-    	table.get(slot).remove((Integer)player);
-    	return true;
+    	synchronized (table.get(slot)) {
+    		if (slotToCard[slot] == null)
+    			return false;
+    		
+    		env.ui.removeToken(player, slot);
+    		table.get(slot).remove((Integer)player);
+    		GameEvents.tokenRemoved(player, slot, slotToCard[slot]);
+    		return true;
+    	}
     }
     
     // Removes all tokens of a specified card
     public boolean removeAllTokens(int slot) {
-    	if (slotToCard[slot] == null)
-    		return false;
-    	table.get(slot).clear();
-    	env.ui.removeTokens(slot);
-    	return true;
+    	synchronized (table.get(slot)) {
+    		if (slotToCard[slot] == null)
+    			return false;
+    		table.get(slot).clear();
+    		env.ui.removeTokens(slot);
+    		return true;
+    	}
     }
     
     // Returns all the cards that a specified player has a token on
     public Integer[] getPlayersCards(int id) {
     	
-    	Integer[] slots = new Integer[Dealer.setSize];
+    	Integer[] slots = new Integer[env.config.setSize];
     	for (int i = 0; i < slots.length; i++)
     		slots[i] = null;
     	
     	int i = 0;
     	int j = 0;
     	for (Vector<Integer> slot : table) {
-    		if (slot.contains((Integer)id)){
+    		// read the card under the slot's lock, so a token is never paired with the card that replaced its own
+    		synchronized (slot) {
+    			if (slot.contains((Integer)id) && j < slots.length){
     				slots[j] = slotToCard[i];
     				j++;
+    			}
     		}
     		i++;
     	}
@@ -231,6 +288,28 @@ public class Table {
     	return size;
     }
     
+    // Returns the ids of the players with a token on each slot (each slot is copied under its lock)
+    public int[][] tokens() {
+    	int[][] tokens = new int[table.size()][];
+    	for (int slot = 0; slot < tokens.length; slot++) {
+    		Vector<Integer> players = table.get(slot);
+    		synchronized (players) {
+    			tokens[slot] = new int[players.size()];
+    			for (int i = 0; i < tokens[slot].length; i++)
+    				tokens[slot][i] = players.get(i);
+    		}
+    	}
+    	return tokens;
+    }
+    
+    /**
+     * @param card - the card id.
+     * @return - the slot the card is in (cardNotFound if the card is not on the table).
+     */
+    public int slotOf(int card) {
+        return cardToSlot.get(card);
+    }
+
     public boolean hasTokenOn(int id, int slot) {
     	if (table.get(slot).contains((Integer) id))
     			return true;	
@@ -0,0 +1,144 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.BitSet;
+
+/**
+ * The legal sets among the cards on the table, kept up to date card by card: adding or removing a card only completes
+ * its pairs with the other cards on the table (O(n)), instead of searching the whole table for sets.
+ * The sets are counted incrementally for sets of 3 cards (a pair determines the card completing it to a set); for
+ * other set sizes only hasSet is available, and it searches the table.
+ *
+ * @inv count == the number of legal sets among cards (when incremental)
+ */
+class TableSets {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * The cards on the table.
+     */
+    private final BitSet cards;
+
+    /**
+     * The number of legal sets among the cards.
+     */
+    private int count;
+
+    /**
+     * True iff the sets are counted incrementally (sets of 3 cards).
+     */
+    private final boolean incremental;
+
+    TableSets(Env env) {
+        this.env = env;
+        cards = new BitSet(env.config.deckSize);
+        incremental = env.config.featureSize == 3;
+    }
+
+    boolean incremental() {
+        return incremental;
+    }
+
+    /**
+     * @return - true iff there is a legal set on the table.
+     */
+    boolean hasSet() {
+        return incremental ? count > 0 : !env.util.findSets(cards, Dealer.findASet).isEmpty();
+    }
+
+    /**
+     * @return - the number of legal sets on the table.
+     * @pre - incremental()
+     */
+    int count() {
+        return count;
+    }
+
+    void add(int card) {
+        if (cards.get(card))
+            return;
+        if (incremental)
+            count += setsWith(card);
+        cards.set(card);
+    }
+
+    void remove(int card) {
+        if (!cards.get(card))
+            return;
+        cards.clear(card);
+        if (incremental)
+            count -= setsWith(card);
+    }
+
+    void clear() {
+        cards.clear();
+        count = 0;
+    }
+
+    /**
+     * @return - the number of legal sets the card forms with the cards on the table (the card itself excluded).
+     * @pre - incremental()
+     */
+    int setsWith(int card) {
+        int sets = 0;
+        for (int other = cards.nextSetBit(0); other >= 0; other = cards.nextSetBit(other + 1)) {
+            int third = complete(card, other);
+            // each pair is counted once, from its smaller card
+            if (third > other && third != card && cards.get(third))
+                sets++;
+        }
+        return sets;
+    }
+
+    /**
+     * @return - a card completing a pair of cards on the table to a legal set, which is also in the given collection
+     *           (-1 if none), looking at the pairs from a random one so equally good cards are chosen evenly.
+     * @pre - incremental()
+     */
+    int completion(BitSet candidates, int start) {
+        int[] onTable = cards.stream().toArray();
+        int n = onTable.length;
+        int pairs = n * (n - 1) / 2;
+        if (pairs == 0)
+            return -1;
+        // the starting pair's indices (i < j) from its index in the enumeration of the pairs, decoded once
+        int pair = start % pairs;
+        int i = 0;
+        while (pair >= n - 1 - i) {
+            pair -= n - 1 - i;
+            i++;
+        }
+        int j = i + 1 + pair;
+        // then the next pairs in the enumeration's order, wrapping around after the last one (O(1) each)
+        for (int k = 0; k < pairs; k++) {
+            int third = complete(onTable[i], onTable[j]);
+            if (candidates.get(third))
+                return third;
+            if (++j == n) {
+                if (++i == n - 1)
+                    i = 0;
+                j = i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return - the card completing two different cards to a legal set of 3 cards: in every feature the third card
+     *           has the same value if the two share it and the remaining value otherwise, i.e. -(a + b) mod 3.
+     */
+    int complete(int first, int second) {
+        int third = 0;
+        for (int weight = 1, feature = 0; feature < env.config.featureCount; feature++, weight *= 3) {
+            third += (6 - first % 3 - second % 3) % 3 * weight;
+            first /= 3;
+            second /= 3;
+        }
+        return third;
+    }
+}
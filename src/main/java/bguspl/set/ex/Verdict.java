@@ -0,0 +1,23 @@
+package bguspl.set.ex;
+
+/**
+ * The dealer's answer to a claim.
+ */
+public enum Verdict {
+
+    /**
+     * The cards form a legal set: the player gets a point.
+     */
+    SET,
+
+    /**
+     * The cards do not form a legal set: the player is penalized.
+     */
+    NOT_A_SET,
+
+    /**
+     * Some of the cards were taken by an earlier claim (or removed from the table) before the claim was adjudicated:
+     * the player is neither rewarded nor penalized.
+     */
+    STALE
+}
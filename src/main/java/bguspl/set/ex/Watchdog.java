@@ -0,0 +1,220 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects the game threads that stopped making progress: every watched thread (the dealer and the players) reports
+ * its state to its Heartbeat when the state changes (two volatile writes), and the watchdog's own thread checks the
+ * heartbeats every half threshold. A thread is stalled if it stayed past the threshold in a state that should not
+ * last that long: running (e.g. blocked on a lock), waiting for a deal the dealer is not dealing (a lost notify),
+ * or waiting for a verdict. Idle players (waiting for key presses) are never stalled.
+ * A stall is logged once, with the stacks and locks of all the watched threads and the claims pending. If recovery
+ * is on, the stalled thread is woken up and a claim it waits for is cancelled (the player neither scores nor is
+ * penalized).
+ */
+public class Watchdog {
+
+	/**
+	 * The states of the watched threads.
+	 */
+	public enum State {
+		STARTING, RUNNING, WAITING_FOR_DEAL, IDLE, WAITING_FOR_VERDICT, SLEEPING, DEALING, TERMINATED
+	}
+
+	/**
+	 * A watched thread's state and the time it entered it (its last progress). Written by the watched thread only.
+	 */
+	public static class Heartbeat {
+
+		private final String name;
+
+		/**
+		 * Wakes the watched thread up (to recover from a lost notify).
+		 */
+		private final Runnable wake;
+
+		private volatile Thread thread;
+		private volatile State state = State.STARTING;
+		private volatile long since = System.nanoTime();
+
+		/**
+		 * The claim the thread is waiting for (in WAITING_FOR_VERDICT).
+		 */
+		private volatile Claim claim;
+
+		/**
+		 * The since of the last stall reported (read and written by the watchdog thread only).
+		 */
+		private long reported = -1;
+
+		public Heartbeat(String name, Runnable wake) {
+			this.name = name;
+			this.wake = wake;
+		}
+
+		// Binds the heartbeat to the calling thread
+		void bind() {
+			thread = Thread.currentThread();
+			enter(State.RUNNING);
+		}
+
+		// Records that the thread entered a state (or made progress in it)
+		void enter(State state) {
+			since = System.nanoTime();
+			this.state = state;
+		}
+
+		// Records that the thread is waiting for the verdict of a claim
+		void awaitVerdict(Claim claim) {
+			this.claim = claim;
+			enter(State.WAITING_FOR_VERDICT);
+		}
+
+		public State state() {
+			return state;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + state + " for " + (System.nanoTime() - since) / 1000000 + " ms";
+		}
+	}
+
+	/**
+	 * The game environment object.
+	 */
+	private final Env env;
+
+	private final Dealer dealer;
+
+	/**
+	 * The time (in nanoseconds) a thread may stay in a state that should not last.
+	 */
+	private final long thresholdNanos;
+
+	private final List<Heartbeat> heartbeats = new CopyOnWriteArrayList<Heartbeat>();
+
+	/**
+	 * The thread checking the heartbeats (null if not started).
+	 */
+	private ScheduledExecutorService checker;
+
+	private final LongAdder stalls = new LongAdder();
+	private final LongAdder recoveries = new LongAdder();
+
+	public Watchdog(Env env, Dealer dealer) {
+		this.env = env;
+		this.dealer = dealer;
+		thresholdNanos = TimeUnit.MILLISECONDS.toNanos(env.config.watchdogMillis);
+	}
+
+	void watch(Heartbeat heartbeat) {
+		heartbeats.add(heartbeat);
+	}
+
+	// Starts checking the heartbeats (unless the watchdog is off)
+	void start() {
+		if (env.config.watchdogMillis <= 0)
+			return;
+		checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "watchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(100, env.config.watchdogMillis / 2);
+		checker.scheduleWithFixedDelay(this::check, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	void shutdown() {
+		if (checker != null)
+			checker.shutdownNow();
+	}
+
+	// Checks the heartbeats once, reporting (and recovering, if on) the new stalls. Returns the number of new stalls
+	int check() {
+		long now = System.nanoTime();
+		int found = 0;
+		for (Heartbeat heartbeat : heartbeats) {
+			long since = heartbeat.since;
+			if (since == heartbeat.reported || now - since < thresholdNanos || !stalled(heartbeat))
+				continue;
+			heartbeat.reported = since;
+			found++;
+			stalls.increment();
+			env.logger.severe("watchdog: " + heartbeat.name + " stalled in " + heartbeat.state + " for "
+					+ (now - since) / 1000000 + " ms" + System.lineSeparator() + dump());
+			if (env.config.watchdogRecovery)
+				recover(heartbeat);
+		}
+		return found;
+	}
+
+	private boolean stalled(Heartbeat heartbeat) {
+		switch (heartbeat.state) {
+			case STARTING:
+			case IDLE:
+			case TERMINATED:
+				return false;
+			case WAITING_FOR_DEAL:
+				return !dealer.shuffleStatus() || dealer.terminating();
+			default:
+				return true;
+		}
+	}
+
+	// Cancels the claim the thread waits for and wakes the thread up
+	private void recover(Heartbeat heartbeat) {
+		Claim claim = heartbeat.claim;
+		boolean cancelled = heartbeat.state == State.WAITING_FOR_VERDICT && claim != null && claim.cancel();
+		heartbeat.wake.run();
+		recoveries.increment();
+		env.logger.severe("watchdog: woke " + heartbeat.name + " up" + (cancelled ? ", cancelling its claim on "
+				+ Arrays.toString(claim.cards) : ""));
+	}
+
+	// Returns the states, stacks and locks of the watched threads, and the claims pending
+	private String dump() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		StringBuilder sb = new StringBuilder();
+		for (Heartbeat heartbeat : heartbeats) {
+			sb.append("  ").append(heartbeat).append(System.lineSeparator());
+			Thread thread = heartbeat.thread;
+			ThreadInfo info = thread == null ? null : threads.getThreadInfo(thread.getId(), Integer.MAX_VALUE);
+			if (info == null)
+				continue;
+			sb.append("    thread ").append(info.getThreadName()).append(" ").append(info.getThreadState());
+			LockInfo lock = info.getLockInfo();
+			if (lock != null)
+				sb.append(" on ").append(lock).append(info.getLockOwnerName() == null ? ""
+						: " owned by " + info.getLockOwnerName());
+			sb.append(System.lineSeparator());
+			for (StackTraceElement frame : info.getStackTrace())
+				sb.append("      at ").append(frame).append(System.lineSeparator());
+			Claim claim = heartbeat.claim;
+			if (heartbeat.state == State.WAITING_FOR_VERDICT && claim != null)
+				sb.append("    awaiting the verdict on ").append(Arrays.toString(claim.cards))
+						.append(System.lineSeparator());
+		}
+		sb.append("  claims pending at the dealer:");
+		for (Claim claim : dealer.pendingClaims())
+			sb.append(" player ").append(claim.player).append(" ").append(Arrays.toString(claim.cards));
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "watchdog: " + stalls.sum() + " stalls, " + recoveries.sum() + " recoveries";
+	}
+}
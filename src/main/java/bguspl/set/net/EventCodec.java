@@ -0,0 +1,177 @@
+package bguspl.set.net;
+
+import bguspl.set.UserInterface;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The binary encoding of the user interface events streamed to remote clients, and of the key presses they send back.
+ * Every event is a one byte opcode followed by a fixed payload (except for the winners announcement, which is
+ * prefixed by the number of winners). Players and slots are encoded as unsigned shorts, cards and scores as ints and
+ * times as int milliseconds.
+ */
+public final class EventCodec {
+
+    public static final byte PLACE_CARD = 1;
+    public static final byte REMOVE_CARD = 2;
+    public static final byte PLACE_TOKEN = 3;
+    public static final byte REMOVE_ALL_TOKENS = 4;
+    public static final byte REMOVE_TOKENS = 5;
+    public static final byte REMOVE_TOKEN = 6;
+    public static final byte COUNTDOWN = 7;
+    public static final byte ELAPSED = 8;
+    public static final byte FREEZE = 9;
+    public static final byte SCORE = 10;
+    public static final byte WINNERS = 11;
+
+    /**
+     * The size of the largest events with a fixed payload (placeCard, setFreeze and setScore).
+     */
+    public static final int MAX_FIXED_EVENT_SIZE = 1 + 4 + 2;
+
+    /**
+     * The size of a key press sent by a client (player, slot).
+     */
+    public static final int KEY_PRESS_SIZE = 2 + 2;
+
+    private EventCodec() {}
+
+    private static int millies(long millies) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, millies));
+    }
+
+    public static void placeCard(ByteBuffer out, int card, int slot) {
+        out.put(PLACE_CARD).putInt(card).putShort((short) slot);
+    }
+
+    public static void removeCard(ByteBuffer out, int slot) {
+        out.put(REMOVE_CARD).putShort((short) slot);
+    }
+
+    public static void placeToken(ByteBuffer out, int player, int slot) {
+        out.put(PLACE_TOKEN).putShort((short) player).putShort((short) slot);
+    }
+
+    public static void removeTokens(ByteBuffer out) {
+        out.put(REMOVE_ALL_TOKENS);
+    }
+
+    public static void removeTokens(ByteBuffer out, int slot) {
+        out.put(REMOVE_TOKENS).putShort((short) slot);
+    }
+
+    public static void removeToken(ByteBuffer out, int player, int slot) {
+        out.put(REMOVE_TOKEN).putShort((short) player).putShort((short) slot);
+    }
+
+    public static void setCountdown(ByteBuffer out, long millies, boolean warn) {
+        out.put(COUNTDOWN).putInt(millies(millies)).put((byte) (warn ? 1 : 0));
+    }
+
+    public static void setElapsed(ByteBuffer out, long millies) {
+        out.put(ELAPSED).putInt(millies(millies));
+    }
+
+    public static void setFreeze(ByteBuffer out, int player, long millies) {
+        out.put(FREEZE).putShort((short) player).putInt(millies(millies));
+    }
+
+    public static void setScore(ByteBuffer out, int player, int score) {
+        out.put(SCORE).putShort((short) player).putInt(score);
+    }
+
+    public static void announceWinner(ByteBuffer out, int[] players) {
+        out.put(WINNERS).putShort((short) players.length);
+        for (int player : players)
+            out.putShort((short) player);
+    }
+
+    /**
+     * @return - the number of bytes needed to encode the winners announcement.
+     */
+    public static int announceWinnerSize(int[] players) {
+        return 1 + 2 + 2 * players.length;
+    }
+
+    public static void keyPress(ByteBuffer out, int player, int slot) {
+        out.putShort((short) player).putShort((short) slot);
+    }
+
+    /**
+     * Decodes a single event from the buffer and replays it on the given user interface.
+     * If the buffer does not hold a whole event, nothing is consumed.
+     *
+     * @param in     - the buffer to read from (in read mode).
+     * @param target - the user interface to replay the event on.
+     * @return - true iff an event was decoded.
+     * @throws IllegalArgumentException - if the buffer holds an unknown opcode.
+     */
+    public static boolean decode(ByteBuffer in, UserInterface target) {
+        if (!in.hasRemaining())
+            return false;
+        int start = in.position();
+        try {
+            byte opcode = in.get();
+            switch (opcode) {
+                case PLACE_CARD: {
+                    int card = in.getInt();
+                    target.placeCard(card, in.getShort() & 0xFFFF);
+                    break;
+                }
+                case REMOVE_CARD:
+                    target.removeCard(in.getShort() & 0xFFFF);
+                    break;
+                case PLACE_TOKEN: {
+                    int player = in.getShort() & 0xFFFF;
+                    target.placeToken(player, in.getShort() & 0xFFFF);
+                    break;
+                }
+                case REMOVE_ALL_TOKENS:
+                    target.removeTokens();
+                    break;
+                case REMOVE_TOKENS:
+                    target.removeTokens(in.getShort() & 0xFFFF);
+                    break;
+                case REMOVE_TOKEN: {
+                    int player = in.getShort() & 0xFFFF;
+                    target.removeToken(player, in.getShort() & 0xFFFF);
+                    break;
+                }
+                case COUNTDOWN: {
+                    long millies = in.getInt();
+                    target.setCountdown(millies, in.get() != 0);
+                    break;
+                }
+                case ELAPSED:
+                    target.setElapsed(in.getInt());
+                    break;
+                case FREEZE: {
+                    int player = in.getShort() & 0xFFFF;
+                    target.setFreeze(player, in.getInt());
+                    break;
+                }
+                case SCORE: {
+                    int player = in.getShort() & 0xFFFF;
+                    target.setScore(player, in.getInt());
+                    break;
+                }
+                case WINNERS: {
+                    int[] players = new int[in.getShort() & 0xFFFF];
+                    if (in.remaining() < 2 * players.length)
+                        throw new BufferUnderflowException();
+                    for (int i = 0; i < players.length; i++)
+                        players[i] = in.getShort() & 0xFFFF;
+                    target.announceWinner(players);
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("unknown event opcode " + opcode);
+            }
+            return true;
+        } catch (BufferUnderflowException e) {
+            in.position(start);
+            return false;
+        }
+    }
+}
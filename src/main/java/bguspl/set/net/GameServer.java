@@ -0,0 +1,128 @@
+package bguspl.set.net;
+
+import bguspl.set.Config;
+import bguspl.set.ex.Player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * A non-blocking (selector based, see SelectorServer) server for remote players. Clients send key presses for their
+ * player id (see EventCodec.keyPress), which are dispatched to Player.keyPressed, and receive the stream of user
+ * interface events (see UserInterfaceNetwork). A connection plays the player of its first key press, unless another connection plays
+ * it already: its key presses for any other player are rejected.
+ * All the socket I/O is done by the server thread. Game threads only copy an encoded event to a lock-free queue and
+ * wake the selector up if needed, whatever the number of clients; the server thread copies the events into the
+ * per-connection write buffers, so every client receives them in the same order and a slow client never blocks a game
+ * thread: a client whose buffer exceeds config.serverMaxPendingBytes is disconnected. Key presses are dispatched from
+ * the server thread, as buffering them in a player's input buffer never blocks.
+ */
+public class GameServer extends SelectorServer {
+
+    private final Player[] players;
+
+    /**
+     * The connection playing each player (null if none; used by the server thread only).
+     */
+    private final Connection[] seats;
+
+    /**
+     * The encoded events broadcast by the game threads and not yet copied to the connections (in read mode).
+     */
+    private final Queue<ByteBuffer> events = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of key presses read from a client at once.
+     */
+    private static final int keyPressesPerRead = 64;
+
+    public GameServer(Logger logger, Config config, Player[] players) throws IOException {
+        super(logger, config, "game server", "client", config.serverPort);
+        this.players = players;
+        seats = new Connection[players.length];
+    }
+
+    /**
+     * Sends an encoded event to all the connected clients. The event is copied and queued for the server thread, which
+     * copies the queued events to every connection in order, so every client receives the events in the same order.
+     *
+     * @param event - the encoded event (in read mode, not modified).
+     */
+    public void broadcast(ByteBuffer event) {
+        if (connections.isEmpty())
+            return;
+        ByteBuffer copy = ByteBuffer.allocate(event.remaining());
+        copy.put(event.duplicate());
+        copy.flip();
+        events.add(copy);
+        wakeup();
+    }
+
+    @Override
+    protected SelectorServer.Connection connect(SocketChannel channel) throws IOException {
+        return new Connection(channel);
+    }
+
+    // Copies the queued events to the write buffers of the connections, disconnecting the clients too far behind
+    @Override
+    protected void woken() {
+        for (ByteBuffer event = events.poll(); event != null; event = events.poll())
+            for (SelectorServer.Connection connection : connections)
+                if (!connection.write(event.duplicate()))
+                    connection.close("client is too slow");
+    }
+
+    private void dispatch(Connection connection, int player, int slot) {
+        if (player >= players.length || slot >= config.tableSize) {
+            logger.warning("ignoring remote key press of player " + player + " on slot " + slot);
+            return;
+        }
+        // the first key press takes the player's seat, if it is free
+        if (connection.player < 0 && seats[player] == null) {
+            seats[player] = connection;
+            connection.player = player;
+            logger.info("client " + connection.address + " plays player " + player);
+        }
+        if (connection.player != player) {
+            if (!connection.rejected)
+                logger.warning("rejecting the key presses of client " + connection.address + " for player " + player
+                        + (connection.player < 0 ? " (played by another client)" : " (it plays player " + connection.player + ")"));
+            connection.rejected = true;
+            return;
+        }
+        players[player].keyPressed(slot);
+    }
+
+    private class Connection extends SelectorServer.Connection {
+
+        /**
+         * The player this client plays (-1 until its first accepted key press).
+         */
+        private int player = -1;
+
+        /**
+         * True iff a key press of the client was rejected (logged once).
+         */
+        private boolean rejected;
+
+        private Connection(SocketChannel channel) throws IOException {
+            super(channel, EventCodec.KEY_PRESS_SIZE * keyPressesPerRead);
+        }
+
+        @Override
+        protected void received(ByteBuffer in) {
+            while (in.remaining() >= EventCodec.KEY_PRESS_SIZE)
+                dispatch(this, in.getShort() & 0xFFFF, in.getShort() & 0xFFFF);
+        }
+
+        @Override
+        protected void closed() {
+            if (player >= 0 && seats[player] == this)
+                seats[player] = null;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package bguspl.set.net;
+
+import bguspl.set.UserInterface;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A loopback load test client for the game server: opens many connections from a single selector thread, each one a
+ * bot pressing random keys for a player id at a fixed rate, and counts the events streamed back. A player is played
+ * by a single connection, so the server rejects the key presses of the connections beyond the first players ones.
+ * Usage: LoadTestClient host port connections players tableSize keysPerSecond seconds
+ */
+public class LoadTestClient {
+
+    /**
+     * The selector timeout, i.e. the resolution of the key presses rate.
+     */
+    private static final long tickMillis = 10;
+
+    /**
+     * The size of the buffer the events are read into.
+     */
+    private static final int readBufferSize = 1 << 16;
+
+    private final Selector selector;
+    private final Bot[] bots;
+    private final int tableSize;
+    private final double keysPerMilli;
+    private final EventCounter counter = new EventCounter();
+
+    private long keysSent;
+    private long bytesReceived;
+    private int disconnected;
+
+    public LoadTestClient(String host, int port, int connections, int players, int tableSize, double keysPerSecond) throws IOException {
+        this.tableSize = tableSize;
+        this.keysPerMilli = keysPerSecond / 1000.0;
+        selector = Selector.open();
+        bots = new Bot[connections];
+        for (int i = 0; i < connections; i++) {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            bots[i] = new Bot(channel, i % players);
+            bots[i].key = channel.register(selector, SelectionKey.OP_READ, bots[i]);
+        }
+    }
+
+    /**
+     * Runs the bots for the given duration.
+     */
+    public void run(long millis) throws IOException {
+        long now = System.currentTimeMillis();
+        long end = now + millis;
+        long last = now;
+        while (now < end) {
+            selector.select(tickMillis);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Bot bot = (Bot) key.attachment();
+                if (key.isValid() && key.isReadable()) bot.read();
+                if (key.isValid() && key.isWritable()) bot.flush();
+            }
+
+            now = System.currentTimeMillis();
+            for (Bot bot : bots)
+                if (bot.key.isValid())
+                    bot.press((now - last) * keysPerMilli);
+            last = now;
+        }
+    }
+
+    public void close() throws IOException {
+        for (Bot bot : bots)
+            bot.channel.close();
+        selector.close();
+    }
+
+    public void report(long millis) {
+        double seconds = millis / 1000.0;
+        System.out.println("connections: " + bots.length + " (" + disconnected + " disconnected by the server)");
+        System.out.println("key presses sent: " + keysSent + " (" + Math.round(keysSent / seconds) + "/s)");
+        System.out.println("events received: " + counter.events + " (" + Math.round(counter.events / seconds) + "/s), "
+                + bytesReceived + " bytes");
+        System.out.println("cards placed: " + counter.cardsPlaced + ", tokens placed: " + counter.tokensPlaced
+                + ", points: " + counter.points);
+    }
+
+    private class Bot {
+
+        private final SocketChannel channel;
+        private final int player;
+        private SelectionKey key;
+        private final ByteBuffer in = ByteBuffer.allocate(readBufferSize);
+        private final ByteBuffer out = ByteBuffer.allocate(EventCodec.KEY_PRESS_SIZE * 1024);
+        private double credit;
+
+        private Bot(SocketChannel channel, int player) {
+            this.channel = channel;
+            this.player = player;
+        }
+
+        private void press(double keys) throws IOException {
+            credit += keys;
+            while (credit >= 1 && out.remaining() >= EventCodec.KEY_PRESS_SIZE) {
+                EventCodec.keyPress(out, player, ThreadLocalRandom.current().nextInt(tableSize));
+                keysSent++;
+                credit--;
+            }
+            flush();
+        }
+
+        private void flush() throws IOException {
+            out.flip();
+            try {
+                channel.write(out);
+            } catch (IOException e) {
+                disconnect();
+                return;
+            } finally {
+                out.compact();
+            }
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private void read() throws IOException {
+            int read;
+            try {
+                read = channel.read(in);
+            } catch (IOException e) {
+                read = -1;
+            }
+            if (read < 0) {
+                disconnect();
+                return;
+            }
+            bytesReceived += read;
+            in.flip();
+            while (EventCodec.decode(in, counter));
+            in.compact();
+        }
+
+        private void disconnect() throws IOException {
+            if (!key.isValid()) return;
+            disconnected++;
+            key.cancel();
+            channel.close();
+        }
+    }
+
+    /**
+     * Counts the decoded events.
+     */
+    private static class EventCounter implements UserInterface {
+
+        private long events;
+        private long cardsPlaced;
+        private long tokensPlaced;
+        private long points;
+
+        @Override
+        public void placeCard(int card, int slot) {
+            events++;
+            cardsPlaced++;
+        }
+
+        @Override
+        public void removeCard(int slot) {
+            events++;
+        }
+
+        @Override
+        public void placeToken(int player, int slot) {
+            events++;
+            tokensPlaced++;
+        }
+
+        @Override
+        public void removeTokens() {
+            events++;
+        }
+
+        @Override
+        public void removeTokens(int slot) {
+            events++;
+        }
+
+        @Override
+        public void removeToken(int player, int slot) {
+            events++;
+        }
+
+        @Override
+        public void setCountdown(long millies, boolean warn) {
+            events++;
+        }
+
+        @Override
+        public void setElapsed(long millies) {
+            events++;
+        }
+
+        @Override
+        public void setFreeze(int player, long millies) {
+            events++;
+        }
+
+        @Override
+        public void setScore(int player, int score) {
+            events++;
+            points++;
+        }
+
+        @Override
+        public void announceWinner(int[] players) {
+            events++;
+        }
+
+        @Override
+        public void dispose() {}
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 7) {
+            System.out.println("usage: LoadTestClient host port connections players tableSize keysPerSecond seconds");
+            return;
+        }
+        long millis = (long) (Double.parseDouble(args[6]) * 1000.0);
+        LoadTestClient client = new LoadTestClient(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]), Integer.parseInt(args[4]), Double.parseDouble(args[5]));
+        try {
+            client.run(millis);
+        } finally {
+            client.close();
+        }
+        client.report(millis);
+    }
+}
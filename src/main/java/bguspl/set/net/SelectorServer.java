@@ -0,0 +1,323 @@
+package bguspl.set.net;
+
+import bguspl.set.Config;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * The base of the non-blocking (selector based) servers: accepts the connections, reads from them and writes their
+ * pending bytes, all on the server thread. Any thread may append bytes to a connection's write buffer (see
+ * Connection.write); a first write hands the connection to the server thread through a lock-free queue and wakes the
+ * selector up at most once per round, whatever the number of writers. The write buffers are bounded by
+ * config.serverMaxPendingBytes: what to do with a connection that falls behind is up to the subclass.
+ */
+public abstract class SelectorServer implements Runnable {
+
+    protected final Logger logger;
+    protected final Config config;
+
+    /**
+     * What the server and its peers are called in the logs (e.g. "game server" and "client").
+     */
+    private final String name;
+    private final String peer;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * The connected peers (changed by the server thread only).
+     */
+    protected final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Connections that have new pending writes, or should be closed (handled by the server thread).
+     */
+    private final Queue<Connection> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * True iff the selector was already woken up and did not handle the pending connections yet.
+     */
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    /**
+     * True iff the server should be terminated.
+     */
+    private volatile boolean terminate;
+
+    /**
+     * The server thread (null until it runs).
+     */
+    private volatile Thread serverThread;
+
+    /**
+     * The initial size of a connection write buffer.
+     */
+    private static final int initialBufferSize = 4096;
+
+    protected SelectorServer(Logger logger, Config config, String name, String peer, int port) throws IOException {
+        this.logger = logger;
+        this.config = config;
+        this.name = name;
+        this.peer = peer;
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * @return - the local port the server listens on.
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return - the number of connected peers.
+     */
+    public int connections() {
+        return connections.size();
+    }
+
+    /**
+     * The server thread starts here (main loop for the server thread).
+     */
+    @Override
+    public void run() {
+        serverThread = Thread.currentThread();
+        started();
+        logger.info(name + " listening on port " + port());
+        while (!terminate) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+                woken();
+                handlePending();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) accept();
+                    else {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            if (key.isReadable()) connection.read();
+                            if (key.isValid() && key.isWritable()) connection.flush();
+                        } catch (IOException e) {
+                            connection.close("connection error: " + e.getMessage());
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.severe(name + " error: " + e.getMessage());
+            }
+        }
+
+        for (Connection connection : connections)
+            connection.close("server terminated");
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException ignored) {}
+        stopped();
+    }
+
+    /**
+     * Called when the server should be terminated.
+     */
+    public void terminate() {
+        terminate = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Called by the server thread before it starts listening.
+     */
+    protected void started() {
+    }
+
+    /**
+     * Called by the server thread whenever the selector returns, before the pending connections are handled.
+     */
+    protected void woken() {
+    }
+
+    /**
+     * Called by the server thread once all the connections are closed.
+     */
+    protected void stopped() {
+        logger.info(name + " stopped");
+    }
+
+    /**
+     * @return - a new connection to a peer (called by the server thread).
+     */
+    protected abstract Connection connect(SocketChannel channel) throws IOException;
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = connect(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections.add(connection);
+        logger.info(peer + " " + connection.address + " connected");
+        connection.accepted();
+    }
+
+    /**
+     * Wakes the server thread up (see woken), unless it was already woken up and did not run yet or is the caller.
+     */
+    protected void wakeup() {
+        if (Thread.currentThread() != serverThread && wakeupPending.compareAndSet(false, true))
+            selector.wakeup();
+    }
+
+    // Hands a connection to the server thread
+    private void handOver(Connection connection) {
+        pending.add(connection);
+        wakeup();
+    }
+
+    private void handlePending() {
+        for (Connection connection = pending.poll(); connection != null; connection = pending.poll()) {
+            String closing = connection.closing;
+            if (closing != null)
+                connection.close(closing);
+            else if (connection.key.isValid())
+                connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    protected abstract class Connection {
+
+        private final SocketChannel channel;
+        protected final String address;
+        private SelectionKey key;
+
+        /**
+         * The bytes read from the peer and not handled yet (in write mode).
+         */
+        private final ByteBuffer in;
+
+        /**
+         * The bytes that were not written to the peer yet (in write mode; guarded by this).
+         */
+        private ByteBuffer out = ByteBuffer.allocate(initialBufferSize);
+
+        /**
+         * Why the connection should be closed by the server thread (null unless closeLater was called).
+         */
+        private volatile String closing;
+
+        protected Connection(SocketChannel channel, int readBufferSize) throws IOException {
+            this.channel = channel;
+            address = String.valueOf(channel.getRemoteAddress());
+            in = ByteBuffer.allocate(readBufferSize);
+        }
+
+        /**
+         * Appends bytes to the write buffer, which grows up to config.serverMaxPendingBytes. Called by any thread.
+         *
+         * @param bytes - the bytes (in read mode; consumed only if they fit).
+         * @return - true iff the bytes fit in the write buffer.
+         */
+        protected synchronized boolean write(ByteBuffer bytes) {
+            boolean wasEmpty = out.position() == 0;
+            if (out.remaining() < bytes.remaining()) {
+                int needed = out.position() + bytes.remaining();
+                if (needed > config.serverMaxPendingBytes)
+                    return false;
+                int size = out.capacity();
+                while (size < needed) size *= 2;
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(size, config.serverMaxPendingBytes));
+                out.flip();
+                larger.put(out);
+                out = larger;
+            }
+            out.put(bytes);
+            if (wasEmpty)
+                handOver(this);
+            return true;
+        }
+
+        /**
+         * Has the server thread close the connection. Called by any thread.
+         */
+        protected void closeLater(String reason) {
+            closing = reason;
+            handOver(this);
+        }
+
+        /**
+         * Called by the server thread once the connection is registered.
+         */
+        protected void accepted() {
+        }
+
+        /**
+         * Handles the bytes read from the peer (in read mode; the bytes left are kept for the next read). Called by the
+         * server thread.
+         */
+        protected abstract void received(ByteBuffer in);
+
+        /**
+         * Called by the server thread when the connection is closed.
+         */
+        protected void closed() {
+        }
+
+        private synchronized void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (out.position() == 0)
+                key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private void read() throws IOException {
+            if (channel.read(in) < 0) {
+                close("disconnected");
+                return;
+            }
+            in.flip();
+            received(in);
+            in.compact();
+        }
+
+        // Closes the connection (called by the server thread)
+        protected void close(String reason) {
+            if (!connections.remove(this))
+                return;
+            closed();
+            key.cancel();
+            try {
+                logger.info(peer + " " + address + " " + reason);
+                channel.close();
+            } catch (ClosedChannelException ignored) {
+            } catch (IOException e) {
+                logger.warning("error closing " + peer + " connection: " + e.getMessage());
+            }
+        }
+    }
+}
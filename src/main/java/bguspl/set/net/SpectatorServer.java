@@ -0,0 +1,108 @@
+package bguspl.set.net;
+
+import bguspl.set.Config;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.logging.Logger;
+
+/**
+ * A non-blocking (selector based, see SelectorServer) server streaming the game to spectators: every connection
+ * subscribes to a SpectatorService, which is fed as one of the game's user interfaces (see service). The frames (see
+ * SpectatorService) are written as they are, and anything the spectators send is ignored.
+ * A fan-out thread offering a frame only copies it into the connection's write buffer: a spectator whose buffer cannot
+ * take the frame (config.serverMaxPendingBytes) rejects it and skips to the next keyframe once it caught up, instead of
+ * being disconnected as a slow remote player is. A frame larger than the whole buffer could never be taken, so its
+ * spectator is disconnected. All the socket I/O is done by the server thread.
+ */
+public class SpectatorServer extends SelectorServer {
+
+    private final SpectatorService service;
+
+    /**
+     * The number of deltas kept for the spectators that are behind, and the number of events between keyframes.
+     */
+    private static final int ringSize = 1 << 14;
+    private static final int keyframeInterval = 1 << 10;
+
+    public SpectatorServer(Logger logger, Config config) throws IOException {
+        super(logger, config, "spectator server", "spectator", config.spectatorPort);
+        service = new SpectatorService(config.tableSize, config.players, Math.max(1, config.spectatorFanOutThreads),
+                ringSize, keyframeInterval);
+    }
+
+    /**
+     * @return - the service streamed to the spectators (add it to the game's user interfaces).
+     */
+    public SpectatorService service() {
+        return service;
+    }
+
+    // Starts the fan-out threads
+    @Override
+    protected void started() {
+        service.start();
+    }
+
+    @Override
+    protected void stopped() {
+        service.terminate();
+        logger.info("spectator server stopped: " + service.framesDelivered() + " frames ("
+                + service.keyframesDelivered() + " keyframes, " + service.bytesDelivered() + " bytes) delivered, "
+                + service.framesRejected() + " rejected");
+    }
+
+    @Override
+    protected SelectorServer.Connection connect(SocketChannel channel) throws IOException {
+        return new Connection(channel);
+    }
+
+    private class Connection extends SelectorServer.Connection implements SpectatorService.Spectator {
+
+        private SpectatorService.Subscription subscription;
+
+        /**
+         * True iff the spectator was offered a frame larger than its whole write buffer (and is being disconnected).
+         */
+        private volatile boolean oversized;
+
+        private Connection(SocketChannel channel) throws IOException {
+            super(channel, 256);
+        }
+
+        @Override
+        protected void accepted() {
+            subscription = service.subscribe(this);
+        }
+
+        /**
+         * Appends a frame to the write buffer, unless the spectator is too far behind. Called by a fan-out thread.
+         */
+        @Override
+        public boolean offer(ByteBuffer frame) {
+            if (oversized)
+                return false;
+            if (frame.remaining() > config.serverMaxPendingBytes) {
+                oversized = true;
+                logger.warning("disconnecting spectator " + address + ": a frame of " + frame.remaining()
+                        + " bytes exceeds ServerMaxPendingBytes (" + config.serverMaxPendingBytes + ")");
+                closeLater("cannot take the frames");
+                return false;
+            }
+            return write(frame);
+        }
+
+        // Ignores anything the spectator sends
+        @Override
+        protected void received(ByteBuffer in) {
+            in.position(in.limit());
+        }
+
+        @Override
+        protected void closed() {
+            if (subscription != null)
+                subscription.cancel();
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package bguspl.set.net;
+
+import bguspl.set.UserInterface;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Streams the game to many spectators. The service is fed by the user interface events: it keeps an authoritative
+ * TableState, records every event (encoded by EventCodec) in a ring of deltas and encodes the whole state as a
+ * keyframe every keyframeInterval events.
+ * A pool of fan-out threads pushes the new deltas to the subscribed spectators in batched frames. Spectators never
+ * block: a spectator that cannot take a frame is marked lagging, and once it accepts frames again it skips to the
+ * latest keyframe instead of receiving the deltas it missed. Game threads only update the state and the ring, so
+ * neither the number of spectators nor a slow spectator slows the game down.
+ *
+ * A frame is a header (type, sequence number, payload length) followed by encoded events. The sequence number is the
+ * number of events the state reflects after replaying the frame. A keyframe starts with a fresh state (replay it on a
+ * reset TableState), a delta continues the previous frame.
+ */
+public class SpectatorService implements UserInterface {
+
+    /**
+     * Receives the frames from a fan-out thread.
+     */
+    public interface Spectator {
+
+        /**
+         * Offers a frame to the spectator. Must not block.
+         *
+         * @param frame - the frame (in read mode, shared with other spectators: read it or copy it before returning).
+         * @return - true iff the frame was accepted, false if the spectator is too busy to take it.
+         */
+        boolean offer(ByteBuffer frame);
+    }
+
+    public static final byte DELTA = 1;
+    public static final byte KEYFRAME = 2;
+
+    /**
+     * The size of a frame header (type, sequence number and payload length).
+     */
+    public static final int HEADER_SIZE = 1 + 8 + 4;
+
+    private final TableState state;
+
+    /**
+     * The encoded events, by sequence number modulo the ring size (guarded by this).
+     */
+    private final byte[][] ring;
+
+    /**
+     * The number of events recorded (guarded by this).
+     */
+    private long sequence;
+
+    /**
+     * The number of events recorded, for the fan-out threads to poll without locking.
+     */
+    private volatile long published;
+
+    /**
+     * The number of events between keyframes (smaller than the ring size, so the deltas following the latest
+     * keyframe are always in the ring).
+     */
+    private final int keyframeInterval;
+
+    /**
+     * The latest keyframe.
+     */
+    private volatile Keyframe keyframe;
+
+    /**
+     * A buffer to encode the fixed size events into (guarded by this).
+     */
+    private final ByteBuffer scratch = ByteBuffer.allocate(EventCodec.MAX_FIXED_EVENT_SIZE);
+
+    private final FanOut[] fanOuts;
+    private final AtomicInteger nextFanOut = new AtomicInteger();
+
+    /**
+     * True iff the service should be terminated.
+     */
+    private volatile boolean terminate;
+
+    /**
+     * How long an idle fan-out thread waits for new events before checking its lagging spectators again.
+     */
+    private static final long idleNanos = 10_000_000L;
+
+    private final LongAdder framesDelivered = new LongAdder();
+    private final LongAdder keyframesDelivered = new LongAdder();
+    private final LongAdder bytesDelivered = new LongAdder();
+    private final LongAdder framesRejected = new LongAdder();
+
+    /**
+     * @param tableSize        - the number of slots on the table.
+     * @param players          - the number of players.
+     * @param fanOutThreads    - the number of threads pushing frames to the spectators.
+     * @param ringSize         - the number of deltas kept for spectators that are behind.
+     * @param keyframeInterval - the number of events between keyframes (smaller than ringSize).
+     */
+    public SpectatorService(int tableSize, int players, int fanOutThreads, int ringSize, int keyframeInterval) {
+        if (keyframeInterval <= 0 || keyframeInterval >= ringSize)
+            throw new IllegalArgumentException("the keyframe interval must be positive and smaller than the ring size");
+        state = new TableState(tableSize, players);
+        ring = new byte[ringSize][];
+        this.keyframeInterval = keyframeInterval;
+        keyframe = encodeKeyframe();
+        fanOuts = new FanOut[fanOutThreads];
+        for (int i = 0; i < fanOutThreads; i++)
+            fanOuts[i] = new FanOut("spectator-fan-out-" + i);
+    }
+
+    /**
+     * Starts the fan-out threads.
+     */
+    public void start() {
+        for (FanOut fanOut : fanOuts)
+            fanOut.thread.start();
+    }
+
+    /**
+     * Stops the fan-out threads. Spectators are not notified.
+     */
+    public void terminate() {
+        terminate = true;
+        for (FanOut fanOut : fanOuts) {
+            LockSupport.unpark(fanOut.thread);
+            try {
+                fanOut.thread.join();
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Subscribes a spectator. Its first frame is the latest keyframe.
+     *
+     * @return - the subscription (cancel it to unsubscribe).
+     */
+    public Subscription subscribe(Spectator spectator) {
+        FanOut fanOut = fanOuts[Math.floorMod(nextFanOut.getAndIncrement(), fanOuts.length)];
+        Subscription subscription = new Subscription(spectator);
+        fanOut.subscriptions.add(subscription);
+        LockSupport.unpark(fanOut.thread);
+        return subscription;
+    }
+
+    /**
+     * @return - the number of events recorded so far.
+     */
+    public long sequence() {
+        return published;
+    }
+
+    public long framesDelivered() {
+        return framesDelivered.sum();
+    }
+
+    public long keyframesDelivered() {
+        return keyframesDelivered.sum();
+    }
+
+    public long bytesDelivered() {
+        return bytesDelivered.sum();
+    }
+
+    public long framesRejected() {
+        return framesRejected.sum();
+    }
+
+    /**
+     * Replays a frame on a spectator side state.
+     *
+     * @param frame  - the frame (in read mode).
+     * @param target - the state to update (reset first if the frame is a keyframe).
+     * @return - the sequence number of the frame.
+     */
+    public static long replay(ByteBuffer frame, TableState target) {
+        byte type = frame.get();
+        long sequence = frame.getLong();
+        int length = frame.getInt();
+        if (type == KEYFRAME) target.reset();
+        ByteBuffer events = frame.slice();
+        events.limit(length);
+        while (EventCodec.decode(events, target));
+        frame.position(frame.position() + length);
+        return sequence;
+    }
+
+    private static ByteBuffer frame(byte type, long sequence, int length) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + length);
+        frame.put(type).putLong(sequence).putInt(length);
+        return frame;
+    }
+
+    /**
+     * Must be called holding the lock.
+     */
+    private Keyframe encodeKeyframe() {
+        ByteBuffer frame = frame(KEYFRAME, sequence, state.encodedSize());
+        state.encode(frame);
+        frame.flip();
+        return new Keyframe(sequence, frame.asReadOnlyBuffer());
+    }
+
+    /**
+     * Records an event that was already applied on the state and encoded into the scratch buffer.
+     * Must be called holding the lock.
+     */
+    private void record(ByteBuffer event) {
+        event.flip();
+        byte[] bytes = new byte[event.remaining()];
+        event.get(bytes);
+        ring[(int) (sequence % ring.length)] = bytes;
+        sequence++;
+        if (sequence - keyframe.sequence >= keyframeInterval)
+            keyframe = encodeKeyframe();
+        published = sequence;
+        for (FanOut fanOut : fanOuts)
+            if (fanOut.idle)
+                LockSupport.unpark(fanOut.thread);
+    }
+
+    /**
+     * Must be called holding the lock.
+     */
+    private void record(Consumer<ByteBuffer> encoder) {
+        scratch.clear();
+        encoder.accept(scratch);
+        record(scratch);
+    }
+
+    /**
+     * @return - a delta frame with the events from (exclusive) to (inclusive), or null if they are no longer in
+     *           the ring.
+     */
+    private synchronized ByteBuffer delta(long from, long to) {
+        if (sequence - from > ring.length)
+            return null;
+        int length = 0;
+        for (long i = from; i < to; i++)
+            length += ring[(int) (i % ring.length)].length;
+        ByteBuffer frame = frame(DELTA, to, length);
+        for (long i = from; i < to; i++)
+            frame.put(ring[(int) (i % ring.length)]);
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+
+    @Override
+    public synchronized void placeCard(int card, int slot) {
+        state.placeCard(card, slot);
+        record(out -> EventCodec.placeCard(out, card, slot));
+    }
+
+    @Override
+    public synchronized void removeCard(int slot) {
+        state.removeCard(slot);
+        record(out -> EventCodec.removeCard(out, slot));
+    }
+
+    @Override
+    public synchronized void placeToken(int player, int slot) {
+        state.placeToken(player, slot);
+        record(out -> EventCodec.placeToken(out, player, slot));
+    }
+
+    @Override
+    public synchronized void removeTokens() {
+        state.removeTokens();
+        record(out -> EventCodec.removeTokens(out));
+    }
+
+    @Override
+    public synchronized void removeTokens(int slot) {
+        state.removeTokens(slot);
+        record(out -> EventCodec.removeTokens(out, slot));
+    }
+
+    @Override
+    public synchronized void removeToken(int player, int slot) {
+        state.removeToken(player, slot);
+        record(out -> EventCodec.removeToken(out, player, slot));
+    }
+
+    @Override
+    public synchronized void setCountdown(long millies, boolean warn) {
+        state.setCountdown(millies, warn);
+        record(out -> EventCodec.setCountdown(out, millies, warn));
+    }
+
+    @Override
+    public synchronized void setElapsed(long millies) {
+        state.setElapsed(millies);
+        record(out -> EventCodec.setElapsed(out, millies));
+    }
+
+    @Override
+    public synchronized void setFreeze(int player, long millies) {
+        state.setFreeze(player, millies);
+        record(out -> EventCodec.setFreeze(out, player, millies));
+    }
+
+    @Override
+    public synchronized void setScore(int player, int score) {
+        state.setScore(player, score);
+        record(out -> EventCodec.setScore(out, player, score));
+    }
+
+    @Override
+    public synchronized void announceWinner(int[] players) {
+        state.announceWinner(players);
+        ByteBuffer event = ByteBuffer.allocate(EventCodec.announceWinnerSize(players));
+        EventCodec.announceWinner(event, players);
+        record(event);
+    }
+
+    @Override
+    public void dispose() {
+        terminate();
+    }
+
+    private static class Keyframe {
+
+        private final long sequence;
+        private final ByteBuffer frame;
+
+        private Keyframe(long sequence, ByteBuffer frame) {
+            this.sequence = sequence;
+            this.frame = frame;
+        }
+    }
+
+    /**
+     * A subscribed spectator.
+     */
+    public static class Subscription {
+
+        private final Spectator spectator;
+
+        /**
+         * The sequence number of the last frame delivered, -1 before the first keyframe (accessed only by the
+         * fan-out thread).
+         */
+        private long cursor = -1;
+
+        /**
+         * True iff the spectator is not up to date with the frames sent to the others, i.e. it just subscribed or
+         * rejected a frame (accessed only by the fan-out thread).
+         */
+        private boolean lagging = true;
+
+        private volatile boolean cancelled;
+
+        private Subscription(Spectator spectator) {
+            this.spectator = spectator;
+        }
+
+        /**
+         * Unsubscribes the spectator. It may still receive a frame being delivered concurrently.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * A fan-out thread and the spectators it serves.
+     */
+    private class FanOut implements Runnable {
+
+        private final Thread thread;
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        /**
+         * The sequence number up to which the up to date spectators were served.
+         */
+        private long delivered;
+
+        /**
+         * True iff the thread is about to wait for new events.
+         */
+        private volatile boolean idle;
+
+        private FanOut(String name) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            delivered = published;
+            while (!terminate) {
+                long target = published;
+                boolean pending = false;
+                ByteBuffer batch = target > delivered ? delta(delivered, target) : null;
+
+                Iterator<Subscription> iterator = subscriptions.iterator();
+                while (iterator.hasNext()) {
+                    Subscription subscription = iterator.next();
+                    if (subscription.cancelled) subscriptions.remove(subscription);
+                    else if (!subscription.lagging && subscription.cursor == delivered && batch != null)
+                        deliver(subscription, batch, target);
+                    else if (subscription.lagging || subscription.cursor < target)
+                        catchUp(subscription, target);
+                    pending |= subscription.lagging;
+                }
+                delivered = target;
+
+                if (published == target) {
+                    idle = true;
+                    if (published == target)
+                        LockSupport.parkNanos(this, pending ? idleNanos : Long.MAX_VALUE);
+                    idle = false;
+                }
+            }
+        }
+
+        /**
+         * @return - true iff the spectator accepted the frame.
+         */
+        private boolean deliver(Subscription subscription, ByteBuffer frame, long sequence) {
+            int bytes = frame.remaining();
+            if (!subscription.spectator.offer(frame.duplicate())) {
+                subscription.lagging = true;
+                framesRejected.increment();
+                return false;
+            }
+            subscription.cursor = sequence;
+            framesDelivered.increment();
+            bytesDelivered.add(bytes);
+            return true;
+        }
+
+        /**
+         * Brings a lagging or newly subscribed spectator up to date: skips to the latest keyframe if it is newer than
+         * the last frame the spectator took, then sends the deltas recorded since.
+         */
+        private void catchUp(Subscription subscription, long target) {
+            Keyframe latest = keyframe;
+            // a keyframe recorded after this round started is sent next round
+            if (latest.sequence > subscription.cursor && latest.sequence <= target) {
+                if (!deliver(subscription, latest.frame, latest.sequence)) return;
+                keyframesDelivered.increment();
+            }
+            if (subscription.cursor < 0) return;
+            if (subscription.cursor < target) {
+                ByteBuffer frame = delta(subscription.cursor, target);
+                if (frame == null || !deliver(subscription, frame, target)) return;
+            }
+            subscription.lagging = false;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package bguspl.set.net;
+
+import bguspl.set.UserInterface;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A compact copy of everything the user interface shows (cards, tokens, scores, freezes and countdown), kept up to
+ * date by replaying the user interface events on it. The whole state can be encoded as a sequence of events (a
+ * keyframe) from which a fresh TableState, or any other user interface, is rebuilt.
+ * This class is not thread safe.
+ */
+public class TableState implements UserInterface {
+
+    private final int tableSize;
+    private final int players;
+
+    /**
+     * The card in each slot (noCard if none).
+     */
+    private final int[] cards;
+
+    /**
+     * The tokens in each slot, as a bitmask of players (tokenWords longs per slot).
+     */
+    private final long[] tokens;
+    private final int tokenWords;
+
+    private final int[] scores;
+    private final long[] freezes;
+    private long countdown;
+    private boolean warn;
+    private long elapsed = noTime;
+    private int[] winners;
+
+    private static final int noCard = -1;
+    private static final long noTime = -1;
+
+    public TableState(int tableSize, int players) {
+        this.tableSize = tableSize;
+        this.players = players;
+        cards = new int[tableSize];
+        tokenWords = (players + Long.SIZE - 1) / Long.SIZE;
+        tokens = new long[tableSize * tokenWords];
+        scores = new int[players];
+        freezes = new long[players];
+        reset();
+    }
+
+    /**
+     * Clears the whole state (as before the first event).
+     */
+    public void reset() {
+        Arrays.fill(cards, noCard);
+        Arrays.fill(tokens, 0L);
+        Arrays.fill(scores, 0);
+        Arrays.fill(freezes, 0L);
+        countdown = 0;
+        warn = false;
+        elapsed = noTime;
+        winners = null;
+    }
+
+    private int tokens(int slot) {
+        int count = 0;
+        for (int i = slot * tokenWords; i < (slot + 1) * tokenWords; i++)
+            count += Long.bitCount(tokens[i]);
+        return count;
+    }
+
+    /**
+     * @return - the number of bytes needed to encode the state (see encode).
+     */
+    public int encodedSize() {
+        int size = 1; // removeTokens
+        for (int slot = 0; slot < tableSize; slot++)
+            size += (cards[slot] == noCard ? 3 : 7) + 5 * tokens(slot);
+        size += players * (7 + 7);
+        size += 6;
+        if (elapsed != noTime) size += 5;
+        if (winners != null) size += EventCodec.announceWinnerSize(winners);
+        return size;
+    }
+
+    /**
+     * Encodes the state as a sequence of events, which rebuilds it when replayed on a reset state.
+     *
+     * @param out - the buffer to write to (with at least encodedSize bytes remaining).
+     */
+    public void encode(ByteBuffer out) {
+        EventCodec.removeTokens(out);
+        for (int slot = 0; slot < tableSize; slot++) {
+            if (cards[slot] == noCard) EventCodec.removeCard(out, slot);
+            else EventCodec.placeCard(out, cards[slot], slot);
+            for (int word = 0; word < tokenWords; word++)
+                for (long bits = tokens[slot * tokenWords + word]; bits != 0; bits &= bits - 1)
+                    EventCodec.placeToken(out, word * Long.SIZE + Long.numberOfTrailingZeros(bits), slot);
+        }
+        for (int player = 0; player < players; player++) {
+            EventCodec.setScore(out, player, scores[player]);
+            EventCodec.setFreeze(out, player, freezes[player]);
+        }
+        EventCodec.setCountdown(out, countdown, warn);
+        if (elapsed != noTime) EventCodec.setElapsed(out, elapsed);
+        if (winners != null) EventCodec.announceWinner(out, winners);
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        cards[slot] = card;
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        cards[slot] = noCard;
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        tokens[slot * tokenWords + player / Long.SIZE] |= 1L << player;
+    }
+
+    @Override
+    public void removeTokens() {
+        Arrays.fill(tokens, 0L);
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        Arrays.fill(tokens, slot * tokenWords, (slot + 1) * tokenWords, 0L);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        tokens[slot * tokenWords + player / Long.SIZE] &= ~(1L << player);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        countdown = millies;
+        this.warn = warn;
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        elapsed = millies;
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        freezes[player] = millies;
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        scores[player] = score;
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        winners = players.clone();
+    }
+
+    @Override
+    public void dispose() {}
+}
@@ -0,0 +1,116 @@
+package bguspl.set.net;
+
+import bguspl.set.UserInterface;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Network implementation of the UserInterface interface: encodes every event (see EventCodec) and broadcasts it to
+ * the clients connected to the game server.
+ */
+public class UserInterfaceNetwork implements UserInterface {
+
+    private final GameServer server;
+
+    /**
+     * A per-thread buffer to encode the fixed size events into.
+     */
+    private static final ThreadLocal<ByteBuffer> buffer = ThreadLocal.withInitial(() -> ByteBuffer.allocate(EventCodec.MAX_FIXED_EVENT_SIZE));
+
+    public UserInterfaceNetwork(GameServer server) {
+        this.server = server;
+    }
+
+    private static ByteBuffer buffer() {
+        ByteBuffer event = buffer.get();
+        event.clear();
+        return event;
+    }
+
+    private void send(ByteBuffer event) {
+        event.flip();
+        server.broadcast(event);
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        ByteBuffer event = buffer();
+        EventCodec.placeCard(event, card, slot);
+        send(event);
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        ByteBuffer event = buffer();
+        EventCodec.removeCard(event, slot);
+        send(event);
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        ByteBuffer event = buffer();
+        EventCodec.placeToken(event, player, slot);
+        send(event);
+    }
+
+    @Override
+    public void removeTokens() {
+        ByteBuffer event = buffer();
+        EventCodec.removeTokens(event);
+        send(event);
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        ByteBuffer event = buffer();
+        EventCodec.removeTokens(event, slot);
+        send(event);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        ByteBuffer event = buffer();
+        EventCodec.removeToken(event, player, slot);
+        send(event);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        ByteBuffer event = buffer();
+        EventCodec.setCountdown(event, millies, warn);
+        send(event);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        ByteBuffer event = buffer();
+        EventCodec.setElapsed(event, millies);
+        send(event);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        ByteBuffer event = buffer();
+        EventCodec.setFreeze(event, player, millies);
+        send(event);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        ByteBuffer event = buffer();
+        EventCodec.setScore(event, player, score);
+        send(event);
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        ByteBuffer event = ByteBuffer.allocate(EventCodec.announceWinnerSize(players));
+        EventCodec.announceWinner(event, players);
+        send(event);
+    }
+
+    @Override
+    public void dispose() {
+        server.terminate();
+    }
+}
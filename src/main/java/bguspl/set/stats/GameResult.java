@@ -0,0 +1,78 @@
+package bguspl.set.stats;
+
+/**
+ * The result of a game, as recorded in the ResultsStore.
+ */
+public class GameResult {
+
+    /**
+     * The strategies of the game's own players (a tournament's bots are recorded by their specs, e.g. sets:300).
+     */
+    public static final String human = "human";
+    public static final String computer = "computer";
+
+    /**
+     * The time (as System.currentTimeMillis) the game started.
+     */
+    public final long startMillis;
+
+    /**
+     * The duration of the game in milliseconds.
+     */
+    public final long durationMillis;
+
+    /**
+     * The number of times the dealer reshuffled the deck due to turn timeout.
+     */
+    public final int reshuffles;
+
+    /**
+     * True iff the game ended because no set was left (false if it was terminated before).
+     */
+    public final boolean completed;
+
+    /**
+     * The strategy of each player (by player id): human, computer or the spec of a tournament bot.
+     */
+    public final String[] strategies;
+
+    /**
+     * The score (the number of sets collected) of each player (by player id).
+     */
+    public final int[] scores;
+
+    /**
+     * The ids of the winners.
+     */
+    public final int[] winners;
+
+    public GameResult(long startMillis, long durationMillis, int reshuffles, boolean completed, String[] strategies,
+                      int[] scores, int[] winners) {
+        if (strategies.length != scores.length)
+            throw new IllegalArgumentException("strategies (" + strategies.length + ") mismatch scores (" + scores.length + ")");
+        this.startMillis = startMillis;
+        this.durationMillis = durationMillis;
+        this.reshuffles = reshuffles;
+        this.completed = completed;
+        this.strategies = strategies;
+        this.scores = scores;
+        this.winners = winners;
+    }
+
+    /**
+     * @return - the number of players in the game.
+     */
+    public int players() {
+        return scores.length;
+    }
+
+    /**
+     * @return - true iff the player won the game.
+     */
+    public boolean won(int player) {
+        for (int winner : winners)
+            if (winner == player)
+                return true;
+        return false;
+    }
+}
@@ -0,0 +1,123 @@
+package bguspl.set.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A leaderboard across games: every finished game reports the final scores of its players (by name), which update
+ * their Elo ratings and running statistics.
+ *
+ * The ratings are multiplayer Elo: every pair of players in a game is a match won by the higher score (a draw if the
+ * scores are equal), and a player's rating moves by k / (players - 1) times the sum of its match results minus their
+ * expected results. A game's changes add up to zero.
+ *
+ * Each player's Rating is immutable and replaced by compare-and-set, so games finishing at once only contend on the
+ * players they share, never on a global lock. The games apply their changes under the shared side of a read/write
+ * lock, and snapshots take the exclusive side, so a snapshot reflects every game either entirely or not at all.
+ */
+public class Leaderboard {
+
+    /**
+     * The rating of a new player.
+     */
+    public static final double initialRating = 1500;
+
+    /**
+     * The maximal change of a rating in a game.
+     */
+    private static final double k = 32;
+
+    private final ConcurrentMap<String, AtomicReference<Rating>> ratings = new ConcurrentHashMap<>();
+
+    /**
+     * Shared by the games applying their changes, exclusive for the snapshots.
+     */
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    /**
+     * Reports the final scores of a game.
+     *
+     * @param names  - the names of the players.
+     * @param scores - the scores of the players (in the order of the names).
+     */
+    public void report(String[] names, int[] scores) {
+        if (names.length != scores.length)
+            throw new IllegalArgumentException("names (" + names.length + ") mismatch scores (" + scores.length + ")");
+        int players = names.length;
+        List<AtomicReference<Rating>> references = new ArrayList<>(players);
+        int max = 0;
+        for (int i = 0; i < players; i++) {
+            references.add(ratings.computeIfAbsent(names[i],
+                    name -> new AtomicReference<>(new Rating(name, initialRating, 0, 0, 0))));
+            max = Math.max(max, scores[i]);
+        }
+
+        snapshotLock.readLock().lock();
+        try {
+            // the changes are computed from the same ratings, so they add up to zero
+            double[] current = new double[players];
+            for (int i = 0; i < players; i++)
+                current[i] = references.get(i).get().rating;
+            for (int i = 0; i < players; i++) {
+                double delta = players < 2 ? 0 : k / (players - 1) * matches(current, scores, i);
+                int score = scores[i];
+                boolean won = score == max;
+                references.get(i).updateAndGet(rating -> rating.add(delta, score, won));
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Returns the sum of the player's match results minus their expected results
+    private static double matches(double[] ratings, int[] scores, int player) {
+        double sum = 0;
+        for (int opponent = 0; opponent < ratings.length; opponent++) {
+            if (opponent == player)
+                continue;
+            double expected = 1 / (1 + Math.pow(10, (ratings[opponent] - ratings[player]) / 400));
+            double actual = scores[player] > scores[opponent] ? 1 : scores[player] == scores[opponent] ? 0.5 : 0;
+            sum += actual - expected;
+        }
+        return sum;
+    }
+
+    /**
+     * @return - the current rating of the player (null if it never played).
+     */
+    public Rating rating(String name) {
+        AtomicReference<Rating> rating = ratings.get(name);
+        return rating == null ? null : rating.get();
+    }
+
+    /**
+     * @return - the ratings of all the players, from the highest, as of a moment no game was being applied.
+     */
+    public List<Rating> snapshot() {
+        List<Rating> snapshot = new ArrayList<>(ratings.size());
+        snapshotLock.writeLock().lock();
+        try {
+            for (AtomicReference<Rating> rating : ratings.values())
+                snapshot.add(rating.get());
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        snapshot.sort(Comparator.comparingDouble((Rating rating) -> rating.rating).reversed());
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        int place = 1;
+        for (Rating rating : snapshot())
+            sb.append(place++).append(". ").append(rating).append(System.lineSeparator());
+        return sb.toString();
+    }
+}
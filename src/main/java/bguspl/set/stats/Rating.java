@@ -0,0 +1,67 @@
+package bguspl.set.stats;
+
+/**
+ * A player's rating and running statistics on the Leaderboard (immutable: every game replaces it).
+ */
+public class Rating {
+
+    /**
+     * The name of the player (as in Config.playerNames).
+     */
+    public final String name;
+
+    /**
+     * The Elo rating of the player.
+     */
+    public final double rating;
+
+    /**
+     * The number of games the player played.
+     */
+    public final long games;
+
+    /**
+     * The number of games the player won (shared wins included).
+     */
+    public final long wins;
+
+    /**
+     * The number of sets the player collected in all its games.
+     */
+    public final long sets;
+
+    public Rating(String name, double rating, long games, long wins, long sets) {
+        this.name = name;
+        this.rating = rating;
+        this.games = games;
+        this.wins = wins;
+        this.sets = sets;
+    }
+
+    /**
+     * @return - the rating after another game.
+     */
+    Rating add(double delta, int score, boolean won) {
+        return new Rating(name, rating + delta, games + 1, won ? wins + 1 : wins, sets + score);
+    }
+
+    /**
+     * @return - the fraction of its games the player won.
+     */
+    public double winRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    /**
+     * @return - the average number of sets the player collected in a game.
+     */
+    public double averageScore() {
+        return games == 0 ? 0 : (double) sets / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.0f (%d games, %.1f%% wins, %.2f sets per game)", name, rating, games,
+                100 * winRate(), averageScore());
+    }
+}
@@ -0,0 +1,382 @@
+package bguspl.set.stats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An append-only store of game results in a memory-mapped file of fixed-width records: a game record followed by a
+ * record for each of its players. A player record refers to its strategy by an id, defined by a name record (holding
+ * the strategy's name, e.g. human or sets:300) before the first game of the strategy, so every distinct strategy spec
+ * is told apart at the cost of one record. Queries scan the mapped records without decoding them into objects, so aggregating
+ * millions of games takes a fraction of a second.
+ *
+ * The file starts with a header holding the number of records committed. A game is appended by writing its records
+ * past the committed ones and then advancing the count, under a file lock, so games from several processes can be
+ * appended to the same file and readers never see a partially written game. The file lock is held by the whole JVM,
+ * so the stores of the same file in one process (e.g. the dealers of a tournament) also take turns on a lock they
+ * share. The file is limited to 2GB (about 60 million records).
+ */
+public class ResultsStore implements Closeable {
+
+    /**
+     * Receives the records of a scan (the players of a game right after the game).
+     */
+    public interface Visitor {
+
+        void game(long startMillis, long durationMillis, int reshuffles, boolean completed, int players);
+
+        void player(int player, String strategy, int score, boolean winner);
+    }
+
+    private static final int magic = 0x53455452; // "SETR"
+    private static final int version = 2;
+
+    /**
+     * The size of the header and of every record.
+     */
+    public static final int recordSize = 32;
+
+    /**
+     * The header fields' offsets.
+     */
+    private static final int magicOffset = 0;
+    private static final int versionOffset = 4;
+    private static final int recordSizeOffset = 8;
+    private static final int recordsOffset = 16;
+    private static final int gamesOffset = 24;
+
+    /**
+     * The record types (the first byte of a record).
+     */
+    private static final byte gameRecord = 1;
+    private static final byte playerRecord = 2;
+    private static final byte nameRecord = 3;
+
+    /**
+     * The longest strategy name (in UTF-8 bytes) a name record holds.
+     */
+    private static final int maxNameBytes = recordSize - 8;
+
+    /**
+     * The initial size of the file.
+     */
+    private static final int initialCapacity = 64 * recordSize;
+
+    /**
+     * The locks taken around the file lock by the stores of each file (by real path) in this JVM, as a second file lock
+     * of the same JVM is refused (OverlappingFileLockException) rather than waited for.
+     */
+    private static final Map<Path, Object> processLocks = new ConcurrentHashMap<>();
+
+    private final FileChannel channel;
+
+    /**
+     * The lock shared by the stores of the file in this JVM.
+     */
+    private final Object processLock;
+
+    /**
+     * The mapping of the file (remapped as the file grows; guarded by this).
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * The strategy names by id, and the ids by name, as defined by the name records read so far (guarded by this).
+     */
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * The number of records read for their names.
+     */
+    private long namesRead;
+
+    /**
+     * Opens the store, creating the file if it does not exist.
+     *
+     * @param path - the path of the file.
+     * @throws IOException - if the file cannot be opened or is not a results file.
+     */
+    public ResultsStore(Path path) throws IOException {
+        if (path.getParent() != null)
+            path.getParent().toFile().mkdirs();
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            processLock = processLocks.computeIfAbsent(path.toRealPath(), key -> new Object());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        synchronized (processLock) {
+            initialize(path);
+        }
+    }
+
+    // Writes the header of a new file, or checks the header of an existing one
+    private void initialize(Path path) throws IOException {
+        try (FileLock ignored = channel.lock()) {
+            if (channel.size() == 0) {
+                map(initialCapacity);
+                buffer.putInt(magicOffset, magic);
+                buffer.putInt(versionOffset, version);
+                buffer.putInt(recordSizeOffset, recordSize);
+                buffer.putLong(recordsOffset, 0);
+                buffer.putLong(gamesOffset, 0);
+            } else {
+                map(channel.size());
+                if (buffer.capacity() < recordSize || buffer.getInt(magicOffset) != magic || buffer.getInt(versionOffset) != version
+                        || buffer.getInt(recordSizeOffset) != recordSize)
+                    throw new IOException(path + " is not a results file (of version " + version + ")");
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void map(long size) throws IOException {
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("the results file is full");
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Remaps the file if another process grew it past the mapping
+    private void refresh() throws IOException {
+        long size = channel.size();
+        if (size > buffer.capacity())
+            map(size);
+    }
+
+    // Reads the names defined by the records committed since the last call
+    private void readNames(long records) {
+        for (; namesRead < records; namesRead++) {
+            int offset = (int) ((namesRead + 1) * recordSize);
+            if (buffer.get(offset) != nameRecord)
+                continue;
+            byte[] bytes = new byte[buffer.get(offset + 1)];
+            for (int i = 0; i < bytes.length; i++)
+                bytes[i] = buffer.get(offset + 8 + i);
+            String name = new String(bytes, StandardCharsets.UTF_8);
+            int id = buffer.getInt(offset + 4);
+            while (names.size() <= id)
+                names.add(null);
+            names.set(id, name);
+            ids.put(name, id);
+        }
+    }
+
+    /**
+     * Appends the result of a game.
+     *
+     * @param result - the result of the game.
+     * @throws IOException - if the file cannot be written or is full.
+     * @throws IllegalArgumentException - if a strategy name is empty or longer than 24 bytes (in UTF-8).
+     */
+    public synchronized void append(GameResult result) throws IOException {
+        for (String strategy : result.strategies)
+            if (strategy.isEmpty() || strategy.getBytes(StandardCharsets.UTF_8).length > maxNameBytes)
+                throw new IllegalArgumentException("invalid strategy name: " + strategy);
+        synchronized (processLock) {
+            appendLocked(result);
+        }
+    }
+
+    private void appendLocked(GameResult result) throws IOException {
+        try (FileLock ignored = channel.lock()) {
+            refresh();
+            long records = buffer.getLong(recordsOffset);
+            readNames(records);
+            // the strategies named for the first time (by this or another process) get the next ids
+            Map<String, Integer> idOf = new HashMap<>(ids);
+            List<String> added = new ArrayList<>();
+            for (String strategy : result.strategies)
+                if (!idOf.containsKey(strategy)) {
+                    idOf.put(strategy, names.size() + added.size());
+                    added.add(strategy);
+                }
+            long end = (records + 1 + added.size() + 1 + result.players()) * recordSize;
+            if (end > buffer.capacity())
+                map(Math.max(end, Math.min(2L * buffer.capacity(), Integer.MAX_VALUE)));
+
+            int offset = (int) ((records + 1) * recordSize);
+            for (String strategy : added) {
+                byte[] bytes = strategy.getBytes(StandardCharsets.UTF_8);
+                clear(offset);
+                buffer.put(offset, nameRecord);
+                buffer.put(offset + 1, (byte) bytes.length);
+                buffer.putInt(offset + 4, idOf.get(strategy));
+                for (int i = 0; i < bytes.length; i++)
+                    buffer.put(offset + 8 + i, bytes[i]);
+                offset += recordSize;
+            }
+
+            int sets = 0;
+            for (int score : result.scores)
+                sets += score;
+            clear(offset);
+            buffer.put(offset, gameRecord);
+            buffer.put(offset + 1, (byte) (result.completed ? 1 : 0));
+            buffer.putInt(offset + 4, result.players());
+            buffer.putLong(offset + 8, result.startMillis);
+            buffer.putLong(offset + 16, result.durationMillis);
+            buffer.putInt(offset + 24, result.reshuffles);
+            buffer.putInt(offset + 28, sets);
+            for (int player = 0; player < result.players(); player++) {
+                offset += recordSize;
+                clear(offset);
+                buffer.put(offset, playerRecord);
+                buffer.put(offset + 1, (byte) (result.won(player) ? 1 : 0));
+                buffer.putInt(offset + 4, player);
+                buffer.putInt(offset + 8, idOf.get(result.strategies[player]));
+                buffer.putInt(offset + 12, result.scores[player]);
+            }
+
+            // commit the game
+            buffer.putLong(gamesOffset, buffer.getLong(gamesOffset) + 1);
+            buffer.putLong(recordsOffset, records + added.size() + 1 + result.players());
+        }
+    }
+
+    private void clear(int offset) {
+        for (int i = 0; i < recordSize; i += 8)
+            buffer.putLong(offset + i, 0);
+    }
+
+    /**
+     * @return - the number of games in the store.
+     */
+    public synchronized long games() throws IOException {
+        refresh();
+        return buffer.getLong(gamesOffset);
+    }
+
+    /**
+     * Passes all the records committed so far to the visitor, in the order they were appended.
+     */
+    public synchronized void scan(Visitor visitor) throws IOException {
+        refresh();
+        long records = buffer.getLong(recordsOffset);
+        readNames(records);
+        int end = (int) ((records + 1) * recordSize);
+        for (int offset = recordSize; offset < end; offset += recordSize) {
+            byte type = buffer.get(offset);
+            if (type == gameRecord)
+                visitor.game(buffer.getLong(offset + 8), buffer.getLong(offset + 16), buffer.getInt(offset + 24),
+                        buffer.get(offset + 1) != 0, buffer.getInt(offset + 4));
+            else if (type == playerRecord)
+                visitor.player(buffer.getInt(offset + 4), names.get(buffer.getInt(offset + 8)),
+                        buffer.getInt(offset + 12), buffer.get(offset + 1) != 0);
+        }
+    }
+
+    /**
+     * @return - the fraction of the games won by the players of each strategy (a game counts once for each of the
+     *           strategy's players in it, and a shared win counts as a win).
+     */
+    public Map<String, Double> winRates() throws IOException {
+        Map<String, long[]> counts = new TreeMap<>(); // strategy -> {played, won}
+        scan(new Visitor() {
+            @Override
+            public void game(long startMillis, long durationMillis, int reshuffles, boolean completed, int players) {}
+
+            @Override
+            public void player(int player, String strategy, int score, boolean winner) {
+                long[] count = counts.computeIfAbsent(strategy, key -> new long[2]);
+                count[0]++;
+                if (winner)
+                    count[1]++;
+            }
+        });
+        Map<String, Double> rates = new TreeMap<>();
+        counts.forEach((strategy, count) -> rates.put(strategy, (double) count[1] / count[0]));
+        return rates;
+    }
+
+    /**
+     * @return - the average number of sets collected per minute of play (by all the players of a game together).
+     */
+    public double setsPerMinute() throws IOException {
+        long[] totals = new long[2]; // {sets, duration}
+        scan(new Visitor() {
+            @Override
+            public void game(long startMillis, long durationMillis, int reshuffles, boolean completed, int players) {
+                totals[1] += durationMillis;
+            }
+
+            @Override
+            public void player(int player, String strategy, int score, boolean winner) {
+                totals[0] += score;
+            }
+        });
+        return totals[1] == 0 ? 0 : totals[0] * 60000.0 / totals[1];
+    }
+
+    /**
+     * @return - the number of players who finished a game with each score (indexed by the score).
+     */
+    public long[] scoreDistribution() throws IOException {
+        long[][] distribution = {new long[16]};
+        scan(new Visitor() {
+            @Override
+            public void game(long startMillis, long durationMillis, int reshuffles, boolean completed, int players) {}
+
+            @Override
+            public void player(int player, String strategy, int score, boolean winner) {
+                if (score >= distribution[0].length)
+                    distribution[0] = Arrays.copyOf(distribution[0], Math.max(score + 1, 2 * distribution[0].length));
+                distribution[0][score]++;
+            }
+        });
+        int length = distribution[0].length;
+        while (length > 0 && distribution[0][length - 1] == 0)
+            length--;
+        return Arrays.copyOf(distribution[0], length);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Prints the aggregates of a results file.
+     * Usage: ResultsStore results-file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: ResultsStore results-file");
+            return;
+        }
+        try (ResultsStore store = new ResultsStore(Paths.get(args[0]))) {
+            long start = System.nanoTime();
+            long games = store.games();
+            Map<String, Double> winRates = store.winRates();
+            double setsPerMinute = store.setsPerMinute();
+            long[] scores = store.scoreDistribution();
+            System.out.println("games: " + games);
+            winRates.forEach((strategy, rate) -> System.out.println(String.format("win rate of %s: %.3f",
+                    strategy, rate)));
+            System.out.println(String.format("sets per minute: %.2f", setsPerMinute));
+            for (int score = 0; score < scores.length; score++)
+                System.out.println("score " + score + ": " + scores[score] + " players");
+            System.out.println(String.format("queried in %.1f ms", (System.nanoTime() - start) / 1e6));
+        }
+    }
+}
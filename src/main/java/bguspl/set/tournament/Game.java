@@ -0,0 +1,125 @@
+package bguspl.set.tournament;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterfaceDecorator;
+import bguspl.set.Util;
+import bguspl.set.UtilImpl;
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+import bguspl.set.stats.GameResult;
+import bguspl.set.stats.Leaderboard;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * A headless game of a tournament. Every game has its own configuration, logger, table, dealer and players, so games
+ * played at once share nothing but the leaderboard. The players are created as human players and their bots press
+ * their keys from the thread playing the game (no computer player threads).
+ */
+class Game {
+
+    private final String name;
+    private final Table table;
+    private final Dealer dealer;
+    private final Player[] players;
+    private final Strategy[] strategies;
+
+    /**
+     * The strategy spec of each player (recorded in the game's result).
+     */
+    private final String[] lineup;
+
+    /**
+     * @param name        - the name of the game (of its dealer thread).
+     * @param settings    - the game settings (copied: the tournament overrides the players, the names and the user
+     *                    interface, and turns off the logs, delays and files).
+     * @param lineup      - the strategy spec of each player (by player id), also the player's name.
+     * @param leaderboard - the leaderboard the final scores are reported to.
+     */
+    Game(String name, Properties settings, String[] lineup, Leaderboard leaderboard) {
+        this.name = name;
+        Properties properties = new Properties();
+        properties.putAll(settings);
+        properties.setProperty("HumanPlayers", Integer.toString(lineup.length));
+        properties.setProperty("ComputerPlayers", "0");
+        properties.setProperty("PlayerNames", String.join(",", lineup));
+        properties.setProperty("Hints", "False");
+        properties.setProperty("TableDelaySeconds", "0");
+        properties.setProperty("EndGamePauseSeconds", "0");
+        properties.setProperty("UserInterface", "None");
+        properties.setProperty("ServerPort", "0");
+        properties.setProperty("ResultsFile", "");
+        properties.setProperty("CheckpointFile", "");
+        properties.setProperty("LogLevel", "OFF");
+
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.OFF);
+        Config config = new Config(logger, properties);
+        Util util = new UtilImpl(config);
+        Env env = new Env(logger, config, new UserInterfaceDecorator(logger, util), util);
+
+        table = new Table(env);
+        players = new Player[config.players];
+        dealer = new Dealer(env, table, players);
+        strategies = new Strategy[players.length];
+        this.lineup = lineup.clone();
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player(env, dealer, table, i, true);
+            strategies[i] = Strategy.of(lineup[i]);
+        }
+        dealer.reportTo(leaderboard);
+    }
+
+    /**
+     * Plays the game until it ends or the time limit passes (then it is terminated, and not completed).
+     *
+     * @return - the result of the game.
+     */
+    GameResult play(long maxMillis) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long deadline = start + maxMillis;
+        boolean completed = true;
+        Thread dealerThread = new Thread(dealer, "dealer-" + name);
+        dealerThread.start();
+        long[] moves = new long[players.length];
+        try {
+            while (dealerThread.isAlive()) {
+                long now = System.currentTimeMillis();
+                if (now >= deadline) {
+                    completed = false;
+                    break;
+                }
+                long wake = deadline;
+                for (int i = 0; i < players.length; i++) {
+                    if (moves[i] <= now)
+                        moves[i] = now + strategies[i].move(players[i], table, dealer);
+                    wake = Math.min(wake, moves[i]);
+                }
+                // returns as soon as the game ends
+                long wait = wake - System.currentTimeMillis();
+                if (wait > 0)
+                    dealerThread.join(wait);
+            }
+        } finally {
+            if (dealerThread.isAlive()) {
+                dealer.terminate();
+                dealerThread.join();
+            }
+        }
+
+        int[] scores = new int[players.length];
+        for (Player player : players)
+            scores[player.id] = player.score();
+        int max = Arrays.stream(scores).max().orElse(0);
+        int[] winners = IntStream.range(0, players.length).filter(id -> scores[id] == max).toArray();
+        return new GameResult(start, System.currentTimeMillis() - start, dealer.reshuffles(), completed, lineup, scores,
+                winners);
+    }
+}
@@ -0,0 +1,86 @@
+package bguspl.set.tournament;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * How the strategies of a tournament are paired into games.
+ * Round robin plays every group of strategies (of the game's size) equally often. Swiss plays in rounds: every round
+ * groups strategies of similar win rates so far, avoiding groups that already played when a swap allows it, so the
+ * strong strategies are told apart with fewer games than a round robin of many strategies needs.
+ */
+public enum Pairing {
+
+    ROUND_ROBIN, SWISS;
+
+    /**
+     * @param name - round-robin or swiss (case insensitive).
+     * @throws IllegalArgumentException - if the name is not a pairing.
+     */
+    public static Pairing of(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+
+    /**
+     * @return - every group of the given size of the strategies (in the order of the strategies).
+     */
+    static List<String[]> roundRobin(List<String> strategies, int players) {
+        List<String[]> groups = new ArrayList<>();
+        combine(strategies, 0, new String[players], 0, groups);
+        return groups;
+    }
+
+    private static void combine(List<String> strategies, int from, String[] group, int size, List<String[]> groups) {
+        if (size == group.length) {
+            groups.add(group.clone());
+            return;
+        }
+        for (int i = from; i <= strategies.size() - (group.length - size); i++) {
+            group[size] = strategies.get(i);
+            combine(strategies, i + 1, group, size + 1, groups);
+        }
+    }
+
+    /**
+     * @param played - the keys (see key) of the groups that already played.
+     * @return - the groups of a Swiss round: the strategies ranked by their standings (ties in the order of the
+     *           strategies) and grouped consecutively; a group that already played swaps its last strategy with the
+     *           first one of the next group if neither group played then. The lowest ranked strategies that do not
+     *           fill a group sit the round out.
+     */
+    static List<String[]> swiss(List<String> strategies, int players, Standings standings, Set<String> played) {
+        List<String> ranked = new ArrayList<>(strategies);
+        ranked.sort(Comparator.comparingDouble((String strategy) -> standings.standing(strategy).winRate()).reversed());
+
+        List<String[]> groups = new ArrayList<>();
+        for (int i = 0; i + players <= ranked.size(); i += players)
+            groups.add(ranked.subList(i, i + players).toArray(new String[0]));
+        for (int i = 0; i + 1 < groups.size(); i++) {
+            String[] group = groups.get(i);
+            String[] next = groups.get(i + 1);
+            if (!played.contains(key(group)))
+                continue;
+            String[] swapped = group.clone();
+            String[] nextSwapped = next.clone();
+            swapped[players - 1] = next[0];
+            nextSwapped[0] = group[players - 1];
+            if (!played.contains(key(swapped)) && !played.contains(key(nextSwapped))) {
+                groups.set(i, swapped);
+                groups.set(i + 1, nextSwapped);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * @return - the key of a group of strategies (regardless of their order).
+     */
+    static String key(String[] group) {
+        String[] sorted = group.clone();
+        Arrays.sort(sorted);
+        return String.join("\n", sorted);
+    }
+}
@@ -0,0 +1,35 @@
+package bguspl.set.tournament;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Presses a random key every delay milliseconds, like the game's own computer players.
+ */
+public class RandomStrategy implements Strategy {
+
+    /**
+     * The delay of the game's computer players.
+     */
+    static final long defaultDelayMillis = 500;
+
+    private final long delayMillis;
+
+    public RandomStrategy(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public long move(Player player, Table table, Dealer dealer) {
+        player.keyPressed(ThreadLocalRandom.current().nextInt(table.cards().length));
+        return delayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "random:" + delayMillis;
+    }
+}
@@ -0,0 +1,71 @@
+package bguspl.set.tournament;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Hints;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Claims a random legal set on the table (as found by the dealer's hint service): removes its tokens from the other
+ * slots, then places the missing tokens, one key press every delay milliseconds. The bot's speed is its delay.
+ */
+public class SetFinderStrategy implements Strategy {
+
+    static final long defaultDelayMillis = 300;
+
+    /**
+     * The time to wait for the sets of a new table (or for a table with a set).
+     */
+    private static final long pollMillis = 5;
+
+    private final long delayMillis;
+
+    /**
+     * The slots of the set being claimed, and the table epoch it was found at.
+     */
+    private int[] target;
+    private long targetEpoch = -1;
+
+    public SetFinderStrategy(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public long move(Player player, Table table, Dealer dealer) {
+        Hints hints = dealer.hints().current();
+        if (hints == null || hints.isEmpty())
+            return pollMillis;
+        if (hints.epoch != targetEpoch) {
+            target = hints.slots[ThreadLocalRandom.current().nextInt(hints.slots.length)];
+            targetEpoch = hints.epoch;
+        }
+
+        int slots = table.cards().length;
+        for (int slot = 0; slot < slots; slot++)
+            if (table.hasTokenOn(player.id, slot) && !targets(slot)) {
+                player.keyPressed(slot);
+                return delayMillis;
+            }
+        for (int slot : target)
+            if (!table.hasTokenOn(player.id, slot)) {
+                player.keyPressed(slot);
+                return delayMillis;
+            }
+        // the claim is waiting for its verdict
+        return pollMillis;
+    }
+
+    private boolean targets(int slot) {
+        for (int targeted : target)
+            if (targeted == slot)
+                return true;
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "sets:" + delayMillis;
+    }
+}
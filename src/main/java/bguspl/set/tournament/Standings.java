@@ -0,0 +1,137 @@
+package bguspl.set.tournament;
+
+import bguspl.set.stats.GameResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The win rates of the strategies in a tournament, updated by every game as it finishes (by any thread, without
+ * locks). A player wins a game if no other player scored more (shared wins included, as on the Leaderboard). The win
+ * rates come with 95% Wilson score intervals, which stay within [0, 1] and are sound for few games and for win rates
+ * near 0 or 1.
+ */
+public class Standings {
+
+    /**
+     * The normal quantile of the confidence intervals (95%).
+     */
+    private static final double z = 1.96;
+
+    /**
+     * A strategy's standing at a moment (immutable).
+     */
+    public static class Standing {
+
+        public final String strategy;
+        public final long games;
+        public final long wins;
+        public final long sets;
+
+        /**
+         * The bounds of the confidence interval of the win rate.
+         */
+        public final double lower;
+        public final double upper;
+
+        Standing(String strategy, long games, long wins, long sets) {
+            this.strategy = strategy;
+            this.games = games;
+            this.wins = wins;
+            this.sets = sets;
+            double[] interval = wilson(wins, games);
+            lower = interval[0];
+            upper = interval[1];
+        }
+
+        public double winRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f%% wins [%.1f%%, %.1f%%] (%d games, %.2f sets per game)", strategy,
+                    100 * winRate(), 100 * lower, 100 * upper, games, games == 0 ? 0 : (double) sets / games);
+        }
+    }
+
+    private static class Tally {
+        final LongAdder games = new LongAdder();
+        final LongAdder wins = new LongAdder();
+        final LongAdder sets = new LongAdder();
+    }
+
+    private final ConcurrentMap<String, Tally> tallies = new ConcurrentHashMap<>();
+    private final LongAdder games = new LongAdder();
+
+    /**
+     * Adds a finished game.
+     *
+     * @param lineup - the strategy of each player (by player id).
+     * @param result - the result of the game.
+     */
+    public void add(String[] lineup, GameResult result) {
+        for (int player = 0; player < lineup.length; player++) {
+            Tally tally = tallies.computeIfAbsent(lineup[player], strategy -> new Tally());
+            tally.games.increment();
+            tally.sets.add(result.scores[player]);
+            if (result.won(player))
+                tally.wins.increment();
+        }
+        games.increment();
+    }
+
+    /**
+     * @return - the number of games added.
+     */
+    public long games() {
+        return games.sum();
+    }
+
+    /**
+     * @return - the standing of the strategy (with no games if it played none).
+     */
+    public Standing standing(String strategy) {
+        Tally tally = tallies.get(strategy);
+        return tally == null ? new Standing(strategy, 0, 0, 0)
+                : new Standing(strategy, tally.games.sum(), tally.wins.sum(), tally.sets.sum());
+    }
+
+    /**
+     * @return - the standings of the strategies that played, from the highest win rate. A game finishing meanwhile may
+     *           be counted for some of its players only.
+     */
+    public List<Standing> snapshot() {
+        List<Standing> snapshot = new ArrayList<>(tallies.size());
+        for (String strategy : tallies.keySet())
+            snapshot.add(standing(strategy));
+        snapshot.sort(Comparator.comparingDouble(Standing::winRate).reversed());
+        return snapshot;
+    }
+
+    /**
+     * @return - the 95% Wilson score interval of a win rate, as {lower, upper} ({0, 1} for no games).
+     */
+    public static double[] wilson(long wins, long games) {
+        if (games == 0)
+            return new double[]{0, 1};
+        double p = (double) wins / games;
+        double z2 = z * z / games;
+        double center = (p + z2 / 2) / (1 + z2);
+        double margin = z / (1 + z2) * Math.sqrt(p * (1 - p) / games + z2 / (4 * games));
+        return new double[]{Math.max(0, center - margin), Math.min(1, center + margin)};
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        int place = 1;
+        for (Standing standing : snapshot())
+            sb.append(place++).append(". ").append(standing).append(System.lineSeparator());
+        return sb.toString();
+    }
+}
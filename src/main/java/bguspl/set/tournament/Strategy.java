@@ -0,0 +1,44 @@
+package bguspl.set.tournament;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+/**
+ * How a bot plays in a tournament: it presses the keys of its player (Player.keyPressed) the way a human player would,
+ * one move at a time, on the thread driving the game. A strategy instance plays one seat of one game.
+ */
+public interface Strategy {
+
+    /**
+     * Makes the bot's next move (at most one key press).
+     *
+     * @return - the number of milliseconds until the next move.
+     */
+    long move(Player player, Table table, Dealer dealer);
+
+    /**
+     * Creates a strategy by its spec: random[:delay] presses random keys, sets[:delay] claims the legal sets it finds on
+     * the table, where delay is the number of milliseconds between the key presses.
+     *
+     * @return - a new strategy instance.
+     * @throws IllegalArgumentException - if the spec names no strategy or has an invalid delay.
+     */
+    static Strategy of(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        long delay;
+        try {
+            delay = parts.length > 1 ? Long.parseLong(parts[1].trim()) : -1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid delay in strategy " + spec);
+        }
+        switch (parts[0].trim().toLowerCase()) {
+            case "random":
+                return new RandomStrategy(delay < 0 ? RandomStrategy.defaultDelayMillis : delay);
+            case "sets":
+                return new SetFinderStrategy(delay < 0 ? SetFinderStrategy.defaultDelayMillis : delay);
+            default:
+                throw new IllegalArgumentException("unknown strategy " + spec);
+        }
+    }
+}
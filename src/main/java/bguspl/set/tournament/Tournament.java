@@ -0,0 +1,205 @@
+package bguspl.set.tournament;
+
+import bguspl.set.stats.GameResult;
+import bguspl.set.stats.Leaderboard;
+import bguspl.set.stats.ResultsStore;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a tournament of bot strategies: many headless games (see Game) played at once on a pool of threads, their
+ * results streamed into the win rates of the strategies (see Standings), the leaderboard, and the results store (the
+ * configured ResultsFile, if any).
+ * Usage: Tournament round-robin|swiss players games strategy,strategy,... [config.properties]
+ * where players is the number of players in a game and the strategies are specs of Strategy.of (e.g. random:500,
+ * sets:200). In a game, every player plays a different strategy and the seats rotate from game to game. The game
+ * settings are read from the configuration file (defaults for the missing ones), as are the tournament's:
+ * TournamentParallelGames - the number of games played at once (default: 16 per core, as a game mostly waits for its
+ * bots' delays and its freezes),
+ * TournamentGameSeconds - the time limit of a game (default 300),
+ * TournamentRounds - the number of rounds of a Swiss tournament (default: log2 of the number of strategies, plus 1).
+ * Short freezes and turn timeouts make the games (and the tournament) much shorter.
+ */
+public class Tournament {
+
+    /**
+     * The interval between the progress reports.
+     */
+    private static final long progressMillis = 5000;
+
+    private final Properties settings;
+    private final List<String> strategies;
+    private final int players;
+    private final int parallelGames;
+    private final long maxGameMillis;
+    private final int rounds;
+
+    private final Standings standings = new Standings();
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final String resultsFile;
+
+    /**
+     * The number of games started (naming the games) and of the games that failed.
+     */
+    private final AtomicInteger started = new AtomicInteger();
+    private int failed;
+
+    /**
+     * @param settings   - the game and tournament settings.
+     * @param strategies - the strategy specs (also the names of the players playing them).
+     * @param players    - the number of players in a game.
+     * @throws IllegalArgumentException - if a strategy is invalid or repeated, or there are fewer strategies than players.
+     */
+    public Tournament(Properties settings, List<String> strategies, int players) {
+        this.strategies = strategies.stream().map(String::trim).collect(Collectors.toList());
+        if (players < 1 || players > this.strategies.size())
+            throw new IllegalArgumentException(players + " players in a game of " + this.strategies.size() + " strategies");
+        if (new HashSet<>(this.strategies).size() != this.strategies.size())
+            throw new IllegalArgumentException("repeated strategy in " + strategies);
+        for (String strategy : this.strategies) {
+            if (strategy.contains(","))
+                throw new IllegalArgumentException("invalid strategy " + strategy);
+            Strategy.of(strategy);
+        }
+
+        this.settings = settings;
+        this.players = players;
+        parallelGames = Integer.parseInt(settings.getProperty("TournamentParallelGames",
+                Integer.toString(16 * Runtime.getRuntime().availableProcessors())));
+        maxGameMillis = (long) (Double.parseDouble(settings.getProperty("TournamentGameSeconds", "300")) * 1000.0);
+        int log2 = 32 - Integer.numberOfLeadingZeros(this.strategies.size() - 1);
+        rounds = Integer.parseInt(settings.getProperty("TournamentRounds", Integer.toString(log2 + 1)));
+        resultsFile = settings.getProperty("ResultsFile", "").trim();
+    }
+
+    /**
+     * Plays the tournament.
+     *
+     * @param games - the total number of games.
+     * @return - the standings after the last game.
+     * @throws IOException - if the results store cannot be opened.
+     */
+    public Standings run(Pairing pairing, int games) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelGames), runnable -> {
+            Thread thread = new Thread(runnable, "tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (ResultsStore store = resultsFile.isEmpty() ? null : new ResultsStore(Paths.get(resultsFile))) {
+            long start = System.nanoTime();
+            if (pairing == Pairing.ROUND_ROBIN)
+                play(executor, store, Pairing.roundRobin(strategies, players), games, start);
+            else {
+                Set<String> played = new HashSet<>();
+                for (int round = 0; round < rounds; round++) {
+                    List<String[]> groups = Pairing.swiss(strategies, players, standings, played);
+                    play(executor, store, groups, games * (round + 1) / rounds - games * round / rounds, start);
+                    for (String[] group : groups)
+                        played.add(Pairing.key(group));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return standings;
+    }
+
+    /**
+     * Plays games of the groups of strategies in turn (rotating the seats of a group from game to game), and waits for
+     * them to end.
+     */
+    private void play(ExecutorService executor, ResultsStore store, List<String[]> groups, int games, long start)
+            throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(games);
+        for (int game = 0; game < games; game++) {
+            String[] group = groups.get(game % groups.size());
+            int rotation = game / groups.size() % players;
+            String[] lineup = new String[players];
+            for (int seat = 0; seat < players; seat++)
+                lineup[seat] = group[(seat + rotation) % players];
+            futures.add(executor.submit(() -> {
+                Game played = new Game(Integer.toString(started.incrementAndGet()), settings, lineup, leaderboard);
+                GameResult result = played.play(maxGameMillis);
+                standings.add(lineup, result);
+                if (store != null)
+                    store.append(result);
+                return null;
+            }));
+        }
+
+        long report = System.nanoTime() + progressMillis * 1000000;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failed++;
+                System.err.println("a game failed: " + e.getCause());
+            }
+            if (System.nanoTime() - report >= 0) {
+                report = System.nanoTime() + progressMillis * 1000000;
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.println(String.format("%d games in %.0f s (%.1f games/s), leading: %s", standings.games(),
+                        seconds, standings.games() / seconds, standings.snapshot().get(0)));
+            }
+        }
+    }
+
+    /**
+     * @return - the leaderboard of the strategies (their Elo ratings).
+     */
+    public Leaderboard leaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * @return - the number of games that failed (and are not in the standings).
+     */
+    public int failed() {
+        return failed;
+    }
+
+    private static Properties loadProperties(String filename) throws IOException {
+        Properties properties = new Properties();
+        if (filename != null)
+            try (InputStream is = new FileInputStream(filename)) {
+                properties.load(is);
+            }
+        return properties;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.out.println("usage: Tournament round-robin|swiss players games strategy,strategy,... [config.properties]");
+            return;
+        }
+        Pairing pairing = Pairing.of(args[0]);
+        int games = Integer.parseInt(args[2]);
+        Tournament tournament = new Tournament(loadProperties(args.length > 4 ? args[4] : null),
+                Arrays.asList(args[3].split(",")), Integer.parseInt(args[1]));
+        long start = System.nanoTime();
+        Standings standings = tournament.run(pairing, games);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(String.format("%d games in %.1f s (%.1f games/s, %d at once), failed: %d",
+                standings.games(), seconds, standings.games() / seconds, tournament.parallelGames, tournament.failed()));
+        System.out.println("win rates (95% confidence intervals):");
+        System.out.print(standings);
+        System.out.println("ratings:");
+        System.out.print(tournament.leaderboard());
+    }
+}
@@ -0,0 +1,114 @@
+package bguspl.set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the sequential and the parallel set searches over growing collections of cards, in order to find the
+ * collection size from which the parallel search pays off (see config.parallelSearchThreshold). Both the exhaustive
+ * search (a list of cards) and the search by completion (a set of cards, as the dealer checks the deck) are measured.
+ * The parallel searches run on a pool of the given parallelism rather than on the common pool, which has a single
+ * worker on machines with less than 3 cores. Run on a machine with at least as many cores as the parallelism with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main FindSetsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindSetsBenchmark {
+
+    /**
+     * The number of cards searched (taken randomly from a deck of 3^6 cards).
+     */
+    @Param({"12", "24", "36", "48", "64", "81", "243", "729"})
+    public int cards;
+
+    /**
+     * The maximum number of sets to find (1 is what the dealer asks for when checking the deck).
+     */
+    @Param({"1", "2147483647"})
+    public int count;
+
+    /**
+     * The number of workers of the pool the parallel searches run on.
+     */
+    @Param({"2", "4"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private Util sequential;
+    private Util parallel;
+    private List<Integer> deck;
+    private BitSet members;
+
+    @Setup
+    public void setUp() {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        Properties properties = new Properties();
+        properties.put("FeatureCount", "6");
+        properties.put("FeatureSize", "3");
+        properties.put("ParallelSearchThreshold", String.valueOf(Integer.MAX_VALUE));
+        Config config = new Config(logger, properties);
+        sequential = new UtilImpl(config);
+        properties.put("ParallelSearchThreshold", "0");
+        pool = new ForkJoinPool(parallelism);
+        parallel = new UtilImpl(new Config(logger, properties), pool);
+
+        deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        Collections.shuffle(deck, new Random(cards));
+        deck = deck.subList(0, cards);
+        members = new BitSet(config.deckSize);
+        deck.forEach(members::set);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<int[]> sequential() {
+        return sequential.findSets(deck, count);
+    }
+
+    @Benchmark
+    public List<int[]> parallel() {
+        return parallel.findSetsParallel(deck, count);
+    }
+
+    @Benchmark
+    public List<int[]> sequentialCompletion() {
+        return sequential.findSets(members, count);
+    }
+
+    @Benchmark
+    public List<int[]> parallelCompletion() {
+        return parallel.findSets(members, count);
+    }
+}
@@ -0,0 +1,117 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.ErrorManager;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollingFileHandlerTest {
+
+    @TempDir
+    Path logs;
+
+    @Test
+    void publish_RollsOverCompressesAndKeepsTheCount() throws Exception {
+
+        RollingFileHandler handler = new RollingFileHandler(logs, "game");
+        handler.configure(1, 3, 0, true);
+        for (int i = 0; i < 20; i++)
+            handler.publish(new LogRecord(Level.INFO, "record " + i));
+        handler.close();
+
+        // every record fills a segment (the last one rolled over to an empty one), and the 3 last segments are kept
+        assertEquals(listing("game.18.log.gz", "game.19.log.gz", "game.20.log"), listing(files()));
+        String segment = unzip(logs.resolve("game.19.log.gz"));
+        assertTrue(segment.contains("record 19"));
+        assertFalse(segment.contains("record 18"));
+        assertEquals(0, Files.size(logs.resolve("game.20.log")));
+    }
+
+    @Test
+    void publish_KeepsWritingWhenTheNextSegmentCannotBeOpened() throws Exception {
+
+        // a directory in the way of the next segment
+        Path blocked = Files.createDirectory(logs.resolve("game.1.log"));
+        AtomicInteger errors = new AtomicInteger();
+        RollingFileHandler handler = new RollingFileHandler(logs, "game");
+        handler.setErrorManager(new ErrorManager() {
+            @Override
+            public void error(String msg, Exception ex, int code) {
+                errors.incrementAndGet();
+            }
+        });
+        handler.configure(1, 0, 0, false);
+        handler.publish(new LogRecord(Level.INFO, "record 0"));
+        handler.publish(new LogRecord(Level.INFO, "record 1"));
+        Files.delete(blocked);
+        handler.publish(new LogRecord(Level.INFO, "record 2"));
+        handler.publish(new LogRecord(Level.INFO, "record 3"));
+        handler.close();
+
+        // the failed rotations kept the first segment, and the first rotation that could open the next one rolled over
+        assertEquals(2, errors.get());
+        String first = new String(Files.readAllBytes(logs.resolve("game.log")));
+        assertTrue(first.contains("record 0") && first.contains("record 1") && first.contains("record 2"));
+        assertTrue(new String(Files.readAllBytes(logs.resolve("game.1.log"))).contains("record 3"));
+    }
+
+    @Test
+    void configure_EvictsTheOldestLogsBeyondTheBudget() throws Exception {
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            Path old = Files.write(logs.resolve("old" + i + ".log.gz"), new byte[1000]);
+            Files.setLastModifiedTime(old, FileTime.fromMillis(now - 10000 + i));
+        }
+        Files.write(logs.resolve("notes.txt"), new byte[5000]);
+
+        RollingFileHandler handler = new RollingFileHandler(logs, "game");
+        handler.configure(0, 0, 2500, true);
+        handler.publish(new LogRecord(Level.INFO, "record"));
+        handler.close();
+
+        assertEquals(listing("game.log", "notes.txt", "old1.log.gz", "old2.log.gz"), listing(files()));
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(logs)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> listing(String... files) {
+        return listing(Arrays.asList(files));
+    }
+
+    private static List<String> listing(List<String> files) {
+        return files.stream().sorted().collect(Collectors.toList());
+    }
+
+    private static String unzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer))
+                out.write(buffer, 0, read);
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package bguspl.set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares testing many candidate sets one by one (testSet) with testing them in a single batch (testSets).
+ * Run with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main TestSetsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestSetsBenchmark {
+
+    /**
+     * The number of candidates tested (random cards of a 3^4 deck).
+     */
+    @Param({"64", "1024", "16384"})
+    public int candidates;
+
+    private Util util;
+    private int[] cards;
+    private int setSize;
+    private int[] candidate;
+
+    @Setup
+    public void setUp() {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        Properties properties = new Properties();
+        properties.put("FeatureCount", "4");
+        properties.put("FeatureSize", "3");
+        Config config = new Config(logger, properties);
+        util = new UtilImpl(config);
+
+        setSize = config.featureSize;
+        Random random = new Random(candidates);
+        cards = random.ints(candidates * setSize, 0, config.deckSize).toArray();
+        candidate = new int[setSize];
+    }
+
+    @Benchmark
+    public long[] perCall() {
+        long[] legal = new long[(candidates + 63) / 64];
+        for (int i = 0; i < candidates; i++) {
+            System.arraycopy(cards, i * setSize, candidate, 0, setSize);
+            if (util.testSet(candidate))
+                legal[i / 64] |= 1L << i;
+        }
+        return legal;
+    }
+
+    @Benchmark
+    public long[] batch() {
+        return util.testSets(cards, candidates);
+    }
+}
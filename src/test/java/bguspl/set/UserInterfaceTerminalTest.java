@@ -0,0 +1,66 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserInterfaceTerminalTest {
+
+    private StringWriter terminal;
+    private UserInterfaceTerminal ui;
+    private Config config;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("PlayerNames", "Ann, Bob");
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        config = new Config(logger, properties);
+        terminal = new StringWriter();
+        ui = new UserInterfaceTerminal(logger, config, terminal, false);
+    }
+
+    private String frame() {
+        terminal.getBuffer().setLength(0);
+        ui.render();
+        return terminal.toString();
+    }
+
+    @Test
+    void render_WritesOnlyTheChangedFields() {
+
+        // the first frame draws every field
+        assertEquals(1 + 2 * config.tableSize + 2 * config.players, ui.render());
+        assertEquals(0, ui.render());
+
+        // card 40 (1111) is two green striped ovals, drawn at the cell of slot 5 (row 2, column 2)
+        ui.placeCard(40, 5);
+        ui.placeToken(1, 5);
+        String frame = frame();
+        assertTrue(frame.startsWith("\u001b[6;17H"));
+        assertTrue(frame.contains("\u001b[32m◎◎"));
+        assertTrue(frame.contains("\u001b[7;17HBob"));
+
+        // a countdown that shows the same seconds changes nothing on the screen
+        ui.setCountdown(30_500, false);
+        assertTrue(frame().contains("Remaining Time: 30"));
+        ui.setCountdown(30_100, false);
+        assertEquals(0, ui.render());
+
+        ui.setFreeze(0, 2000);
+        ui.setScore(1, 3);
+        frame = frame();
+        assertTrue(frame.contains("Ann (2)"));
+        assertTrue(frame.contains("3"));
+        assertFalse(frame.contains("Bob"));
+    }
+}
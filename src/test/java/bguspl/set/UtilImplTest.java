@@ -0,0 +1,150 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilImplTest {
+
+    Util util;
+    Config config;
+    private List<Integer> deck;
+
+    @BeforeEach
+    void setUp() {
+
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        properties.put("ParallelSearchThreshold", "0");
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        config = new Config(logger, properties);
+        util = new UtilImpl(config);
+        deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    void findSetsParallel_FindsAllSetsInOrder() {
+
+        List<int[]> expected = util.findSets(deck, Integer.MAX_VALUE);
+        List<int[]> actual = util.findSetsParallel(deck, Integer.MAX_VALUE);
+
+        // there are 1080 sets in the full 3^4 deck
+        assertEquals(1080, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertArrayEquals(expected.get(i), actual.get(i));
+    }
+
+    @Test
+    void findSetsParallel_StopsAtCount() {
+
+        List<int[]> sets = util.findSetsParallel(deck, 5);
+
+        assertEquals(5, sets.size());
+        sets.forEach(set -> assertTrue(util.testSet(set)));
+    }
+
+    @Test
+    void findSets_BitSetFindsSameSets() {
+
+        BitSet members = new BitSet(config.deckSize);
+        members.set(0, config.deckSize);
+
+        List<int[]> expected = util.findSets(deck, Integer.MAX_VALUE);
+        List<int[]> actual = util.findSets(members, Integer.MAX_VALUE);
+
+        assertEquals(expected.size(), actual.size());
+        Set<String> expectedSets = expected.stream().map(Arrays::toString).collect(Collectors.toSet());
+        actual.forEach(set -> assertTrue(expectedSets.contains(Arrays.toString(set))));
+    }
+
+    @Test
+    void findSets_BitSetPartialDeck() {
+
+        // every other card of the deck
+        BitSet members = new BitSet(config.deckSize);
+        for (int card = 0; card < config.deckSize; card += 2)
+            members.set(card);
+        List<Integer> cards = members.stream().boxed().collect(Collectors.toList());
+
+        assertEquals(util.findSets(cards, Integer.MAX_VALUE).size(), util.findSets(members, Integer.MAX_VALUE).size());
+        assertEquals(1, util.findSets(members, 1).size());
+    }
+
+    @Test
+    void testSets_MatchesTestSet() {
+
+        // every 3 card combination of the first 20 cards, then a partially used buffer
+        List<int[]> candidates = new ArrayList<>();
+        for (int a = 0; a < 20; a++)
+            for (int b = a + 1; b < 20; b++)
+                for (int c = b + 1; c < 20; c++)
+                    candidates.add(new int[]{a, b, c});
+        int[] cards = candidates.stream().flatMapToInt(Arrays::stream).toArray();
+
+        long[] legal = util.testSets(cards, candidates.size());
+        for (int i = 0; i < candidates.size(); i++)
+            assertEquals(util.testSet(candidates.get(i)), (legal[i / 64] & 1L << i) != 0, Arrays.toString(candidates.get(i)));
+        assertArrayEquals(new long[]{legal[0] & 0x1f}, util.testSets(cards, 5));
+    }
+
+    @Test
+    void findSetsParallel_NoSets() {
+
+        // 0000, 0001, 0010, 0011 contain no set
+        List<Integer> cards = IntStream.of(0, 1, 3, 4).boxed().collect(Collectors.toList());
+
+        assertEquals(0, util.findSetsParallel(cards, 1).size());
+    }
+
+    @Test
+    void findSetsParallel_SplitsAboveTheDefaultThreshold() {
+
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "5");
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        Config config = new Config(logger, properties);
+        List<Integer> deck = IntStream.range(0, config.deckSize).boxed().collect(Collectors.toList());
+        assertTrue(deck.size() >= config.parallelSearchThreshold);
+
+        // an explicit pool, so the search splits even where the common pool has a single worker
+        AtomicInteger workers = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(4, p -> {
+            workers.incrementAndGet();
+            return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+        }, null, false);
+        try {
+            Util util = new UtilImpl(config, pool);
+
+            List<int[]> expected = util.findSets(deck, Integer.MAX_VALUE);
+            List<int[]> actual = util.findSetsParallel(deck, Integer.MAX_VALUE);
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++)
+                assertArrayEquals(expected.get(i), actual.get(i));
+            assertTrue(workers.get() > 1, "workers: " + workers.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CheckpointTest {
+
+    Env env;
+    @Mock
+    Util util;
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("TableDelaySeconds", "0");
+        env = new Env(logger, new Config(logger, properties), ui, util);
+    }
+
+    private Checkpoint checkpoint() {
+        int[] slotToCard = new int[env.config.tableSize];
+        int[][] tokens = new int[env.config.tableSize][];
+        for (int slot = 0; slot < slotToCard.length; slot++) {
+            slotToCard[slot] = slot == 11 ? Checkpoint.noCard : 20 + slot;
+            tokens[slot] = new int[0];
+        }
+        // player 0 holds one token, player 1 holds a whole set (its claim is not in the checkpoint)
+        tokens[0] = new int[]{0, 1};
+        tokens[1] = new int[]{1};
+        tokens[2] = new int[]{1};
+        return new Checkpoint(env.config.deckSize, new int[]{3, 1, 4, 5, 9}, slotToCard, tokens, new int[]{2, 7},
+                12000, 95000, 3);
+    }
+
+    @Test
+    void encode_DecodesToTheSameCheckpoint() throws IOException {
+
+        Checkpoint checkpoint = checkpoint();
+        Checkpoint decoded = Checkpoint.decode(checkpoint.encode());
+
+        assertArrayEquals(checkpoint.deck, decoded.deck);
+        assertArrayEquals(checkpoint.slotToCard, decoded.slotToCard);
+        assertArrayEquals(checkpoint.tokens, decoded.tokens);
+        assertArrayEquals(checkpoint.scores, decoded.scores);
+        assertEquals(checkpoint.countdownMillis, decoded.countdownMillis);
+        assertEquals(checkpoint.elapsedMillis, decoded.elapsedMillis);
+        assertEquals(checkpoint.reshuffles, decoded.reshuffles);
+    }
+
+    @Test
+    void decode_RejectsCorruptedData() {
+
+        byte[] data = checkpoint().encode();
+        data[40] ^= 1;
+        assertThrows(IOException.class, () -> Checkpoint.decode(data));
+        assertThrows(IOException.class, () -> Checkpoint.decode(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void restore_RebuildsTheGame() {
+
+        Table table = new Table(env);
+        Player[] players = new Player[2];
+        Dealer dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, true);
+
+        assertTrue(dealer.restore(checkpoint()));
+
+        assertEquals(20, (int) table.slotToCard[0]);
+        assertNull(table.slotToCard[11]);
+        assertTrue(table.hasTokenOn(0, 0));
+        assertFalse(table.hasTokenOn(1, 0));
+        assertFalse(table.hasTokenOn(1, 2));
+        assertEquals(7, players[1].score());
+        verify(ui).setScore(1, 7);
+        assertEquals(3, dealer.reshuffles());
+    }
+
+    @Test
+    void restore_RejectsAnotherConfiguration() {
+
+        Table table = new Table(env);
+        Dealer dealer = new Dealer(env, table, new Player[3]);
+
+        assertFalse(dealer.restore(checkpoint()));
+        assertNull(table.slotToCard[0]);
+    }
+}
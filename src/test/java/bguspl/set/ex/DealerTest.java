@@ -0,0 +1,134 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.spy;
+
+@ExtendWith(MockitoExtension.class)
+class DealerTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Logger logger;
+
+    private Env env;
+    private Table table;
+    private Dealer dealer;
+    private Thread dealerThread;
+
+    /**
+     * The claim cancelled as soon as the dealer checks its tokens (i.e. between its adjudication and its verdict).
+     */
+    private final AtomicReference<Claim> cancelled = new AtomicReference<Claim>();
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "2");
+        properties.put("ComputerPlayers", "0");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("EndGamePauseSeconds", "0");
+        properties.put("DealingStrategy", "SetGuaranteeing");
+        properties.put("ClaimWindowSeconds", "0.2");
+        properties.put("Hints", "False");
+        properties.put("WatchdogSeconds", "0");
+        Config config = new Config(logger, properties);
+        env = new Env(logger, config, ui, new UtilImpl(config));
+
+        table = spy(new Table(env));
+        lenient().doAnswer(invocation -> {
+            Object tokenOn = invocation.callRealMethod();
+            Claim claim = cancelled.get();
+            if (claim != null)
+                claim.cancel();
+            return tokenOn;
+        }).when(table).hasTokenOn(eq(0), anyInt());
+
+        Player[] players = new Player[config.players];
+        dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, true);
+        dealerThread = new Thread(dealer, "dealer");
+        dealerThread.start();
+        for (int i = 0; i < 500 && (table.countCards() < config.tableSize || dealer.shuffleStatus()); i++)
+            Thread.sleep(10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dealer.terminate();
+        dealerThread.join();
+    }
+
+    // Returns the cards of a set on the table, with the tokens of the given players on them
+    private Integer[] setWithTokens(int... players) {
+        List<Integer> cards = new ArrayList<Integer>();
+        for (Integer card : table.slotToCard)
+            if (card != null)
+                cards.add(card);
+        int[] set = env.util.findSets(cards, 1).get(0);
+        Integer[] claimed = new Integer[set.length];
+        for (int i = 0; i < set.length; i++) {
+            claimed[i] = set[i];
+            for (int player : players)
+                table.placeToken(player, table.slotOf(set[i]));
+        }
+        return claimed;
+    }
+
+    @Test
+    void cancelledSet_LeavesTheCardsOnTheTable() throws Exception {
+
+        Integer[] cards = setWithTokens(0, 1);
+        Claim first = new Claim(0, cards, System.nanoTime());
+        cancelled.set(first);
+        dealer.submitClaim(first);
+        for (int i = 0; i < 500 && !first.verdict.isDone(); i++)
+            Thread.sleep(10);
+        assertTrue(first.verdict.isCancelled());
+
+        // the cards are still on the table, so the next claim on them is a set
+        Claim next = new Claim(1, cards, System.nanoTime());
+        dealer.submitClaim(next);
+        assertEquals(Verdict.SET, next.verdict.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cancelledSet_DoesNotMakeTheNextClaimStale() throws Exception {
+
+        Integer[] cards = setWithTokens(0, 1);
+        Claim first = new Claim(0, cards, System.nanoTime());
+        Claim second = new Claim(1, cards, System.nanoTime());
+        cancelled.set(first);
+        // both claims are judged in the same claim window, the first one first
+        dealer.submitClaim(first);
+        dealer.submitClaim(second);
+
+        assertEquals(Verdict.SET, second.verdict.get(5, TimeUnit.SECONDS));
+        assertTrue(first.verdict.isCancelled());
+    }
+}
@@ -0,0 +1,103 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class DealingStrategyTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Logger logger;
+    private Env env;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        Config config = new Config(logger, properties);
+        env = new Env(logger, config, ui, new UtilImpl(config));
+    }
+
+    @Test
+    void tableSets_CountsTheSetsIncrementally() {
+
+        TableSets table = new TableSets(env);
+        Deck deck = new Deck(env.config.deckSize);
+        deck.shuffle(new Random(7));
+        List<Integer> cards = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            if (cards.size() < 15 && (cards.isEmpty() || random.nextBoolean())) {
+                int card = deck.draw();
+                cards.add(card);
+                table.add(card);
+            } else {
+                int card = cards.remove(random.nextInt(cards.size()));
+                deck.add(card);
+                table.remove(card);
+            }
+            assertEquals(env.util.findSets(cards, Integer.MAX_VALUE).size(), table.count());
+        }
+    }
+
+    @Test
+    void tableSets_CompletionTriesEveryPairFromAnyStart() {
+
+        // 0000, 0001, 0010 and 0100: only the first pair is completed by a candidate (0002)
+        TableSets table = new TableSets(env);
+        BitSet candidates = new BitSet();
+        assertEquals(-1, table.completion(candidates, 0));
+        for (int card : new int[]{0, 1, 3, 9})
+            table.add(card);
+        candidates.set(2);
+        for (int start = 0; start < 20; start++)
+            assertEquals(2, table.completion(candidates, start));
+        candidates.clear();
+        assertEquals(-1, table.completion(candidates, 5));
+    }
+
+    @Test
+    void setGuaranteeing_DealsACompletionOnADeadTable() {
+
+        // 0000 and 0001 are completed to a set by 0002 only; the top card 0012 makes no set with them
+        TableSets table = new TableSets(env);
+        table.add(0);
+        table.add(1);
+        Deck deck = new Deck(env.config.deckSize);
+        deck.reset(new int[]{2, 5});
+
+        assertEquals(5, new RandomDealing().next(deck, table, 1));
+        deck.reset(new int[]{2, 5});
+        DealingStrategy strategy = DealingStrategy.of("SetGuaranteeing");
+        assertEquals(5, strategy.next(deck, table, 2));
+        deck.reset(new int[]{2, 5});
+        assertEquals(2, strategy.next(deck, table, 1));
+        assertEquals(1, strategy.rescues());
+        assertEquals(1, deck.size());
+        assertFalse(deck.contains(2));
+
+        table.add(2);
+        assertTrue(table.hasSet());
+        assertThrows(IllegalArgumentException.class, () -> DealingStrategy.of("Best"));
+    }
+}
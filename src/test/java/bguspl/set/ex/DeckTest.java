@@ -0,0 +1,82 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeckTest {
+
+    Deck deck;
+    private static final int deckSize = 81;
+
+    @BeforeEach
+    void setUp() {
+        deck = new Deck(deckSize);
+    }
+
+    void assertInvariants() {
+        assertEquals(deck.size(), deck.members().cardinality());
+        assertEquals(deck.size(), deck.asList().size());
+        for (int card : deck.asList())
+            assertTrue(deck.contains(card));
+    }
+
+    @Test
+    void draw_AllCardsOnce() {
+
+        Set<Integer> drawn = new HashSet<>();
+        while (!deck.isEmpty()) {
+            int card = deck.draw();
+            assertFalse(deck.contains(card));
+            assertTrue(drawn.add(card));
+        }
+        assertEquals(deckSize, drawn.size());
+        assertInvariants();
+    }
+
+    @Test
+    void add_ReturnsCardToTop() {
+
+        int card = deck.draw();
+        deck.add(card);
+
+        assertTrue(deck.contains(card));
+        assertEquals(card, deck.draw());
+        assertInvariants();
+    }
+
+    @Test
+    void remove_SpecificCard() {
+
+        assertTrue(deck.remove(40));
+        assertFalse(deck.remove(40));
+
+        assertFalse(deck.contains(40));
+        assertEquals(deckSize - 1, deck.size());
+        assertInvariants();
+    }
+
+    @Test
+    void shuffle_KeepsMembers() {
+
+        deck.draw();
+        deck.draw();
+        deck.shuffle(new Random(0));
+
+        assertEquals(deckSize - 2, deck.size());
+        assertInvariants();
+
+        // removing after a shuffle relies on the positions being updated
+        for (int card = 0; card < deckSize; card++)
+            if (deck.contains(card))
+                assertTrue(deck.remove(card));
+        assertTrue(deck.isEmpty());
+    }
+}
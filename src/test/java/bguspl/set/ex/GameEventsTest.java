@@ -0,0 +1,70 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.UtilImpl;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class GameEventsTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Logger logger;
+
+    @Test
+    void tableOperations_AreRecorded() throws Exception {
+
+        Properties properties = new Properties();
+        properties.put("TableDelaySeconds", "0");
+        Config config = new Config(logger, properties);
+        Table table = new Table(new Env(logger, config, ui, new UtilImpl(config)));
+
+        Path file = Files.createTempFile("game", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("bguspl.set.CardDealt");
+            recording.enable("bguspl.set.TokenPlaced");
+            recording.enable("bguspl.set.ClaimVerdict");
+            recording.start();
+            table.placeCard(40, 5);
+            table.placeToken(1, 5);
+            Claim claim = new Claim(1, new Integer[]{40, 41, 42}, System.nanoTime());
+            GameEvents.claimVerdict(claim, Verdict.NOT_A_SET);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("bguspl.set."))
+                .collect(Collectors.toList());
+        Files.delete(file);
+        assertEquals(3, events.size());
+        RecordedEvent dealt = events.get(0);
+        assertEquals("bguspl.set.CardDealt", dealt.getEventType().getName());
+        assertEquals(40, dealt.getInt("card"));
+        assertEquals(5, dealt.getInt("slot"));
+        assertTrue(!dealt.getDuration().isNegative());
+        assertEquals(1, events.get(1).getInt("player"));
+        assertEquals(40, events.get(1).getInt("card"));
+        assertEquals("NOT_A_SET", events.get(2).getString("verdict"));
+        assertEquals("[40, 41, 42]", events.get(2).getString("cards"));
+    }
+}
@@ -0,0 +1,109 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterfaceDecorator;
+import bguspl.set.Util;
+import bguspl.set.UtilImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plays whole games the way the dealer does (deal, collect a set from the table, reshuffle when the table holds no set,
+ * stop when no set is left) with growing deck and table sizes, to show how the dealer's CPU time and allocations per
+ * game scale. Run with the gc profiler to get the allocations per game:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) org.openjdk.jmh.Main GameScalingBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class GameScalingBenchmark {
+
+    /**
+     * The number of features on the cards (the deck holds 3^featureCount cards).
+     */
+    @Param({"4", "5", "6", "7", "8"})
+    public int featureCount;
+
+    /**
+     * The number of columns of the table (3 rows).
+     */
+    @Param({"4", "27"})
+    public int columns;
+
+    private Env env;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        Properties properties = new Properties();
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        properties.put("FeatureSize", "3");
+        properties.put("Rows", "3");
+        properties.put("Columns", Integer.toString(columns));
+        properties.put("TableDelaySeconds", "0");
+        properties.put("HumanPlayers", "0");
+        Config config = new Config(logger, properties);
+        Util util = new UtilImpl(config);
+        env = new Env(logger, config, new UserInterfaceDecorator(logger, util, null), util);
+        random = new Random(featureCount);
+    }
+
+    @Benchmark
+    public int game() {
+        Table table = new Table(env);
+        Deck deck = new Deck(env.config.deckSize);
+        BitSet onTable = new BitSet(env.config.deckSize);
+        deck.shuffle(random);
+
+        int sets = 0;
+        while (true) {
+            for (int placed = table.countCards(); placed < env.config.tableSize && !deck.isEmpty(); placed++) {
+                int card = deck.draw();
+                table.placeCard(card);
+                onTable.set(card);
+            }
+
+            List<int[]> found = env.util.findSets(onTable, Dealer.findASet);
+            if (!found.isEmpty()) {
+                for (int card : found.get(0)) {
+                    table.removeCard(table.slotOf(card));
+                    onTable.clear(card);
+                }
+                sets++;
+                continue;
+            }
+
+            // no set on the table: either the game is over or the dealer reshuffles
+            for (int card : table.removeAllCards())
+                deck.add(card);
+            onTable.clear();
+            if (env.util.findSets(deck.members(), Dealer.findASet).isEmpty())
+                return sets;
+            deck.shuffle(random);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class HintServiceTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Logger logger;
+    private UtilImpl util;
+    private Table table;
+    private HintService hints;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("TableDelaySeconds", "0");
+        Config config = new Config(logger, properties);
+        util = spy(new UtilImpl(config));
+        Env env = new Env(logger, config, ui, util);
+        table = new Table(env);
+        hints = new HintService(env, table);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hints.shutdown();
+    }
+
+    @Test
+    void request_FindsTheSetsOncePerEpoch() {
+
+        // cards 0, 1 and 2 differ only in the last feature
+        table.placeCard(0, 4);
+        table.placeCard(1, 7);
+        table.placeCard(2, 2);
+        table.placeCard(4, 0);
+
+        Hints found = hints.request().join();
+        assertEquals(table.epoch(), found.epoch);
+        assertEquals(1, found.sets.length);
+        assertArrayEquals(new int[]{2, 4, 7}, found.slots[0]);
+        assertSame(found, hints.current());
+        assertSame(found, hints.request().join());
+
+        table.removeCard(4);
+        assertTrue(hints.request().join().isEmpty());
+    }
+
+    @Test
+    void tableChanged_NotifiesTheSubscribers() throws InterruptedException {
+
+        BlockingQueue<Hints> received = new ArrayBlockingQueue<>(4);
+        hints.subscribe(received::add);
+
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(2, 2);
+        hints.tableChanged();
+
+        Hints found = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(found);
+        assertEquals(1, found.sets.length);
+        assertArrayEquals(new int[]{0, 1, 2}, found.slots[0]);
+    }
+
+    @Test
+    void tableChanged_WithoutSubscribers_FindsNothing() {
+
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(2, 2);
+        hints.tableChanged();
+
+        verify(util, after(200).never()).findSets(anyList(), anyInt());
+        assertNull(hints.current());
+        assertEquals(1, hints.request().join().sets.length);
+    }
+}
@@ -0,0 +1,71 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputBufferTest {
+
+    private static int[] drain(InputBuffer buffer) {
+        int[] slots = new int[3];
+        int n = 0;
+        for (InputBuffer.KeyPress press = buffer.poll(); press != null; press = buffer.poll())
+            slots[n++] = press.slot;
+        return Arrays.copyOf(slots, n);
+    }
+
+    @Test
+    void offer_DropsByPolicyWhenFull() {
+
+        InputBuffer newest = new InputBuffer(2, InputBuffer.Overflow.DROP_NEWEST);
+        assertTrue(newest.offer(1));
+        assertTrue(newest.offer(2));
+        assertFalse(newest.offer(3));
+        assertEquals("[1, 2]", Arrays.toString(drain(newest)));
+
+        InputBuffer oldest = new InputBuffer(2, InputBuffer.Overflow.DROP_OLDEST);
+        oldest.offer(1);
+        oldest.offer(2);
+        assertTrue(oldest.offer(3));
+        assertEquals("[2, 3]", Arrays.toString(drain(oldest)));
+        assertNull(oldest.poll());
+    }
+
+    @Test
+    void offer_CoalescesPressesOfTheSameSlot() {
+
+        InputBuffer buffer = new InputBuffer(2, InputBuffer.Overflow.COALESCE);
+        buffer.offer(1);
+        buffer.offer(2);
+        // the second press of slot 1 cancels the first one, so slot 3 fits
+        assertTrue(buffer.offer(1));
+        assertTrue(buffer.offer(3));
+        assertFalse(buffer.offer(4));
+        assertEquals("[2, 3]", Arrays.toString(drain(buffer)));
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void offer_CoalescesOnlyWhenTheBufferIsFull() {
+
+        InputBuffer buffer = new InputBuffer(3, InputBuffer.Overflow.COALESCE);
+        // a token placed and removed with room in the buffer: both presses are played
+        assertTrue(buffer.offer(1));
+        assertTrue(buffer.offer(1));
+        assertEquals("[1, 1]", Arrays.toString(drain(buffer)));
+    }
+
+    @Test
+    void overflow_ParsesConfigurationValues() {
+
+        assertEquals(InputBuffer.Overflow.DROP_OLDEST, InputBuffer.Overflow.of("DropOldest"));
+        assertEquals(InputBuffer.Overflow.COALESCE, InputBuffer.Overflow.of("coalesce"));
+        assertThrows(IllegalArgumentException.class, () -> InputBuffer.Overflow.of("DropAll"));
+    }
+}
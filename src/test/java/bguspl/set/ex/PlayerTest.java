@@ -8,14 +8,19 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,6 +28,7 @@ import static org.mockito.Mockito.when;
 class PlayerTest {
 
     Player player;
+    Env env;
     @Mock
     Util util;
     @Mock
@@ -42,7 +48,7 @@ class PlayerTest {
     @BeforeEach
     void setUp() {
         // purposely do not find the configuration files (use defaults here).
-        Env env = new Env(logger, new Config(logger, (String) null), ui, util);
+        env = new Env(logger, new Config(logger, (String) null), ui, util);
         player = new Player(env, dealer, table, 0, false);
         assertInvariants();
     }
@@ -56,7 +62,7 @@ class PlayerTest {
     void point() {
 
         // force table.countCards to return 3
-        when(table.countCards()).thenReturn(3); // this part is just for demonstration
+        lenient().when(table.countCards()).thenReturn(3); // this part is just for demonstration
 
         // calculate the expected score for later
         int expectedScore = player.score() + 1;
@@ -69,5 +75,79 @@ class PlayerTest {
 
         // check that ui.setScore was called with the player's id and the correct score
         verify(ui).setScore(eq(player.id), eq(expectedScore));
+
+        // check that the player is frozen without blocking the caller, and that the freeze expires
+        assertTrue(player.frozen());
+        verify(ui).setFreeze(eq(player.id), eq(1000L));
+        verify(ui, timeout(2000)).setFreeze(eq(player.id), eq(0L));
+        assertFalse(player.frozen());
+    }
+
+    @Test
+    void penalty() {
+
+        int expectedScore = player.score();
+
+        player.penalty();
+
+        // the score does not change and the freeze counts down every second before it expires
+        assertEquals(expectedScore, player.score());
+        assertTrue(player.frozen());
+        verify(ui).setFreeze(eq(player.id), eq(3000L));
+        verify(ui, timeout(1500)).setFreeze(eq(player.id), eq(2000L));
+        verify(ui, timeout(2500)).setFreeze(eq(player.id), eq(1000L));
+        verify(ui, timeout(3500)).setFreeze(eq(player.id), eq(0L));
+        assertFalse(player.frozen());
+    }
+
+    /**
+     * Places the tokens of a player on the first cards of a full table, until it claims a set.
+     */
+    private Claim claim(Player claimant) {
+        for (int slot = 0; slot < env.config.setSize; slot++) {
+            claimant.keyPressed(slot);
+            claimant.keyAction();
+        }
+        ArgumentCaptor<Claim> claim = ArgumentCaptor.forClass(Claim.class);
+        verify(dealer).submitClaim(claim.capture());
+        return claim.getValue();
+    }
+
+    private Table fullTable() {
+        Integer[] slotToCard = new Integer[env.config.tableSize];
+        for (int slot = 0; slot < slotToCard.length; slot++)
+            slotToCard[slot] = slot;
+        return new Table(env, slotToCard);
+    }
+
+    @Test
+    void claim_TokenRemovalWithdrawsPendingClaim() {
+
+        Table fullTable = fullTable();
+        Player claimant = new Player(env, dealer, fullTable, 0, true);
+
+        // the claim is submitted without waiting for the verdict
+        Claim claim = claim(claimant);
+        assertArrayEquals(new int[]{0, 1, 2}, claim.cards);
+        assertFalse(claim.verdict.isDone());
+
+        // the player keeps consuming its actions while the verdict is pending
+        claimant.keyPressed(1);
+        claimant.keyAction();
+        assertFalse(fullTable.hasTokenOn(0, 1));
+        assertTrue(claim.verdict.isCancelled());
+    }
+
+    @Test
+    void claim_VerdictHandledWhenItArrives() {
+
+        Player claimant = new Player(env, dealer, fullTable(), 0, true);
+        Claim claim = claim(claimant);
+
+        claim.verdict.complete(Verdict.SET);
+        claimant.checkVerdict();
+
+        assertEquals(1, claimant.score());
+        verify(ui).setScore(eq(0), eq(1));
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ShutdownCoordinatorTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Util util;
+    @Mock
+    private Logger logger;
+
+    @Test
+    void shutdown_InterruptsAllAndReportsTheStragglersByTheDeadline() throws Exception {
+
+        Properties properties = new Properties();
+        properties.put("ShutdownSeconds", "0.2");
+        Env env = new Env(logger, new Config(logger, properties), ui, util);
+        ShutdownCoordinator coordinator = new ShutdownCoordinator(env);
+
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        // stops when interrupted
+        Thread polite = new Thread(() -> {
+            started.countDown();
+            while (!Thread.currentThread().isInterrupted())
+                LockSupport.park();
+        }, "polite");
+        // ignores the interrupt until released
+        Thread stuck = new Thread(() -> {
+            started.countDown();
+            boolean released = false;
+            while (!released) {
+                try {
+                    released = release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }, "stuck");
+        polite.start();
+        stuck.start();
+        started.await();
+
+        long start = System.nanoTime();
+        List<Thread> stragglers = coordinator.shutdown(new Player[0], Arrays.asList(stuck, polite));
+        long millis = (System.nanoTime() - start) / 1000000;
+        try {
+            assertTrue(millis < 2000, millis + " ms");
+            assertFalse(polite.isAlive());
+            assertEquals(1, stragglers.size());
+            assertSame(stuck, stragglers.get(0));
+            // the shutdown runs once
+            assertSame(stragglers, coordinator.shutdown(new Player[0], Arrays.asList(stuck, polite)));
+            assertSame(stragglers, coordinator.stragglers());
+        } finally {
+            release.countDown();
+            stuck.join();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import bguspl.set.Util;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
@@ -16,8 +17,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 class TableTest {
 
     Table table;
+    private Env env;
     private Integer[] slotToCard;
-    private Integer[] cardToSlot;
 
     @BeforeEach
     void setUp() {
@@ -33,17 +34,15 @@ class TableTest {
         MockLogger logger = new MockLogger();
         Config config = new Config(logger, properties);
         slotToCard = new Integer[config.tableSize];
-        cardToSlot = new Integer[config.deckSize];
 
-        Env env = new Env(logger, config, new MockUserInterface(), new MockUtil());
-        table = new Table(env, slotToCard, cardToSlot);
+        env = new Env(logger, config, new MockUserInterface(), new MockUtil());
+        table = new Table(env, slotToCard);
     }
 
     private int fillSomeSlots() {
         slotToCard[1] = 3;
         slotToCard[2] = 5;
-        cardToSlot[3] = 1;
-        cardToSlot[5] = 2;
+        table = new Table(env, slotToCard);
 
         return 2;
     }
@@ -51,15 +50,15 @@ class TableTest {
     private void fillAllSlots() {
         for (int i = 0; i < slotToCard.length; ++i) {
             slotToCard[i] = i;
-            cardToSlot[i] = i;
         }
+        table = new Table(env, slotToCard);
     }
 
     private void placeSomeCardsAndAssert() throws InterruptedException {
         table.placeCard(8, 2);
 
         assertEquals(8, (int) slotToCard[2]);
-        assertEquals(2, (int) cardToSlot[8]);
+        assertEquals(2, table.slotOf(8));
     }
 
     @Test
@@ -95,6 +94,26 @@ class TableTest {
         placeSomeCardsAndAssert();
     }
 
+    @Test
+    void removeCard_ClearsCardToSlot() {
+
+        fillSomeSlots();
+        table.removeCard(1);
+
+        assertEquals(-1, table.slotOf(3));
+        assertEquals(2, table.slotOf(5));
+    }
+
+    @Test
+    void placeCard_LargeDeck() {
+
+        // card ids beyond the default deck size are mapped without allocating per deck card
+        table.placeCard(6560, 3);
+
+        assertEquals(3, table.slotOf(6560));
+        assertEquals(-1, table.slotOf(8));
+    }
+
     static class MockUserInterface implements UserInterface {
         @Override
         public void dispose() {}
@@ -138,11 +157,26 @@ class TableTest {
             return false;
         }
 
+        @Override
+        public long[] testSets(int[] cards, int candidates) {
+            return new long[(candidates + 63) / 64];
+        }
+
         @Override
         public List<int[]> findSets(List<Integer> deck, int count) {
             return null;
         }
 
+        @Override
+        public List<int[]> findSetsParallel(List<Integer> deck, int count) {
+            return null;
+        }
+
+        @Override
+        public List<int[]> findSets(BitSet deck, int count) {
+            return null;
+        }
+
         @Override
         public void spin() {}
     }
@@ -0,0 +1,62 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UserInterface;
+import bguspl.set.Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WatchdogTest {
+
+    @Mock
+    private UserInterface ui;
+    @Mock
+    private Util util;
+    @Mock
+    private Dealer dealer;
+    @Mock
+    private Logger logger;
+
+    @Test
+    void check_ReportsAStalledVerdictOnceAndRecovers() throws Exception {
+
+        Properties properties = new Properties();
+        properties.put("WatchdogSeconds", "0.01");
+        properties.put("WatchdogRecovery", "True");
+        Env env = new Env(logger, new Config(logger, properties), ui, util);
+        when(dealer.pendingClaims()).thenReturn(Collections.emptyList());
+        Watchdog watchdog = new Watchdog(env, dealer);
+
+        AtomicInteger woken = new AtomicInteger();
+        Watchdog.Heartbeat idle = new Watchdog.Heartbeat("player 0", woken::incrementAndGet);
+        Watchdog.Heartbeat waiting = new Watchdog.Heartbeat("player 1", woken::incrementAndGet);
+        watchdog.watch(idle);
+        watchdog.watch(waiting);
+        idle.bind();
+        idle.enter(Watchdog.State.IDLE);
+        waiting.bind();
+        Claim claim = new Claim(1, new Integer[]{0, 1, 2}, System.nanoTime());
+        waiting.awaitVerdict(claim);
+
+        Thread.sleep(50);
+        // only the player waiting for a verdict is stalled, and it is reported once
+        assertEquals(1, watchdog.check());
+        assertEquals(0, watchdog.check());
+        assertTrue(claim.verdict.isCancelled());
+        assertEquals(1, woken.get());
+        assertEquals("watchdog: 1 stalls, 1 recoveries", watchdog.toString());
+    }
+}
@@ -0,0 +1,67 @@
+package bguspl.set.net;
+
+import bguspl.set.UserInterface;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class EventCodecTest {
+
+    @Mock
+    private UserInterface ui;
+
+    @Test
+    void decode_ReplaysEventsInOrder() {
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        EventCodec.placeCard(buffer, 80, 11);
+        EventCodec.placeToken(buffer, 1, 11);
+        EventCodec.setCountdown(buffer, 4500, true);
+        EventCodec.setFreeze(buffer, 1, 3000);
+        EventCodec.setScore(buffer, 1, 7);
+        EventCodec.removeTokens(buffer, 11);
+        EventCodec.announceWinner(buffer, new int[]{0, 1});
+        buffer.flip();
+
+        while (EventCodec.decode(buffer, ui));
+
+        assertFalse(buffer.hasRemaining());
+        InOrder order = inOrder(ui);
+        order.verify(ui).placeCard(80, 11);
+        order.verify(ui).placeToken(1, 11);
+        order.verify(ui).setCountdown(4500, true);
+        order.verify(ui).setFreeze(1, 3000);
+        order.verify(ui).setScore(1, 7);
+        order.verify(ui).removeTokens(11);
+        order.verify(ui).announceWinner(new int[]{0, 1});
+    }
+
+    @Test
+    void decode_PartialEventIsNotConsumed() {
+
+        ByteBuffer buffer = ByteBuffer.allocate(EventCodec.MAX_FIXED_EVENT_SIZE);
+        EventCodec.placeCard(buffer, 5, 2);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+
+        assertFalse(EventCodec.decode(buffer, ui));
+        assertEquals(0, buffer.position());
+        verifyNoInteractions(ui);
+
+        buffer.limit(buffer.capacity());
+        assertTrue(EventCodec.decode(buffer, ui));
+        verify(ui).placeCard(5, 2);
+    }
+}
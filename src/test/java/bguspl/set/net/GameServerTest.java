@@ -0,0 +1,116 @@
+package bguspl.set.net;
+
+import bguspl.set.Config;
+import bguspl.set.UserInterface;
+import bguspl.set.ex.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GameServerTest {
+
+    GameServer server;
+    private Thread serverThread;
+    private SocketChannel client;
+    private final Player[] players = new Player[2];
+    @Mock
+    private UserInterface ui;
+
+    @BeforeEach
+    void setUp() throws IOException {
+
+        Properties properties = new Properties();
+        // an ephemeral port
+        properties.put("ServerPort", "0");
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        Config config = new Config(logger, properties);
+        for (int i = 0; i < players.length; i++)
+            players[i] = mock(Player.class);
+
+        server = new GameServer(logger, config, players);
+        serverThread = new Thread(server, "network-server");
+        serverThread.start();
+        client = SocketChannel.open(new InetSocketAddress("localhost", server.port()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        client.close();
+        server.terminate();
+        serverThread.join();
+    }
+
+    @Test
+    void keyPress_DispatchedToPlayer() throws IOException {
+
+        ByteBuffer keyPress = ByteBuffer.allocate(EventCodec.KEY_PRESS_SIZE);
+        EventCodec.keyPress(keyPress, 1, 5);
+        keyPress.flip();
+        client.write(keyPress);
+
+        verify(players[1], timeout(2000)).keyPressed(5);
+    }
+
+    @Test
+    void keyPress_OfAnotherPlayerRejected() throws IOException {
+
+        // the first key press binds the client to player 1
+        client.write(keyPress(1, 5));
+        verify(players[1], timeout(2000)).keyPressed(5);
+
+        // neither may this client play player 0, nor another client play player 1
+        try (SocketChannel other = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            client.write(keyPress(0, 2));
+            other.write(keyPress(1, 3));
+            other.write(keyPress(0, 4));
+            verify(players[0], timeout(2000)).keyPressed(4);
+        }
+        client.write(keyPress(1, 6));
+        verify(players[1], timeout(2000)).keyPressed(6);
+        verify(players[0], never()).keyPressed(2);
+        verify(players[1], never()).keyPressed(3);
+    }
+
+    private static ByteBuffer keyPress(int player, int slot) {
+        ByteBuffer keyPress = ByteBuffer.allocate(EventCodec.KEY_PRESS_SIZE);
+        EventCodec.keyPress(keyPress, player, slot);
+        keyPress.flip();
+        return keyPress;
+    }
+
+    @Test
+    void broadcast_StreamedToClient() throws IOException, InterruptedException {
+
+        // wait for the server to accept the client
+        for (int i = 0; i < 200 && server.connections() == 0; i++)
+            Thread.sleep(10);
+        assertTrue(server.connections() > 0);
+
+        new UserInterfaceNetwork(server).placeCard(42, 3);
+
+        ByteBuffer in = ByteBuffer.allocate(EventCodec.MAX_FIXED_EVENT_SIZE);
+        while (in.hasRemaining() && client.read(in) >= 0);
+        in.flip();
+        assertTrue(EventCodec.decode(in, ui));
+        verify(ui).placeCard(42, 3);
+    }
+}
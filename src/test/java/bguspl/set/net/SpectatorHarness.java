@@ -0,0 +1,131 @@
+package bguspl.set.net;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An in-process fan-out throughput harness for the spectator service: a producer thread plays random events as fast
+ * as it can while many spectators replay the frames into their own TableState (a fraction of them accept a frame
+ * only every slowMillis, so they keep skipping to keyframes). Reports the event and frame rates and checks that every
+ * spectator ends up with the producer's state.
+ * Usage: SpectatorHarness spectators fanOutThreads seconds [slowFraction slowMillis]
+ */
+public class SpectatorHarness {
+
+    private static final int tableSize = 12;
+    private static final int players = 8;
+    private static final int ringSize = 1 << 14;
+    private static final int keyframeInterval = 1 << 10;
+
+    private static class Replica implements SpectatorService.Spectator {
+
+        private final TableState state = new TableState(tableSize, players);
+        private final long slowNanos;
+        private long nextAccept;
+        private volatile long sequence = -1;
+
+        private Replica(long slowNanos) {
+            this.slowNanos = slowNanos;
+        }
+
+        @Override
+        public boolean offer(ByteBuffer frame) {
+            if (slowNanos > 0) {
+                long now = System.nanoTime();
+                if (now < nextAccept) return false;
+                nextAccept = now + slowNanos;
+            }
+            sequence = SpectatorService.replay(frame, state);
+            return true;
+        }
+    }
+
+    private static void play(SpectatorService service, TableState expected, long events) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long i = 0; i < events; i++) {
+            int slot = random.nextInt(tableSize);
+            int player = random.nextInt(players);
+            switch (random.nextInt(4)) {
+                case 0:
+                    service.placeToken(player, slot);
+                    expected.placeToken(player, slot);
+                    break;
+                case 1:
+                    service.removeToken(player, slot);
+                    expected.removeToken(player, slot);
+                    break;
+                case 2:
+                    int card = random.nextInt(81);
+                    service.removeTokens(slot);
+                    expected.removeTokens(slot);
+                    service.placeCard(card, slot);
+                    expected.placeCard(card, slot);
+                    break;
+                default:
+                    long millies = random.nextInt(60000);
+                    service.setCountdown(millies, millies < 5000);
+                    expected.setCountdown(millies, millies < 5000);
+            }
+        }
+    }
+
+    private static byte[] encode(TableState state) {
+        ByteBuffer out = ByteBuffer.allocate(state.encodedSize());
+        state.encode(out);
+        return out.array();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.out.println("usage: SpectatorHarness spectators fanOutThreads seconds [slowFraction slowMillis]");
+            return;
+        }
+        int spectators = Integer.parseInt(args[0]);
+        int fanOutThreads = Integer.parseInt(args[1]);
+        long millis = (long) (Double.parseDouble(args[2]) * 1000.0);
+        double slowFraction = args.length > 3 ? Double.parseDouble(args[3]) : 0.1;
+        long slowNanos = (long) ((args.length > 4 ? Double.parseDouble(args[4]) : 50) * 1_000_000L);
+
+        SpectatorService service = new SpectatorService(tableSize, players, fanOutThreads, ringSize, keyframeInterval);
+        Replica[] replicas = new Replica[spectators];
+        for (int i = 0; i < spectators; i++) {
+            replicas[i] = new Replica(i < spectators * slowFraction ? slowNanos : 0);
+            service.subscribe(replicas[i]);
+        }
+        service.start();
+
+        TableState expected = new TableState(tableSize, players);
+        long start = System.nanoTime();
+        long end = start + millis * 1_000_000L;
+        while (System.nanoTime() < end)
+            play(service, expected, 1000);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long events = service.sequence();
+        long frames = service.framesDelivered();
+        long bytes = service.bytesDelivered();
+
+        // let every spectator catch up
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        int behind;
+        do {
+            Thread.sleep(10);
+            behind = 0;
+            for (Replica replica : replicas)
+                if (replica.sequence != events) behind++;
+        } while (behind > 0 && System.nanoTime() < deadline);
+        service.terminate();
+
+        byte[] state = encode(expected);
+        int diverged = 0;
+        for (Replica replica : replicas)
+            if (replica.sequence == events && !Arrays.equals(state, encode(replica.state))) diverged++;
+
+        System.out.println("spectators: " + spectators + " (" + Math.round(spectators * slowFraction) + " slow), fan-out threads: " + fanOutThreads);
+        System.out.println("events: " + events + " (" + Math.round(events / seconds) + "/s)");
+        System.out.println("frames delivered: " + frames + " (" + Math.round(frames / seconds) + "/s), "
+                + Math.round(bytes / seconds / (1 << 20)) + " MiB/s");
+        System.out.println("keyframes delivered: " + service.keyframesDelivered() + ", frames rejected: " + service.framesRejected());
+        System.out.println("spectators behind: " + behind + ", diverged: " + diverged);
+    }
+}
@@ -0,0 +1,107 @@
+package bguspl.set.net;
+
+import bguspl.set.Config;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpectatorServerTest {
+
+    @Test
+    void spectator_ReplaysTheStreamedGame() throws Exception {
+
+        Properties properties = new Properties();
+        properties.put("PlayerNames", "");
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        Config config = new Config(logger, properties);
+        SpectatorServer server = new SpectatorServer(logger, config);
+        Thread serverThread = new Thread(server, "spectator-server");
+        serverThread.start();
+
+        try (SocketChannel client = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            for (int i = 0; i < 200 && server.connections() == 0; i++)
+                Thread.sleep(10);
+            assertTrue(server.connections() > 0);
+
+            TableState expected = new TableState(config.tableSize, config.players);
+            SpectatorService service = server.service();
+            service.placeCard(42, 3);
+            expected.placeCard(42, 3);
+            service.placeToken(1, 3);
+            expected.placeToken(1, 3);
+            service.setScore(1, 7);
+            expected.setScore(1, 7);
+
+            TableState replica = new TableState(config.tableSize, config.players);
+            long sequence = -1;
+            while (sequence < service.sequence())
+                sequence = SpectatorService.replay(readFrame(client), replica);
+            assertArrayEquals(encode(expected), encode(replica));
+        } finally {
+            server.terminate();
+            serverThread.join();
+        }
+    }
+
+    @Test
+    void spectator_DisconnectedIfAFrameCanNeverFit() throws Exception {
+
+        Properties properties = new Properties();
+        properties.put("PlayerNames", "");
+        properties.put("ServerMaxPendingBytes", "16");
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.OFF);
+        Config config = new Config(logger, properties);
+        SpectatorServer server = new SpectatorServer(logger, config);
+        Thread serverThread = new Thread(server, "spectator-server");
+        serverThread.start();
+
+        try (SocketChannel client = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            // the keyframe a new spectator starts with is already too large
+            SpectatorService service = server.service();
+            for (int i = 0; i < 200 && (service.framesRejected() == 0 || server.connections() > 0); i++)
+                Thread.sleep(10);
+            assertTrue(service.framesRejected() > 0);
+            assertEquals(0, server.connections());
+            assertEquals(-1, client.read(ByteBuffer.allocate(64)));
+        } finally {
+            server.terminate();
+            serverThread.join();
+        }
+    }
+
+    private static ByteBuffer readFrame(SocketChannel client) throws IOException {
+        ByteBuffer header = read(client, SpectatorService.HEADER_SIZE);
+        int length = header.getInt(1 + 8);
+        ByteBuffer frame = ByteBuffer.allocate(SpectatorService.HEADER_SIZE + length);
+        frame.put(header).put(read(client, length));
+        frame.flip();
+        return frame;
+    }
+
+    private static ByteBuffer read(SocketChannel client, int bytes) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(bytes);
+        while (in.hasRemaining())
+            if (client.read(in) < 0)
+                throw new IOException("disconnected");
+        in.flip();
+        return in;
+    }
+
+    private static byte[] encode(TableState state) {
+        ByteBuffer out = ByteBuffer.allocate(state.encodedSize());
+        state.encode(out);
+        return out.array();
+    }
+}
@@ -0,0 +1,135 @@
+package bguspl.set.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpectatorServiceTest {
+
+    private static final int tableSize = 12;
+    private static final int players = 70;
+
+    SpectatorService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SpectatorService(tableSize, players, 1, 64, 16);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.terminate();
+    }
+
+    private static byte[] encode(TableState state) {
+        ByteBuffer out = ByteBuffer.allocate(state.encodedSize());
+        state.encode(out);
+        assertEquals(0, out.remaining());
+        return out.array();
+    }
+
+    private static void play(SpectatorService service, TableState expected, int round) {
+        for (int slot = 0; slot < tableSize; slot++) {
+            service.placeCard(round * tableSize + slot, slot);
+            expected.placeCard(round * tableSize + slot, slot);
+        }
+        int player = round % players;
+        service.placeToken(player, round % tableSize);
+        expected.placeToken(player, round % tableSize);
+        service.setScore(player, round);
+        expected.setScore(player, round);
+        service.setCountdown(60000 - round, false);
+        expected.setCountdown(60000 - round, false);
+    }
+
+    @Test
+    void encode_ReplayRebuildsState() {
+
+        TableState state = new TableState(tableSize, players);
+        state.placeCard(7, 2);
+        state.removeCard(3);
+        state.placeToken(1, 2);
+        state.placeToken(69, 2);
+        state.setScore(69, 4);
+        state.setFreeze(1, 3000);
+        state.setCountdown(1500, true);
+        state.announceWinner(new int[]{69});
+
+        ByteBuffer encoded = ByteBuffer.wrap(encode(state));
+        TableState replica = new TableState(tableSize, players);
+        while (EventCodec.decode(encoded, replica));
+
+        assertArrayEquals(encode(state), encode(replica));
+    }
+
+    @Test
+    void subscribe_ReplicaFollowsState() throws InterruptedException {
+
+        BlockingQueue<ByteBuffer> frames = new ArrayBlockingQueue<>(1024);
+        service.subscribe(frame -> frames.offer(copy(frame)));
+
+        TableState expected = new TableState(tableSize, players);
+        for (int round = 0; round < 10; round++)
+            play(service, expected, round);
+
+        TableState replica = new TableState(tableSize, players);
+        long sequence = -1;
+        while (sequence != service.sequence()) {
+            ByteBuffer frame = frames.poll(2, TimeUnit.SECONDS);
+            assertNotNull(frame);
+            sequence = SpectatorService.replay(frame, replica);
+        }
+        assertArrayEquals(encode(expected), encode(replica));
+    }
+
+    @Test
+    void slowSpectator_SkipsToKeyframe() throws InterruptedException {
+
+        AtomicBoolean busy = new AtomicBoolean(true);
+        BlockingQueue<ByteBuffer> frames = new ArrayBlockingQueue<>(1024);
+        service.subscribe(frame -> !busy.get() && frames.offer(copy(frame)));
+
+        // the spectator rejects every frame while the game moves far beyond the ring
+        TableState expected = new TableState(tableSize, players);
+        for (int round = 0; round < 20; round++)
+            play(service, expected, round);
+        for (int i = 0; i < 200 && service.framesRejected() == 0; i++)
+            Thread.sleep(10);
+        assertTrue(service.framesRejected() > 0);
+        busy.set(false);
+
+        // it resumes from a keyframe instead of the deltas it missed
+        ByteBuffer first = frames.poll(2, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals(SpectatorService.KEYFRAME, first.get(0));
+        assertTrue(first.getLong(1) > 0);
+
+        TableState replica = new TableState(tableSize, players);
+        long sequence = SpectatorService.replay(first, replica);
+        while (sequence != service.sequence()) {
+            ByteBuffer frame = frames.poll(2, TimeUnit.SECONDS);
+            assertNotNull(frame);
+            sequence = SpectatorService.replay(frame, replica);
+        }
+        assertArrayEquals(encode(expected), encode(replica));
+    }
+
+    private static ByteBuffer copy(ByteBuffer frame) {
+        ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+        copy.put(frame);
+        copy.flip();
+        return copy;
+    }
+}
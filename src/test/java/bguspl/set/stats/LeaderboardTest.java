@@ -0,0 +1,99 @@
+package bguspl.set.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardTest {
+
+    Leaderboard leaderboard = new Leaderboard();
+
+    @Test
+    void report_WinnerTakesTheLosersPoints() {
+
+        leaderboard.report(new String[]{"Meni", "Marina"}, new int[]{5, 3});
+
+        Rating meni = leaderboard.rating("Meni");
+        Rating marina = leaderboard.rating("Marina");
+        // equal ratings expect a draw, so the winner gets half of k
+        assertEquals(Leaderboard.initialRating + 16, meni.rating, 1e-9);
+        assertEquals(Leaderboard.initialRating - 16, marina.rating, 1e-9);
+        assertEquals(1, meni.wins);
+        assertEquals(0, marina.wins);
+        assertEquals(8, meni.sets + marina.sets);
+        assertNull(leaderboard.rating("Player 3"));
+
+        // a draw moves the ratings towards each other
+        leaderboard.report(new String[]{"Meni", "Marina"}, new int[]{2, 2});
+        assertTrue(leaderboard.rating("Meni").rating < meni.rating);
+        assertEquals(2, leaderboard.rating("Marina").games);
+        assertEquals(1, leaderboard.rating("Marina").wins);
+        assertEquals("Meni", leaderboard.snapshot().get(0).name);
+    }
+
+    @Test
+    void report_ConcurrentGamesKeepSnapshotsConsistent() throws InterruptedException {
+
+        String[] names = {"A", "B", "C", "D", "E", "F"};
+        int threads = 4;
+        int games = 2000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> inconsistency = new AtomicReference<>();
+
+        // every game adds up to zero, so a consistent snapshot always sums to the initial ratings
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                List<Rating> snapshot = leaderboard.snapshot();
+                double sum = 0;
+                long played = 0;
+                for (Rating rating : snapshot) {
+                    sum += rating.rating;
+                    played += rating.games;
+                }
+                if (Math.abs(sum - Leaderboard.initialRating * snapshot.size()) > 1e-6 || played % 3 != 0)
+                    inconsistency.compareAndSet(null, snapshot.toString());
+            }
+        });
+        reader.start();
+
+        List<Thread> reporters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            reporters.add(new Thread(() -> {
+                for (int game = 0; game < games; game++) {
+                    // three distinct players per game
+                    int first = random.nextInt(names.length);
+                    int second = (first + 1 + random.nextInt(names.length - 1)) % names.length;
+                    int third = first;
+                    while (third == first || third == second)
+                        third = random.nextInt(names.length);
+                    leaderboard.report(new String[]{names[first], names[second], names[third]},
+                            new int[]{random.nextInt(6), random.nextInt(6), random.nextInt(6)});
+                }
+            }));
+        }
+        reporters.forEach(Thread::start);
+        for (Thread reporter : reporters)
+            reporter.join();
+        done.set(true);
+        reader.join();
+
+        assertNull(inconsistency.get());
+        long played = 0;
+        double sum = 0;
+        for (Rating rating : leaderboard.snapshot()) {
+            played += rating.games;
+            sum += rating.rating;
+        }
+        assertEquals(3L * threads * games, played);
+        assertEquals(Leaderboard.initialRating * names.length, sum, 1e-6);
+    }
+}
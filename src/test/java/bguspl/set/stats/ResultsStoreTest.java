@@ -0,0 +1,124 @@
+package bguspl.set.stats;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResultsStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private static GameResult game(int humanScore, int botScore) {
+        int[] winners = humanScore == botScore ? new int[]{0, 1} : new int[]{humanScore > botScore ? 0 : 1};
+        return new GameResult(0, 30000, 1, true, new String[]{GameResult.human, GameResult.computer},
+                new int[]{humanScore, botScore}, winners);
+    }
+
+    @Test
+    void append_AggregatesSurviveReopening() throws IOException {
+
+        Path file = directory.resolve("results.bin");
+        try (ResultsStore store = new ResultsStore(file)) {
+            store.append(game(3, 1));
+            store.append(game(2, 2));
+        }
+
+        try (ResultsStore store = new ResultsStore(file)) {
+            store.append(game(0, 4));
+
+            assertEquals(3, store.games());
+            Map<String, Double> winRates = store.winRates();
+            assertEquals(2.0 / 3, winRates.get(GameResult.human), 1e-9);
+            assertEquals(2.0 / 3, winRates.get(GameResult.computer), 1e-9);
+            // 12 sets in 90 seconds
+            assertEquals(8.0, store.setsPerMinute(), 1e-9);
+            assertArrayEquals(new long[]{1, 1, 2, 1, 1}, store.scoreDistribution());
+        }
+    }
+
+    @Test
+    void append_GrowsTheFile() throws IOException {
+
+        try (ResultsStore store = new ResultsStore(directory.resolve("results.bin"))) {
+            for (int i = 0; i < 1000; i++)
+                store.append(game(i % 5, 40));
+
+            assertEquals(1000, store.games());
+            long[] scores = store.scoreDistribution();
+            assertEquals(41, scores.length);
+            assertEquals(1000, scores[40]);
+            assertEquals(200, scores[4]);
+        }
+    }
+
+    @Test
+    void winRates_TellsTheStrategySpecsApart() throws IOException {
+
+        Path file = directory.resolve("results.bin");
+        try (ResultsStore store = new ResultsStore(file);
+             ResultsStore other = new ResultsStore(file)) {
+            store.append(new GameResult(0, 30000, 0, true, new String[]{"sets:1", "sets:300"}, new int[]{5, 1},
+                    new int[]{0}));
+            // names defined by another store of the file are reused, and new ones are added
+            other.append(new GameResult(0, 30000, 0, true, new String[]{"random:100", "sets:300"}, new int[]{0, 3},
+                    new int[]{1}));
+            store.append(new GameResult(0, 30000, 0, true, new String[]{"random:1000", "random:100"}, new int[]{1, 0},
+                    new int[]{0}));
+        }
+
+        try (ResultsStore store = new ResultsStore(file)) {
+            Map<String, Double> winRates = store.winRates();
+            assertEquals(4, winRates.size());
+            assertEquals(1.0, winRates.get("sets:1"), 1e-9);
+            assertEquals(0.5, winRates.get("sets:300"), 1e-9);
+            assertEquals(0.0, winRates.get("random:100"), 1e-9);
+            assertEquals(1.0, winRates.get("random:1000"), 1e-9);
+            assertEquals(3, store.games());
+        }
+    }
+
+    @Test
+    void append_FromStoresOfTheSameFileTakesTurns() throws Exception {
+
+        Path file = directory.resolve("results.bin");
+        Thread[] threads = new Thread[4];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try (ResultsStore store = new ResultsStore(file)) {
+                    for (int i = 0; i < 5000; i++)
+                        store.append(game(1, 2));
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        assertNull(failure.get());
+        try (ResultsStore store = new ResultsStore(file)) {
+            assertEquals(20000, store.games());
+        }
+    }
+
+    @Test
+    void open_RejectsOtherFiles() throws IOException {
+
+        Path file = directory.resolve("notes.txt");
+        Files.write(file, "not a results file, but long enough to hold a header".getBytes());
+        assertThrows(IOException.class, () -> new ResultsStore(file));
+    }
+}
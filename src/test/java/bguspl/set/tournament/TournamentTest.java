@@ -0,0 +1,66 @@
+package bguspl.set.tournament;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TournamentTest {
+
+    @Test
+    void wilson_MatchesKnownIntervals() {
+
+        assertArrayEquals(new double[]{0.2366, 0.7634}, Standings.wilson(5, 10), 1e-4);
+        assertArrayEquals(new double[]{0, 0.2775}, Standings.wilson(0, 10), 1e-4);
+        assertArrayEquals(new double[]{0, 1}, Standings.wilson(0, 0), 0);
+    }
+
+    @Test
+    void pairings_CoverTheGroupsAndAvoidRematches() {
+
+        List<String> strategies = Arrays.asList("a", "b", "c", "d");
+        List<String[]> groups = Pairing.roundRobin(strategies, 2);
+        assertEquals(6, groups.size());
+        assertEquals(4, Pairing.roundRobin(strategies, 3).size());
+
+        // with no games yet the strategies keep their order, and a repeated group swaps with the next one
+        Standings standings = new Standings();
+        Set<String> played = new HashSet<>();
+        List<String[]> round = Pairing.swiss(strategies, 2, standings, played);
+        assertArrayEquals(new String[]{"a", "b"}, round.get(0));
+        played.add(Pairing.key(round.get(0)));
+        played.add(Pairing.key(round.get(1)));
+        round = Pairing.swiss(strategies, 2, standings, played);
+        assertArrayEquals(new String[]{"a", "c"}, round.get(0));
+        assertArrayEquals(new String[]{"b", "d"}, round.get(1));
+        assertThrows(IllegalArgumentException.class, () -> Strategy.of("smart"));
+    }
+
+    @Test
+    void run_TheSetFinderBeatsTheRandomBot() throws Exception {
+
+        Properties settings = new Properties();
+        settings.setProperty("FeatureCount", "3");
+        settings.setProperty("PointFreezeSeconds", "0");
+        settings.setProperty("PenaltyFreezeSeconds", "0");
+        settings.setProperty("TournamentGameSeconds", "20");
+        Tournament tournament = new Tournament(settings, Arrays.asList("sets:1", "random:1000"), 2);
+
+        Standings standings = tournament.run(Pairing.ROUND_ROBIN, 4);
+        assertEquals(0, tournament.failed());
+        assertEquals(4, standings.games());
+        Standings.Standing winner = standings.snapshot().get(0);
+        assertEquals("sets:1", winner.strategy);
+        assertEquals(4, winner.wins);
+        assertTrue(winner.lower > 0.4);
+        assertEquals(4, tournament.leaderboard().rating("random:1000").games);
+    }
+}